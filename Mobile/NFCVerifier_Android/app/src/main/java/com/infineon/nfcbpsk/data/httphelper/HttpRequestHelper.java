@@ -16,7 +16,7 @@
  */
 package com.infineon.nfcbpsk.data.httphelper;
 
-import android.app.Activity;
+import android.content.Context;
 
 import com.infineon.nfcbpsk.R;
 
@@ -40,7 +40,7 @@ public class HttpRequestHelper {
      */
     public final String url;
 
-    private final Activity context;
+    private final Context context;
 
     /**
      * Initializes the handler with the HTTPS URL
@@ -48,7 +48,7 @@ public class HttpRequestHelper {
      * @param context   Context of the requesting activity
      * @param url       HTTPS URL to which the request has to be made
      */
-    public HttpRequestHelper(Activity context, String url) {
+    public HttpRequestHelper(Context context, String url) {
         this.url = url;
         this.context = context;
     }
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.nfcbpsk.data.nfc;
+
+import android.nfc.tech.IsoDep;
+
+import java.io.IOException;
+
+/**
+ * Transport of APDUs through the Android IsoDep tag handle
+ */
+public class IsoDepTransport implements ApduTransport {
+
+    /**
+     * Stores the tag handle
+     */
+    private final IsoDep isoDep;
+
+    /**
+     * Initializes the transport
+     *
+     * @param isoDep IsoDep tag handle used for communication with the tag
+     */
+    public IsoDepTransport(IsoDep isoDep) {
+        this.isoDep = isoDep;
+    }
+
+    @Override
+    public void connect() throws IOException {
+        isoDep.connect();
+    }
+
+    @Override
+    public void close() throws IOException {
+        isoDep.close();
+    }
+
+    @Override
+    public byte[] transceive(byte[] command) throws IOException {
+        return isoDep.transceive(command);
+    }
+
+    @Override
+    public void setTimeout(int timeout) {
+        isoDep.setTimeout(timeout);
+    }
+
+    @Override
+    public int getTimeout() {
+        return isoDep.getTimeout();
+    }
+
+    @Override
+    public boolean isExtendedLengthApduSupported() {
+        return isoDep.isExtendedLengthApduSupported();
+    }
+
+    @Override
+    public int getMaxTransceiveLength() {
+        return isoDep.getMaxTransceiveLength();
+    }
+
+    @Override
+    public byte[] getHistoricalBytes() {
+        return isoDep.getHistoricalBytes();
+    }
+
+    @Override
+    public byte[] getHiLayerResponse() {
+        return isoDep.getHiLayerResponse();
+    }
+}
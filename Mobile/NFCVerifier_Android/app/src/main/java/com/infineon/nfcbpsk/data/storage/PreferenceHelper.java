@@ -37,9 +37,13 @@ public class PreferenceHelper {
      */
     private static final String   TAG_EULA_ACCEPTED_VERSION = "EULA_ACCEPTED_VERSION";
     /**
-     * Activity reference
+     * Constant value to save the cached capability container files
      */
-    final Activity activity;
+    private static final String   TAG_CC_CACHE = "CC_CACHE";
+    /**
+     * Context reference
+     */
+    final Context context;
     /**
      * Shared preference
      */
@@ -55,12 +59,21 @@ public class PreferenceHelper {
      * @param activity instance of Activity class
      */
     public PreferenceHelper(Activity activity) {
-        this.activity = activity;
+        this((Context) activity);
+    }
+
+    /**
+     * Initialize the preference manager
+     *
+     * @param context instance of Context class
+     */
+    public PreferenceHelper(Context context) {
+        this.context = context;
         /*
           Static Constant for Preferences Id
          */
         String AppPreference = "NFC_VERIFIER_PREF";
-        sharedPreferences = activity.getSharedPreferences(AppPreference, Context.MODE_PRIVATE);
+        sharedPreferences = context.getSharedPreferences(AppPreference, Context.MODE_PRIVATE);
 
     }
 
@@ -122,4 +135,22 @@ public class PreferenceHelper {
         editor.putInt(TAG_AUTO_OPEN_DURATION, timeInSec);
         editor.apply();
     }
+
+    /**
+     * @return Return the cached capability container files, empty if nothing is cached
+     */
+    public String getCapabilityContainerCachePref() {
+        return sharedPreferences.getString(TAG_CC_CACHE, "");
+    }
+
+    /**
+     * Sets the cached capability container files
+     *
+     * @param entries Cache entries as string
+     */
+    public void setCapabilityContainerCachePref(String entries) {
+        SharedPreferences.Editor editor = sharedPreferences.edit();
+        editor.putString(TAG_CC_CACHE, entries);
+        editor.apply();
+    }
 }
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.nfcbpsk.services.apdu;
+
+import android.content.Context;
+
+import com.infineon.nfcbpsk.data.logger.LoggerFactory;
+import com.infineon.nfcbpsk.data.logger.LoggerType;
+import com.infineon.nfcbpsk.data.nfc.CapabilityContainerCache;
+import com.infineon.nfcbpsk.data.nfc.NfcChannel;
+import com.infineon.nfcbpsk.data.storage.PreferenceHelper;
+
+/**
+ * Factory class for providing the command managers of the application
+ */
+public class CommandManagerFactory {
+
+    private static CapabilityContainerCache ccCache;
+
+    /**
+     * Returns a command manager using the string resources, the console logger and the CC cache
+     * of the application
+     *
+     * @param nfcChannel Channel for communication
+     * @param context    Context handle of the requesting activity / application
+     * @return command manager
+     */
+    public static CommandManager getCommandManager(NfcChannel nfcChannel, Context context) {
+        return new CommandManager(nfcChannel, new ResourceErrorMessageResolver(context),
+                LoggerFactory.getLogger(context, LoggerType.CONSOLE), getCapabilityContainerCache(context));
+    }
+
+    /**
+     * Returns the CC cache of the application, persisted in the shared preferences
+     *
+     * @param context Context of the application
+     * @return the cache instance
+     */
+    public static synchronized CapabilityContainerCache getCapabilityContainerCache(Context context) {
+        if (ccCache == null) {
+            final PreferenceHelper preferenceHelper = new PreferenceHelper(context.getApplicationContext());
+            ccCache = new CapabilityContainerCache(new CapabilityContainerCache.Storage() {
+                @Override
+                public String load() {
+                    return preferenceHelper.getCapabilityContainerCachePref();
+                }
+
+                @Override
+                public void save(String entries) {
+                    preferenceHelper.setCapabilityContainerCachePref(entries);
+                }
+            });
+        }
+        return ccCache;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.nfcbpsk.services.apdu;
+
+import android.content.Context;
+
+import com.infineon.nfcbpsk.R;
+
+/**
+ * Resolves the error messages of the APDU commands to the string resources of the application
+ */
+public class ResourceErrorMessageResolver implements ErrorMessageResolver {
+    /**
+     * Handle of the application context
+     */
+    final Context context;
+
+    /**
+     * Initializes the resolver
+     *
+     * @param context Context handle of the application
+     */
+    public ResourceErrorMessageResolver(Context context) {
+        this.context = context;
+    }
+
+    @Override
+    public String getMessage(ErrorMessage message) {
+        switch (message) {
+            case SELECT_AID:
+                return context.getString(R.string.msg_select_aid);
+            case SELECT_CC_FILE:
+                return context.getString(R.string.msg_select_cc_file);
+            case READ_CC_FILE:
+                return context.getString(R.string.msg_read_cc_file);
+            case SELECT_NDEF_FILE:
+                return context.getString(R.string.msg_select_ndef_file);
+            case READ_NDEF_FILE:
+                return context.getString(R.string.msg_read_ndef_file);
+            case SELECT_ID_INFO_FILE:
+                return context.getString(R.string.msg_select_id_info_file);
+            case READ_ID_INFO_FILE:
+                return context.getString(R.string.msg_read_id_info_file);
+            case GET_CHALLENGE:
+                return context.getString(R.string.msg_read_challenge_file);
+            case MUTUAL_AUTHENTICATE:
+                return context.getString(R.string.msg_mutual_auth_failed);
+        }
+        return message.getDefaultText();
+    }
+}
@@ -17,39 +17,46 @@
 
 package com.infineon.nfcbpsk.services.brandverification;
 
-import android.app.Activity;
+import android.content.Context;
 import android.util.Log;
 
-import com.infineon.ndef.NDEFMessage;
 import com.infineon.ndef.NDEFRecord;
 import com.infineon.ndef.NFCException;
 import com.infineon.ndef.NFCFactory;
 import com.infineon.ndef.converter.NDEFMessageDecoder;
+import com.infineon.ndef.converter.NDEFRecordReader;
+import com.infineon.ndef.converter.RecordFilter;
+import com.infineon.ndef.converter.RecordTypeFilter;
 import com.infineon.ndef.model.AbstractRecord;
 import com.infineon.ndef.model.ExternalTypeRecord;
 import com.infineon.ndef.model.URIRecord;
+import com.infineon.ndef.utils.NDEFConstants;
 import com.infineon.ndef.utils.UtilException;
 import com.infineon.ndef.utils.Utils;
 import com.infineon.nfcbpsk.R;
 import com.infineon.nfcbpsk.services.apdu.ApduException;
 import com.infineon.nfcbpsk.services.apdu.ApduResponse;
 import com.infineon.nfcbpsk.services.apdu.MutualAuthException;
+import com.infineon.nfcbpsk.services.apdu.ReadBinaryChunkListener;
 import com.infineon.nfcbpsk.data.nfc.NfcChannel;
 import com.infineon.nfcbpsk.data.logger.TimeLogger;
 import com.infineon.nfcbpsk.services.apdu.CommandManager;
+import com.infineon.nfcbpsk.services.apdu.CommandManagerFactory;
 import com.infineon.nfcbpsk.services.appfiledecoder.product.ProductInformationDecoder;
 import com.infineon.nfcbpsk.services.appfiledecoder.product.ProfileType;
 import com.infineon.nfcbpsk.services.brandprotectionrecord.BrandProtectionPayloadDecoder;
 import com.infineon.nfcbpsk.services.brandprotectionrecord.BrandProtectionRecord;
 
-import java.util.Arrays;
 import java.util.Objects;
+import java.util.concurrent.Executor;
 
 import static com.infineon.nfcbpsk.services.brandverification.ErrorResult.TYPE_ERROR;
 import static com.infineon.nfcbpsk.services.brandverification.ErrorResult.TYPE_WARNING;
 
 /**
- * Manages the commands execution sequence for performing brand verification
+ * Manages the commands execution sequence for performing brand verification. The tag and cloud
+ * operations overlap where they do not depend on each other: the mutual authentication response
+ * is verified while the product and service information is read.
  */
 public class BrandVerificationManager {
     /**
@@ -59,7 +66,11 @@ public class BrandVerificationManager {
     /**
      * Handle of the application context
      */
-    private final Activity context;
+    private final Context context;
+    /**
+     * Executor of the tag communication
+     */
+    private final Executor nfcExecutor;
     /**
      * Listener for call back to the calling activity
      */
@@ -72,7 +83,15 @@ public class BrandVerificationManager {
     TimeLogger timeLogger;
 
     private URIRecord uriRecord;
+    /**
+     * Last external type record of the NDEF message, which holds the brand protection record
+     */
+    private ExternalTypeRecord lastExternalTypeRecord;
     private BrandProtectionRecord brandProtectionRecord;
+    /**
+     * Cloud service of the brand protection record
+     */
+    private BrandVerificationService service;
     private MutualAuthGenerateResponse maGenerateResponse;
     private byte[] challenge;
     private byte[] chipID;
@@ -85,8 +104,9 @@ public class BrandVerificationManager {
         public void onSuccess(MutualAuthGenerateResponse response) {
             try {
                 maGenerateResponse = response;
-                mutualAuthCommandData = Utils.toByteArray(response.commandData.toUpperCase());
-                performBrandVerificationPhase2();
+                // Plain hex command data is decoded by the strict codec, other formats by the lenient parser
+                mutualAuthCommandData = Utils.toByteArray(response.commandData);
+                nfcExecutor.execute(() -> performBrandVerificationPhase2());
             } catch (UtilException e) {
                 ErrorResult errorResult = new ErrorResult(TYPE_WARNING, e.getMessage(),
                         ErrorResult.getTitle(context, Objects.requireNonNull(e.getMessage()),
@@ -108,18 +128,22 @@ public class BrandVerificationManager {
      *
      * @param nfcChannel  Channel for communication
      * @param context     Context handle of the requesting activity / application
+     * @param nfcExecutor Executor running the tag communication of phase 2, which is started by
+     *                    the cloud response
      * @param nfcCallback Callback method to handle result
      */
-    public BrandVerificationManager(NfcChannel nfcChannel, Activity context,
+    public BrandVerificationManager(NfcChannel nfcChannel, Context context, Executor nfcExecutor,
                                     BrandVerifyEventCallback nfcCallback) {
         this.context = context;
+        this.nfcExecutor = nfcExecutor;
         this.nfcCallback = nfcCallback;
-        this.cmdManager = new CommandManager(nfcChannel, context);
+        this.cmdManager = CommandManagerFactory.getCommandManager(nfcChannel, context);
     }
 
     /**
      * Performs brand verification operation - phase 1 which includes the tag communication until
-     * reading the challenge and the cloud operation to generate the command data.
+     * reading the challenge and the cloud operation to generate the command data. Called on the
+     * thread of the NFC executor, phase 2 is queued to the executor when the cloud responds.
      *
      * @throws ApduException APDU exception
      * @throws NFCException NFC exception
@@ -131,7 +155,8 @@ public class BrandVerificationManager {
 
     /**
      * Performs brand verification operation - phase 2 which includes the tag communication to
-     * perform the mutual authentication command and read product and service information.
+     * perform the mutual authentication command and read product and service information, and
+     * the cloud operation to verify the mutual authentication response.
      *
      */
     private void performBrandVerificationPhase2() {
@@ -149,11 +174,13 @@ public class BrandVerificationManager {
         timeLogger = new TimeLogger();
         totalTimeLogger = new TimeLogger();
 
-        // Read NDEF message
-        ApduResponse ndefMessage = cmdManager.readNDEFMessage();
+        // Read NDEF message, the records are decoded while the NDEF file is read
+        NdefChunkParser ndefChunkParser = new NdefChunkParser();
+        cmdManager.readNDEFMessage(ndefChunkParser);
 
-        // Decode NDEF message
-        parseNDEFMessage(ndefMessage);
+        // Decode the remaining NDEF records
+        ndefChunkParser.finish();
+        decodeBrandProtectionRecord();
 
         // Read ChipID
         ApduResponse chipUniqueIDData = cmdManager.getChipUniqueID();
@@ -172,7 +199,9 @@ public class BrandVerificationManager {
     }
 
     /**
-     * Perform the mutual authentication command and read product and service information.
+     * Perform the mutual authentication command and read product and service information. The
+     * verify-ma request is sent before the information is read, the verdict is reported once both
+     * have completed.
      */
     private void tagOperationPhase2() {
         ApduResponse mutualAuthResp;
@@ -191,6 +220,10 @@ public class BrandVerificationManager {
         timeLogger.logTime("Step 2");
         totalTimeLogger.logTime("Total Time");
 
+        // Verify the mutual authentication response while the information files are read
+        VerdictJoin verdict = new VerdictJoin();
+        cloudOperationPhase2(mutualAuthResp.getData(), verdict);
+
         // Read product information file
         timeLogger.start();
         ApduResponse productInfoResponse;
@@ -201,12 +234,12 @@ public class BrandVerificationManager {
                     context.getResources().getString(R.string.msg_read_info_file),
                     ErrorResult.getTitle(context, context.getResources().getString(R.string.msg_read_info_file),
                             TYPE_WARNING));
-            nfcCallback.onError(errorResult);
+            verdict.onError(errorResult);
             return;
         }
         Log.i("ProductData", productInfoResponse.toString());
         if (productInfoResponse.isSuccessSW()) {
-            if (ProductInformationDecoder.parseProfileType(productInfoResponse.getData()) != ProfileType.A10) {
+            if (ProductInformationDecoder.parseProfileType(productInfoResponse.getDataBuffer()) != ProfileType.A10) {
                 serviceInfoFilePresent = true;
             }
         } else {
@@ -214,7 +247,7 @@ public class BrandVerificationManager {
                     context.getResources().getString(R.string.msg_bp_record_unable_to_read),
                     ErrorResult.getTitle(context, context.getResources().getString(R.string.msg_bp_record_unable_to_read),
                             TYPE_WARNING));
-            nfcCallback.onError(errorResult);
+            verdict.onError(errorResult);
             return;
         }
 
@@ -228,7 +261,7 @@ public class BrandVerificationManager {
                         context.getResources().getString(R.string.msg_read_info_file),
                         ErrorResult.getTitle(context, context.getResources().getString(R.string.msg_read_info_file),
                                 TYPE_WARNING));
-                nfcCallback.onError(errorResult);
+                verdict.onError(errorResult);
                 return;
             }
 
@@ -237,44 +270,186 @@ public class BrandVerificationManager {
                         context.getResources().getString(R.string.msg_read_info_file),
                         ErrorResult.getTitle(context, context.getResources().getString(R.string.msg_read_info_file),
                                 TYPE_WARNING));
-                nfcCallback.onError(errorResult);
+                verdict.onError(errorResult);
                 return;
             }
         }
 
         timeLogger.logTime("Step 3");
         totalTimeLogger.logTime("Total Time");
-        totalTimeLogger.stop();
-        nfcCallback.onSuccess(productInfoResponse, serviceInfoResponse, uriRecord,
-                brandProtectionRecord, maGenerateResponse, mutualAuthResp);
+        Log.d("SelectionState", cmdManager.getSkippedSelectCount() + " SELECT commands skipped");
+        verdict.onFilesRead(productInfoResponse, serviceInfoResponse);
     }
 
     /**
-     * Parses the NDEF message and extracts the brand protection record and URI Record
+     * Joins the branches running after the mutual authentication: the verify-ma request and the
+     * reading of the product and service information. The first error is reported, or the verdict
+     * once both branches have completed.
+     */
+    private class VerdictJoin {
+        private ApduResponse productInfoResponse;
+        private ApduResponse serviceInfoResponse;
+        private boolean filesRead;
+        private MutualAuthVerifyResponse maVerifyResponse;
+        private boolean reported;
+
+        /**
+         * Called on the thread of the NFC executor when the information files have been read
+         *
+         * @param productInfoResponse product information
+         * @param serviceInfoResponse service information, null if the tag has none
+         */
+        void onFilesRead(ApduResponse productInfoResponse, ApduResponse serviceInfoResponse) {
+            synchronized (this) {
+                this.productInfoResponse = productInfoResponse;
+                this.serviceInfoResponse = serviceInfoResponse;
+                filesRead = true;
+            }
+            reportIfComplete();
+        }
+
+        /**
+         * Called on the thread of the cloud response when the verify-ma response is received
+         *
+         * @param response response of the verify-ma request
+         */
+        void onVerified(MutualAuthVerifyResponse response) {
+            synchronized (this) {
+                maVerifyResponse = response;
+            }
+            reportIfComplete();
+        }
+
+        /**
+         * Reports the error, unless an outcome has been reported already
+         *
+         * @param errorResult error of one of the branches
+         */
+        void onError(ErrorResult errorResult) {
+            synchronized (this) {
+                if (reported) {
+                    return;
+                }
+                reported = true;
+            }
+            nfcCallback.onError(errorResult);
+        }
+
+        private void reportIfComplete() {
+            synchronized (this) {
+                if (reported || !filesRead || maVerifyResponse == null) {
+                    return;
+                }
+                reported = true;
+            }
+            totalTimeLogger.logTime("Total Time");
+            totalTimeLogger.stop();
+            nfcCallback.onSuccess(productInfoResponse, serviceInfoResponse, uriRecord, maVerifyResponse);
+        }
+    }
+
+    /**
+     * Extracts the URI Record and the external type record holding the brand protection record
+     * from the NDEF record
      *
-     * @param ndefMessage APDUResponse of NDEF message read command
+     * @param ndefRecord NDEF record of the NDEF message
      * @throws NFCException NFC related exception
      */
-    private void parseNDEFMessage(ApduResponse ndefMessage) throws NFCException {
-        // Parse NDEF Message
+    private void handleNDEFRecord(NDEFRecord ndefRecord) throws NFCException {
+        AbstractRecord abstractRecord = NFCFactory.decryptRecord(ndefRecord);
+        if (abstractRecord instanceof URIRecord) {
+            uriRecord = (URIRecord) abstractRecord;
+        }
+        if (abstractRecord instanceof ExternalTypeRecord) {
+            lastExternalTypeRecord = (ExternalTypeRecord) abstractRecord;
+        }
+    }
+
+    /**
+     * Decodes the brand protection record from the last external type record of the NDEF message
+     *
+     * @throws NFCException if the brand protection record cannot be decoded
+     */
+    private void decodeBrandProtectionRecord() throws NFCException {
+        if (lastExternalTypeRecord == null) {
+            return;
+        }
         try {
-            int messageLength = Utils.getUINT16(ndefMessage.getData(), 0);
-            byte[] messageBytes = Arrays.copyOfRange(ndefMessage.getData(), 2,
-                    messageLength + 2);
-            NDEFMessage message = NDEFMessageDecoder.instance().decrypt(messageBytes);
-            for (NDEFRecord ndefRecord : message.getNdefRecords()) {
-                AbstractRecord abstractRecord = NFCFactory.decryptRecord(ndefRecord);
-                if (abstractRecord instanceof URIRecord) {
-                    uriRecord = (URIRecord) abstractRecord;
+            brandProtectionRecord = (BrandProtectionRecord) new BrandProtectionPayloadDecoder()
+                    .decodePayload(lastExternalTypeRecord.getData());
+        } catch (Exception e) {
+            throw new NFCException(context.getResources().getString(R.string.msg_read_ndef_file));
+        }
+        service = new BrandVerificationService(context, brandProtectionRecord.getVerificationURL());
+    }
+
+    /**
+     * Records of the NDEF message needed for the verification: the URI record and the external
+     * type records, the last of which is the brand protection record. The filter is used as a
+     * plain predicate, so the reader does not complete the selection at the first external type
+     * record and the whole NDEF message is decoded.
+     */
+    private static final RecordFilter VERIFICATION_RECORDS = RecordTypeFilter
+            .of(NDEFConstants.TNF_WELL_KNOWN, "U")
+            .withTnf(NDEFConstants.TNF_EXTERNAL)::accept;
+
+    /**
+     * Decodes the NDEF records while the NDEF file is read. The NLEN field at the beginning of
+     * the file is skipped and the data beyond NLEN is ignored. Records other than the
+     * verification records are skipped.
+     */
+    private class NdefChunkParser implements ReadBinaryChunkListener {
+        private final NDEFRecordReader reader = NDEFMessageDecoder.instance().reader()
+                .setFilter(VERIFICATION_RECORDS);
+        private final byte[] nlen = new byte[2];
+        private int nlenBytesReceived;
+        private int remainingLength;
+        private Exception error;
+
+        @Override
+        public boolean onChunkReceived(byte[] data, int offset, int length) {
+            try {
+                while (nlenBytesReceived < nlen.length && length > 0) {
+                    nlen[nlenBytesReceived++] = data[offset++];
+                    length--;
+                    if (nlenBytesReceived == nlen.length) {
+                        remainingLength = Utils.getUINT16(nlen, 0);
+                    }
                 }
-                if (abstractRecord instanceof ExternalTypeRecord) {
-                    ExternalTypeRecord record = (ExternalTypeRecord) abstractRecord;
-                    brandProtectionRecord = (BrandProtectionRecord)
-                            new BrandProtectionPayloadDecoder().decodePayload(record.getData());
+                int messageBytes = Math.min(length, remainingLength);
+                if (messageBytes > 0) {
+                    reader.append(data, offset, messageBytes);
+                    remainingLength -= messageBytes;
                 }
+                while (reader.hasNext()) {
+                    handleNDEFRecord(reader.next());
+                }
+            } catch (Exception e) {
+                error = e;
+                return false;
+            }
+            return nlenBytesReceived < nlen.length || remainingLength > 0;
+        }
+
+        /**
+         * Decodes the records left after the NDEF file has been read completely
+         *
+         * @throws NFCException if the NDEF message is incomplete or malformed
+         */
+        void finish() throws NFCException {
+            if (error == null) {
+                try {
+                    reader.endOfInput();
+                    while (reader.hasNext()) {
+                        handleNDEFRecord(reader.next());
+                    }
+                } catch (Exception e) {
+                    error = e;
+                }
+            }
+            if (error != null || !reader.isMessageComplete()) {
+                throw new NFCException(context.getResources().getString(R.string.msg_read_ndef_file));
             }
-        } catch (Exception e) {
-            throw new NFCException(context.getResources().getString(R.string.msg_read_ndef_file));
         }
     }
 
@@ -288,12 +463,35 @@ public class BrandVerificationManager {
         timeLogger.start();
         if (brandProtectionRecord != null) {
             String hexKeyLabel = Utils.toHexString(brandProtectionRecord.getKeyLabel());
-            BrandVerificationService service = new BrandVerificationService(context,
-                    brandProtectionRecord.getVerificationURL());
             service.performMutualAuthGeneration(hexKeyLabel, chipID, challenge,
                     mutualAuthGenerateEvent);
         } else {
             throw new NFCException(context.getResources().getString(R.string.msg_bp_record_unable_to_read));
         }
     }
+
+    /**
+     * Function to verify the mutual authentication response using the cloud service
+     *
+     * @param mutualAuthResponse Mutual authentication response received from the tag
+     * @param verdict            Join of the verification branches receiving the result
+     */
+    private void cloudOperationPhase2(byte[] mutualAuthResponse, VerdictJoin verdict) {
+        TimeLogger verifyTimeLogger = new TimeLogger();
+        service.performMutualAuthVerification(maGenerateResponse.sessionID, mutualAuthResponse,
+                new MutualAuthVerifyEvent() {
+                    @Override
+                    public void onSuccess(MutualAuthVerifyResponse response) {
+                        verifyTimeLogger.logTime("Step 4");
+                        verdict.onVerified(response);
+                    }
+
+                    @Override
+                    public void onError(int status, String error) {
+                        ErrorResult errorResult = new ErrorResult(TYPE_WARNING, error,
+                                ErrorResult.getTitle(context, error, TYPE_WARNING));
+                        verdict.onError(errorResult);
+                    }
+                });
+    }
 }
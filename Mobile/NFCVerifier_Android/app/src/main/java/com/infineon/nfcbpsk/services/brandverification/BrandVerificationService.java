@@ -16,7 +16,7 @@
  */
 package com.infineon.nfcbpsk.services.brandverification;
 
-import android.app.Activity;
+import android.content.Context;
 
 import com.infineon.nfcbpsk.data.httphelper.HttpRequestHelper;
 import com.infineon.nfcbpsk.data.httphelper.HttpResponseEvent;
@@ -25,6 +25,7 @@ import com.infineon.nfcbpsk.data.logger.LoggerFactory;
 import com.infineon.nfcbpsk.data.logger.LoggerType;
 import com.infineon.nfcbpsk.data.logger.TimeLogger;
 import com.infineon.nfcbpsk.data.logger.FileLogger;
+import com.infineon.ndef.utils.HexCodec;
 import com.infineon.ndef.utils.Utils;
 
 import org.json.JSONException;
@@ -46,10 +47,10 @@ public class BrandVerificationService {
     /**
      * Initializes the brand verification service
      *
-     * @param context Requester activity instance
+     * @param context Context of the requesting activity / application
      * @param url     URL endpoint of the brand verification service
      */
-    public BrandVerificationService(Activity context, String url) {
+    public BrandVerificationService(Context context, String url) {
         this.httpRequestHandler = new HttpRequestHelper(context, url);
         this.fileLogger = (FileLogger) LoggerFactory.getLogger(context, LoggerType.FILE);
     }
@@ -71,8 +72,8 @@ public class BrandVerificationService {
                                             MutualAuthGenerateEvent onMutualAuthGenerateEvent) {
         try {
             JSONObject jsonParam = new JSONObject();
-            jsonParam.put("ChipID", Utils.toHexString(chipId));
-            jsonParam.put("Challenge", Utils.toHexString(challenge));
+            jsonParam.put("ChipID", HexCodec.encode(chipId, 0, chipId.length, ' '));
+            jsonParam.put("Challenge", HexCodec.encode(challenge, 0, challenge.length, ' '));
             jsonParam.put("KeyLabel", keyLabel);
             if (fileLogger != null) {
                 fileLogger.log("Cloud service:", "Generate mutual-authenticate command");
@@ -135,8 +136,7 @@ public class BrandVerificationService {
                                               MutualAuthVerifyEvent onMutualAuthVerifyEvent) {
         try {
             JSONObject jsonParam = new JSONObject();
-            jsonParam.put("MutualAuthResponse",
-                    Utils.toHexString(mutualAuthResponse) + "9000");
+            jsonParam.put("MutualAuthResponse", toMutualAuthResponseHex(mutualAuthResponse));
             jsonParam.put("SessionID", sessionID);
             if (fileLogger != null) {
                 fileLogger.log("Cloud service:", "Verify mutual-authenticate response");
@@ -182,4 +182,21 @@ public class BrandVerificationService {
             onMutualAuthVerifyEvent.onError(0, "Exception");
         }
     }
+
+    /**
+     * Converts the mutual authentication response to the hex string sent to the verify-ma service,
+     * the bytes separated by spaces and followed by the success status word 9000
+     *
+     * @param mutualAuthResponse Mutual authentication response received from the token
+     * @return hex string of the response
+     */
+    private static String toMutualAuthResponseHex(byte[] mutualAuthResponse) {
+        char[] chars = new char[HexCodec.getEncodedLength(mutualAuthResponse.length, true) + 4];
+        int length = HexCodec.encode(mutualAuthResponse, 0, mutualAuthResponse.length, ' ', chars, 0);
+        chars[length] = '9';
+        chars[length + 1] = '0';
+        chars[length + 2] = '0';
+        chars[length + 3] = '0';
+        return new String(chars);
+    }
 }
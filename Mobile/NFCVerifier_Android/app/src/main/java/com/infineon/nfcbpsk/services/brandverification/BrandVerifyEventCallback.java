@@ -18,7 +18,6 @@
 package com.infineon.nfcbpsk.services.brandverification;
 
 import com.infineon.nfcbpsk.services.apdu.ApduResponse;
-import com.infineon.nfcbpsk.services.brandprotectionrecord.BrandProtectionRecord;
 import com.infineon.ndef.model.URIRecord;
 
 /**
@@ -31,16 +30,12 @@ public interface BrandVerifyEventCallback {
      * @param productAPDUResponse   Product data in APDU form
      * @param serviceAPDUResponse   Service data in APDU form
      * @param uriRecord             URI record
-     * @param brandProtectionRecord Brand protection record
-     * @param maGenerateResponse    Mutual auth response
-     * @param apduResponse          APDU response of mutual auth
+     * @param maVerifyResponse      Verify mutual auth response of the cloud service
      */
     void onSuccess(ApduResponse productAPDUResponse,
                    ApduResponse serviceAPDUResponse,
                    URIRecord uriRecord,
-                   BrandProtectionRecord brandProtectionRecord,
-                   MutualAuthGenerateResponse maGenerateResponse,
-                   ApduResponse apduResponse);
+                   MutualAuthVerifyResponse maVerifyResponse);
 
     /**
      * Method invoked on failure
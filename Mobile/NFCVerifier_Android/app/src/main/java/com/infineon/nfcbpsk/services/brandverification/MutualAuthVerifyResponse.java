@@ -16,13 +16,29 @@
  */
 package com.infineon.nfcbpsk.services.brandverification;
 
+import android.os.Parcel;
+import android.os.Parcelable;
+
 import org.json.JSONException;
 import org.json.JSONObject;
 
 /**
  * Model class to store the response parameters for verify mutual authentication response
  */
-public class MutualAuthVerifyResponse {
+public class MutualAuthVerifyResponse implements Parcelable {
+
+    public static final Creator<MutualAuthVerifyResponse> CREATOR = new Creator<MutualAuthVerifyResponse>() {
+        @Override
+        public MutualAuthVerifyResponse createFromParcel(Parcel in) {
+            return new MutualAuthVerifyResponse(in);
+        }
+
+        @Override
+        public MutualAuthVerifyResponse[] newArray(int size) {
+            return new MutualAuthVerifyResponse[size];
+        }
+    };
+
     /**
      * Version of the API
      */
@@ -43,4 +59,25 @@ public class MutualAuthVerifyResponse {
         this.version = jsonObject.getString("Version");
         this.authResult = jsonObject.getString("AuthResult");
     }
+
+    /**
+     * Initializes based on the parcelable input
+     *
+     * @param in Parcelable input
+     */
+    protected MutualAuthVerifyResponse(Parcel in) {
+        version = in.readString();
+        authResult = in.readString();
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        dest.writeString(version);
+        dest.writeString(authResult);
+    }
 }
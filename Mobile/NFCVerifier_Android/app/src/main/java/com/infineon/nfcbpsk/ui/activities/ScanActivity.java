@@ -19,12 +19,10 @@ package com.infineon.nfcbpsk.ui.activities;
 
 import android.app.Activity;
 import android.app.AlertDialog;
-import android.app.PendingIntent;
 import android.content.Intent;
 import android.nfc.NfcAdapter;
 import android.nfc.Tag;
 import android.nfc.tech.IsoDep;
-import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
 import android.provider.Settings;
@@ -32,22 +30,12 @@ import android.view.View;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.ViewModelProvider;
 
 import com.infineon.nfcbpsk.R;
-import com.infineon.nfcbpsk.services.brandverification.MutualAuthGenerateResponse;
-import com.infineon.nfcbpsk.data.logger.LoggerFactory;
 import com.infineon.nfcbpsk.services.brandverification.ErrorResult;
-import com.infineon.nfcbpsk.services.brandverification.BrandVerificationManager;
-import com.infineon.nfcbpsk.services.brandverification.BrandVerifyEventCallback;
 import com.infineon.nfcbpsk.databinding.ActivityScanBinding;
-import com.infineon.nfcbpsk.data.logger.FileLogger;
-import com.infineon.nfcbpsk.data.logger.LoggerType;
-import com.infineon.nfcbpsk.services.apdu.ApduResponse;
-import com.infineon.nfcbpsk.data.nfc.NfcChannel;
-import com.infineon.nfcbpsk.services.brandprotectionrecord.BrandProtectionRecord;
-import com.infineon.ndef.model.URIRecord;
-
-import java.util.Objects;
+import com.infineon.nfcbpsk.ui.viewmodels.ScanViewModel;
 
 import static com.infineon.nfcbpsk.services.brandverification.ErrorResult.TYPE_WARNING;
 
@@ -59,16 +47,23 @@ public class ScanActivity extends AppCompatActivity {
     public final static String RESULT_PRODUCT = "RESULT_PRODUCT";
     public final static String RESULT_SERVICE = "RESULT_SERVICE";
     public final static String RESULT_URI = "RESULT_URI";
-    public final static String RESULT_BRAND_PROTECTION_URI = "RESULT_BP_URI";
-    public final static String RESULT_MA_RESPONSE = "MA_RESPONSE";
-    public final static String RESULT_MA_APDU_RESPONSE = "MA_APDU_RESPONSE";
+    public final static String RESULT_MA_VERIFY_RESPONSE = "MA_VERIFY_RESPONSE";
     public final static String RESULT_TIME = "TIME_TAKEN";
+    /**
+     * Reader mode polling for ISO-DEP tags, which are NFC-A or NFC-B. The platform does not
+     * read the NDEF message, as it is read by the brand verification anyway.
+     */
+    private final static int READER_FLAGS = NfcAdapter.FLAG_READER_NFC_A | NfcAdapter.FLAG_READER_NFC_B
+            | NfcAdapter.FLAG_READER_SKIP_NDEF_CHECK;
+    /**
+     * Delay of the platform presence check in milliseconds. A presence check of an ISO-DEP tag
+     * is a frame exchange on its own, checking less often than the default of 125 ms keeps the
+     * field free for the verification commands and the tag removal is still noticed in time.
+     */
+    private final static int PRESENCE_CHECK_DELAY = 500;
     ActivityScanBinding binding;
-    NfcChannel nfcChannel;
     NfcAdapter nfcAdapter;
-    PendingIntent pendingIntent;
-    FileLogger fileLogger;
-    private BrandVerificationManager brandVerificationManager;
+    private ScanViewModel viewModel;
     private boolean autoCancel = true;
 
     /**
@@ -81,7 +76,8 @@ public class ScanActivity extends AppCompatActivity {
         setContentView(binding.getRoot());
         setCancelBtnHandler();
 
-        fileLogger = (FileLogger) LoggerFactory.getLogger(getApplicationContext(), LoggerType.FILE);
+        viewModel = new ViewModelProvider(this).get(ScanViewModel.class);
+        setupObservers();
 
         initializeNfcAdapter();
         setSessionTimeoutHandler();
@@ -94,6 +90,29 @@ public class ScanActivity extends AppCompatActivity {
         binding.btnCancelPolling.setOnClickListener(v -> finish());
     }
 
+    /**
+     * Add the observers to display the progress of the verification and to return its outcome
+     */
+    private void setupObservers() {
+        viewModel.isAuthenticating.observe(this, isAuthenticating -> {
+            if (isAuthenticating) {
+                autoCancel = false;
+                binding.ivLoader.setVisibility(View.VISIBLE);
+                binding.ivWaitScan.setVisibility(View.INVISIBLE);
+                binding.txtMessage.setText(R.string.authenticating);
+            }
+        });
+        viewModel.errorResult.observe(this, errorResult -> {
+            binding.ivLoader.setVisibility(View.INVISIBLE);
+            finishPollingWithError(errorResult);
+        });
+        viewModel.verificationResult.observe(this, intent -> {
+            binding.ivLoader.setVisibility(View.INVISIBLE);
+            setResult(Activity.RESULT_OK, intent);
+            finish();
+        });
+    }
+
     /**
      * Sets the session timeout handler which will timeout after the configured time if the
      * tag is not presented
@@ -122,28 +141,11 @@ public class ScanActivity extends AppCompatActivity {
             ErrorResult errorResult = new ErrorResult(TYPE_WARNING, getString(R.string.msg_unsupported_nfc),
                     ErrorResult.getTitle(this, getString(R.string.msg_unsupported_nfc), TYPE_WARNING));
             finishPollingWithError(errorResult);
-            return;
         }
-        pendingIntent = PendingIntent.getActivity(this, 0,
-                new Intent(this,
-                        this.getClass()).addFlags(Intent.FLAG_ACTIVITY_SINGLE_TOP),
-                Build.VERSION.SDK_INT >= 31?PendingIntent.FLAG_MUTABLE:0);
     }
 
     /**
-     * New intent is received from the platform
-     */
-    @Override
-    protected void onNewIntent(Intent intent) {
-        super.onNewIntent(intent);
-        setIntent(intent);
-        if (intent != null) {
-            resolveIntent(intent);
-        }
-    }
-
-    /**
-     * Enables the dispatcher to throw the intent to the foreground activity.
+     * Enables the reader mode, the discovered tags are passed to {@link #onTagDiscovered(Tag)}.
      * If NFC is disabled, display instruction to the user.
      */
     @Override
@@ -155,18 +157,20 @@ public class ScanActivity extends AppCompatActivity {
                 showDialogNfcDisabled();
                 return;
             }
-            nfcAdapter.enableForegroundDispatch(this, pendingIntent, null, null);
+            Bundle options = new Bundle();
+            options.putInt(NfcAdapter.EXTRA_READER_PRESENCE_CHECK_DELAY, PRESENCE_CHECK_DELAY);
+            nfcAdapter.enableReaderMode(this, this::onTagDiscovered, READER_FLAGS, options);
         }
     }
 
     /**
-     * Unregister from the foreground dispatcher when the app not in foreground
+     * Disables the reader mode when the app is not in foreground
      */
     @Override
     protected void onPause() {
         super.onPause();
         if (nfcAdapter != null) {
-            nfcAdapter.disableForegroundDispatch(this);
+            nfcAdapter.disableReaderMode(this);
         }
     }
 
@@ -207,101 +211,18 @@ public class ScanActivity extends AppCompatActivity {
     }
 
     /**
-     * Handles the intent and looks for any tag intent. A tag is detected in the field when an intent
-     * with tag is received.
-     *
-     * @param intent Intent received from the platform
-     */
-    private void resolveIntent(Intent intent) {
-        Tag tagFromIntent = intent.getParcelableExtra(NfcAdapter.EXTRA_TAG);
-        if (tagFromIntent != null) {
-            IsoDep tagHandle = IsoDep.get(tagFromIntent);
-            handleTagDetection(tagHandle);
-        }
-    }
-
-    /**
-     * Performs brand verification activity when the tag is detected
+     * Called by the reader mode on a binder thread when a tag is discovered. The verification runs
+     * on the NFC worker of the view model, tags without ISO-DEP are ignored.
      *
-     * @param tagHandle ISO DEP handle of the presented tag
+     * @param tag Tag discovered by the platform
      */
-    private void handleTagDetection(IsoDep tagHandle) {
-        nfcChannel = new NfcChannel(tagHandle, fileLogger);
-        if (nfcChannel.open()) { // tag is connected
-            autoCancel = false;
-            if (fileLogger != null) {
-                fileLogger.resetLog();
-            }
-            binding.ivLoader.setVisibility(View.VISIBLE);
-            binding.ivWaitScan.setVisibility(View.INVISIBLE);
-            binding.txtMessage.setText(R.string.authenticating);
-            try {
-                brandVerificationManager = new BrandVerificationManager(nfcChannel, this, new BrandVerifyEventCallback() {
-                    @Override
-                    public void onSuccess(ApduResponse productAPDUResponse, ApduResponse servicePDUResponse, URIRecord uriRecord,
-                                          BrandProtectionRecord brandProtectionRecord, MutualAuthGenerateResponse maGenerateResponse, ApduResponse apduMAResponse) {
-                        nfcChannel.close();
-                        prepareSuccessResponse(productAPDUResponse, servicePDUResponse,
-                                uriRecord, brandProtectionRecord, maGenerateResponse, apduMAResponse);
-                    }
-
-                    @Override
-                    public void onError(ErrorResult errorResult) {
-                        runOnUiThread(() -> {
-                            binding.ivLoader.setVisibility(View.INVISIBLE);
-                            finishPollingWithError(errorResult);
-                        });
-                    }
-                });
-                brandVerificationManager.performBrandVerification();
-
-            } catch (Exception e) {
-                runOnUiThread(() -> {
-                    ErrorResult errorResult = new ErrorResult(TYPE_WARNING, e.getMessage(),
-                            ErrorResult.getTitle(this, Objects.requireNonNull(e.getMessage()), TYPE_WARNING));
-                    finishPollingWithError(errorResult);
-                });
-            }
-        } else {
-            binding.ivLoader.setVisibility(View.INVISIBLE);
-            ErrorResult errorResult = new ErrorResult(TYPE_WARNING, getString(R.string.msg_unable_connect_tag),
-                    ErrorResult.getTitle(this, getString(R.string.msg_unable_connect_tag), TYPE_WARNING));
-            finishPollingWithError(errorResult);
+    private void onTagDiscovered(Tag tag) {
+        IsoDep tagHandle = IsoDep.get(tag);
+        if (tagHandle != null) {
+            viewModel.verifyTag(tagHandle);
         }
     }
 
-    /**
-     * Prepare the intent to the caller activity and finish the current activity
-     *
-     * @param productAPDUResponse   Product data as APDU
-     * @param servicePDUResponse    Service data as APDU
-     * @param uriRecord             URI record
-     * @param brandProtectionRecord Brand protection record
-     * @param maGenerateResponse    Mutual auth response
-     * @param apduMAResponse        APDU response of mutual auth
-     */
-    private void prepareSuccessResponse(ApduResponse productAPDUResponse, ApduResponse servicePDUResponse,
-                                        URIRecord uriRecord, BrandProtectionRecord brandProtectionRecord,
-                                        MutualAuthGenerateResponse maGenerateResponse, ApduResponse apduMAResponse) {
-        runOnUiThread(() -> {
-            binding.ivLoader.setVisibility(View.INVISIBLE);
-            Intent intent1 = new Intent();
-            if (productAPDUResponse != null) {
-                intent1.putExtra(RESULT_PRODUCT, productAPDUResponse.getData());
-            }
-            if (servicePDUResponse != null) {
-                intent1.putExtra(RESULT_SERVICE, servicePDUResponse.getData());
-            }
-            intent1.putExtra(RESULT_URI, uriRecord.getUri());
-            intent1.putExtra(RESULT_BRAND_PROTECTION_URI, brandProtectionRecord.getVerificationURL());
-            intent1.putExtra(RESULT_MA_RESPONSE, maGenerateResponse);
-            intent1.putExtra(RESULT_MA_APDU_RESPONSE, apduMAResponse.getData());
-            intent1.putExtra(RESULT_TIME, brandVerificationManager.totalTimeLogger.getTotalTimeTaken());
-            setResult(Activity.RESULT_OK, intent1);
-            finish();
-        });
-    }
-
     /**
      * When back button is pressed, cancel the tag polling event
      */
@@ -318,17 +239,10 @@ public class ScanActivity extends AppCompatActivity {
      * @param errorResult Error to be displayed
      */
     private void finishPollingWithError(ErrorResult errorResult) {
-        if (nfcChannel != null) {
-            nfcChannel.close();
-        }
+        viewModel.cancel();
         Intent intent = new Intent();
         intent.putExtra(RESULT_MESSAGE, errorResult);
-        try {
-            brandVerificationManager.totalTimeLogger.stop();
-            intent.putExtra(RESULT_TIME, brandVerificationManager.totalTimeLogger.getTotalTimeTaken());
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        intent.putExtra(RESULT_TIME, viewModel.getTotalTimeTaken());
         setResult(Activity.RESULT_CANCELED, intent);
         finish();
     }
@@ -63,7 +63,7 @@ public class HomeFragment extends Fragment implements MutualAuthVerifyEvent {
             nfcPollingResult -> {
                 if (nfcPollingResult.getResultCode() == Activity.RESULT_OK) {
                     Intent intent = nfcPollingResult.getData();
-                    viewModel.handleMutualAuthSuccess(requireNonNull(intent), getActivity(), HomeFragment.this);
+                    viewModel.handleMutualAuthSuccess(requireNonNull(intent), HomeFragment.this);
                     autoStartScan = false;
                 } else if (nfcPollingResult.getResultCode() == Activity.RESULT_CANCELED) {
                     Intent intent = nfcPollingResult.getData();
@@ -17,7 +17,6 @@
 
 package com.infineon.nfcbpsk.ui.viewmodels;
 
-import android.app.Activity;
 import android.app.Application;
 import android.app.ProgressDialog;
 import android.content.Intent;
@@ -26,9 +25,7 @@ import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.MutableLiveData;
 
 import com.infineon.nfcbpsk.services.brandverification.ErrorResult;
-import com.infineon.nfcbpsk.services.brandverification.BrandVerificationService;
 import com.infineon.nfcbpsk.services.brandverification.MutualAuthVerifyEvent;
-import com.infineon.nfcbpsk.services.brandverification.MutualAuthGenerateResponse;
 import com.infineon.nfcbpsk.services.brandverification.MutualAuthVerifyResponse;
 import com.infineon.nfcbpsk.data.logger.LoggerFactory;
 import com.infineon.nfcbpsk.data.logger.LoggerType;
@@ -63,39 +60,23 @@ public class HomeViewModel extends AndroidViewModel {
     }
 
     /**
-     * Method to handle mutual authentication success response
+     * Method to handle mutual authentication success response, which includes the result of the
+     * mutual authentication verification
      *
      * @param intent     Intent of return mutual authentication
-     * @param activity   Activity instance
      * @param onVerifyMA Callback handler interface for mutual authentication verify response event
      */
-    public void handleMutualAuthSuccess(Intent intent, Activity activity, MutualAuthVerifyEvent onVerifyMA) {
+    public void handleMutualAuthSuccess(Intent intent, MutualAuthVerifyEvent onVerifyMA) {
 
         isLoading.postValue(true);
-        String bpUrl = intent.getExtras().getString(ScanActivity.RESULT_BRAND_PROTECTION_URI);
         double totalTime = intent.getExtras().getDouble(ScanActivity.RESULT_TIME);
-        MutualAuthGenerateResponse mutualAuthGenerateResponse = intent.getExtras().getParcelable(ScanActivity.RESULT_MA_RESPONSE);
-        byte[] bytes = intent.getExtras().getByteArray(ScanActivity.RESULT_MA_APDU_RESPONSE);
+        MutualAuthVerifyResponse maVerifyResponse = intent.getExtras().getParcelable(ScanActivity.RESULT_MA_VERIFY_RESPONSE);
         productViewPageUrl.postValue(intent.getExtras().getString(ScanActivity.RESULT_URI));
         productInformationMutableLiveData = intent.getExtras().getByteArray(ScanActivity.RESULT_PRODUCT);
         serviceInformationMutableLiveData = intent.getExtras().getByteArray(ScanActivity.RESULT_SERVICE);
         timeLogger.start();
         totalTimeLogger.start();
         totalTimeLogger.addPreviousTime(totalTime);
-        mutualAuthVerify(bpUrl, mutualAuthGenerateResponse, bytes, activity, onVerifyMA);
-    }
-
-    /**
-     * Method perform mutual authentication verification
-     *
-     * @param url                URL to perform mutual authentication verification
-     * @param maGenerateResponse Response of generate mutual authentication command
-     * @param bytes              APDU bytes data response of mutual authentication command
-     * @param activity           Activity instance
-     * @param onVerifyMA         Callback for mutual authentication verification
-     */
-    private void mutualAuthVerify(String url, MutualAuthGenerateResponse maGenerateResponse, byte[] bytes, Activity activity, MutualAuthVerifyEvent onVerifyMA) {
-        BrandVerificationService brandVerificationService = new BrandVerificationService(activity, url);
-        brandVerificationService.performMutualAuthVerification(maGenerateResponse.sessionID, bytes, onVerifyMA);
+        onVerifyMA.onSuccess(maVerifyResponse);
     }
 }
\ No newline at end of file
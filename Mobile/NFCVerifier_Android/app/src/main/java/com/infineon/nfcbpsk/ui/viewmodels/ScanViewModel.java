@@ -0,0 +1,254 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.nfcbpsk.ui.viewmodels;
+
+import android.app.Application;
+import android.content.Context;
+import android.content.Intent;
+import android.nfc.tech.IsoDep;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.MutableLiveData;
+
+import com.infineon.ndef.model.URIRecord;
+import com.infineon.nfcbpsk.R;
+import com.infineon.nfcbpsk.data.logger.FileLogger;
+import com.infineon.nfcbpsk.data.logger.LoggerFactory;
+import com.infineon.nfcbpsk.data.logger.LoggerType;
+import com.infineon.nfcbpsk.data.nfc.ApduTransport;
+import com.infineon.nfcbpsk.data.nfc.IsoDepTransport;
+import com.infineon.nfcbpsk.data.nfc.NfcChannel;
+import com.infineon.nfcbpsk.data.nfc.NfcWorker;
+import com.infineon.nfcbpsk.data.nfc.trace.RecordingTransport;
+import com.infineon.nfcbpsk.services.apdu.ApduResponse;
+import com.infineon.nfcbpsk.services.apdu.CommandManagerFactory;
+import com.infineon.nfcbpsk.services.brandverification.BrandVerificationManager;
+import com.infineon.nfcbpsk.services.brandverification.BrandVerifyEventCallback;
+import com.infineon.nfcbpsk.services.brandverification.ErrorResult;
+import com.infineon.nfcbpsk.services.brandverification.MutualAuthVerifyResponse;
+import com.infineon.nfcbpsk.ui.activities.ScanActivity;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.infineon.nfcbpsk.services.brandverification.ErrorResult.TYPE_WARNING;
+
+/**
+ * View model for the scan page. Runs the brand verification of the presented tag on the NFC
+ * worker and posts the outcome to the live data.
+ */
+public class ScanViewModel extends AndroidViewModel {
+    /**
+     * File of the APDU trace of the last scan, recorded if logging is enabled
+     */
+    private final static String APDU_TRACE_FILENAME = "apdu_trace.bin";
+    /**
+     * Time limit of the verification in milliseconds, from the tag discovery until the verdict,
+     * including the generate-ma and verify-ma requests
+     */
+    private final static long VERIFICATION_TIMEOUT = 30000;
+    /**
+     * Time to wait for the response of a command in milliseconds, the generation of the mutual
+     * authentication response takes longer than the default transceive timeout of some phones
+     */
+    private final static int TRANSCEIVE_TIMEOUT = 5000;
+
+    public final MutableLiveData<Boolean> isAuthenticating = new MutableLiveData<>();
+    public final MutableLiveData<ErrorResult> errorResult = new MutableLiveData<>();
+    public final MutableLiveData<Intent> verificationResult = new MutableLiveData<>();
+
+    private final NfcWorker nfcWorker = new NfcWorker();
+    private final FileLogger fileLogger = (FileLogger) LoggerFactory.getLogger(getApplication().getApplicationContext(), LoggerType.FILE);
+    /**
+     * Set when the first tag is discovered, further tags are ignored
+     */
+    private final AtomicBoolean tagDiscovered = new AtomicBoolean();
+    private volatile int session;
+    private RecordingTransport apduRecorder;
+    private volatile BrandVerificationManager brandVerificationManager;
+
+    /**
+     * Constructor
+     *
+     * @param application instance
+     */
+    public ScanViewModel(@NonNull @NotNull Application application) {
+        super(application);
+    }
+
+    /**
+     * Starts the brand verification of the discovered tag on the NFC worker, unless a tag has
+     * already been discovered
+     *
+     * @param tagHandle ISO DEP handle of the presented tag
+     */
+    public void verifyTag(IsoDep tagHandle) {
+        if (!tagDiscovered.compareAndSet(false, true)) {
+            return;
+        }
+        ApduTransport transport = new IsoDepTransport(tagHandle);
+        if (fileLogger != null) {
+            apduRecorder = new RecordingTransport(transport,
+                    CommandManagerFactory.getCapabilityContainerCache(getApplication()));
+            transport = apduRecorder;
+        }
+        NfcChannel nfcChannel = new NfcChannel(transport, fileLogger);
+        session = nfcWorker.startSession(nfcChannel, VERIFICATION_TIMEOUT, () -> {
+            saveApduTrace();
+            errorResult.postValue(getError(R.string.time_out));
+        });
+        nfcWorker.execute(() -> performBrandVerification(nfcChannel));
+    }
+
+    /**
+     * Cancels the verification, the communication with the tag is aborted and no outcome is posted
+     */
+    public void cancel() {
+        nfcWorker.endSession(session, this::saveApduTrace);
+    }
+
+    /**
+     * Stops the total time of the verification and returns it
+     *
+     * @return time in milliseconds, 0 if the verification has not started
+     */
+    public double getTotalTimeTaken() {
+        BrandVerificationManager manager = brandVerificationManager;
+        if (manager == null || manager.totalTimeLogger == null) {
+            return 0;
+        }
+        manager.totalTimeLogger.stop();
+        return manager.totalTimeLogger.getTotalTimeTaken();
+    }
+
+    /**
+     * Performs the brand verification, called on the NFC worker
+     *
+     * @param nfcChannel channel of the presented tag
+     */
+    private void performBrandVerification(NfcChannel nfcChannel) {
+        if (!nfcChannel.open()) {
+            endSession(() -> errorResult.postValue(getError(R.string.msg_unable_connect_tag)));
+            return;
+        }
+        nfcChannel.setTimeout(TRANSCEIVE_TIMEOUT);
+        if (fileLogger != null) {
+            fileLogger.resetLog();
+        }
+        isAuthenticating.postValue(true);
+        try {
+            brandVerificationManager = new BrandVerificationManager(nfcChannel, getApplication(), nfcWorker,
+                    new BrandVerifyEventCallback() {
+                        @Override
+                        public void onSuccess(ApduResponse productAPDUResponse, ApduResponse servicePDUResponse, URIRecord uriRecord,
+                                              MutualAuthVerifyResponse maVerifyResponse) {
+                            Intent intent = prepareSuccessResponse(productAPDUResponse, servicePDUResponse,
+                                    uriRecord, maVerifyResponse);
+                            endSession(() -> verificationResult.postValue(intent));
+                        }
+
+                        @Override
+                        public void onError(ErrorResult error) {
+                            endSession(() -> errorResult.postValue(error));
+                        }
+                    });
+            brandVerificationManager.performBrandVerification();
+        } catch (Exception e) {
+            ErrorResult error = new ErrorResult(TYPE_WARNING, e.getMessage(),
+                    ErrorResult.getTitle(getApplication(), Objects.requireNonNull(e.getMessage()), TYPE_WARNING));
+            endSession(() -> errorResult.postValue(error));
+        }
+    }
+
+    /**
+     * Ends the session of the verification, then saves the APDU trace and reports the outcome,
+     * unless the session has been ended before, e.g. by the time limit or by the user
+     *
+     * @param report posts the outcome
+     */
+    private void endSession(Runnable report) {
+        nfcWorker.endSession(session, () -> {
+            saveApduTrace();
+            report.run();
+        });
+    }
+
+    /**
+     * Creates the warning of a string resource
+     *
+     * @param messageId id of the message
+     * @return the warning
+     */
+    private ErrorResult getError(int messageId) {
+        String message = getApplication().getString(messageId);
+        return new ErrorResult(TYPE_WARNING, message, ErrorResult.getTitle(getApplication(), message, TYPE_WARNING));
+    }
+
+    /**
+     * Saves the APDU trace of the scan for replay, see {@link com.infineon.nfcbpsk.data.nfc.trace.ReplayTransport}
+     */
+    private void saveApduTrace() {
+        if (apduRecorder == null) {
+            return;
+        }
+        try (FileOutputStream fileOutputStream = getApplication().openFileOutput(APDU_TRACE_FILENAME, Context.MODE_PRIVATE)) {
+            apduRecorder.getTrace().writeTo(fileOutputStream);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        apduRecorder = null;
+    }
+
+    /**
+     * Prepare the result intent to the caller activity
+     *
+     * @param productAPDUResponse   Product data as APDU
+     * @param servicePDUResponse    Service data as APDU
+     * @param uriRecord             URI record
+     * @param maVerifyResponse      Verify mutual auth response
+     * @return intent holding the result
+     */
+    private Intent prepareSuccessResponse(ApduResponse productAPDUResponse, ApduResponse servicePDUResponse,
+                                          URIRecord uriRecord, MutualAuthVerifyResponse maVerifyResponse) {
+        Intent intent = new Intent();
+        if (productAPDUResponse != null) {
+            intent.putExtra(ScanActivity.RESULT_PRODUCT, productAPDUResponse.getData());
+        }
+        if (servicePDUResponse != null) {
+            intent.putExtra(ScanActivity.RESULT_SERVICE, servicePDUResponse.getData());
+        }
+        intent.putExtra(ScanActivity.RESULT_URI, uriRecord.getUri());
+        intent.putExtra(ScanActivity.RESULT_MA_VERIFY_RESPONSE, maVerifyResponse);
+        intent.putExtra(ScanActivity.RESULT_TIME, brandVerificationManager.totalTimeLogger.getTotalTimeTaken());
+        return intent;
+    }
+
+    /**
+     * Aborts a verification in progress and stops the NFC worker
+     */
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        cancel();
+        nfcWorker.shutdown();
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.ndef.benchmark;
+
+import com.infineon.ndef.utils.HexCodec;
+import com.infineon.ndef.utils.UtilException;
+import com.infineon.ndef.utils.Utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the table driven {@link HexCodec} against the general purpose conversions of {@link Utils}.
+ * Sizes are those of the chip ID (8), the challenge (16), a mutual authentication command (64) and a
+ * full READ BINARY response (230).
+ *
+ * @author Infineon Technologies
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HexCodecBenchmark {
+
+    @Param({"8", "16", "64", "230"})
+    public int length;
+
+    private byte[] bytes;
+    private String hex;
+    private String delimitedHex;
+    private char[] chars;
+    private byte[] decoded;
+
+    @Setup
+    public void setUp() {
+        bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        hex = HexCodec.encode(bytes);
+        delimitedHex = HexCodec.encode(bytes, 0, length, ' ');
+        chars = new char[HexCodec.getEncodedLength(length, true)];
+        decoded = new byte[length];
+    }
+
+    /**
+     * General formatter of Utils with delimiter handling, as used by toHexString before the codec
+     */
+    @Benchmark
+    public String encodeFormatter() {
+        return Utils.toHexString(bytes, 0, bytes.length, " ", false, null);
+    }
+
+    @Benchmark
+    public String encodeDelimited() {
+        return HexCodec.encode(bytes, 0, bytes.length, ' ');
+    }
+
+    @Benchmark
+    public int encodeIntoBuffer() {
+        return HexCodec.encode(bytes, 0, bytes.length, ' ', chars, 0);
+    }
+
+    /**
+     * Lenient parser of Utils, which handles delimiters, 0x prefixes and quoted ASCII
+     */
+    @Benchmark
+    public byte[] decodeLenient() throws UtilException {
+        return Utils.toByteArray(delimitedHex);
+    }
+
+    @Benchmark
+    public byte[] decodeStrict() throws UtilException {
+        return HexCodec.decode(hex);
+    }
+
+    @Benchmark
+    public int decodeIntoBuffer() throws UtilException {
+        return HexCodec.decode(hex, 0, hex.length(), decoded, 0);
+    }
+}
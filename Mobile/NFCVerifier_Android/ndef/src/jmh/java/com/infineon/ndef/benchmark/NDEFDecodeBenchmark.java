@@ -0,0 +1,109 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.ndef.benchmark;
+
+import com.infineon.ndef.NDEFMessage;
+import com.infineon.ndef.NDEFRecord;
+import com.infineon.ndef.NFCException;
+import com.infineon.ndef.converter.LazyRecord;
+import com.infineon.ndef.converter.NDEFMessageDecoder;
+import com.infineon.ndef.converter.NDEFRecordReader;
+import com.infineon.ndef.converter.RecordTypeFilter;
+import com.infineon.ndef.model.AbstractRecord;
+import com.infineon.ndef.utils.NDEFConstants;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of decoding the sample NDEF messages
+ *
+ * @author Infineon Technologies
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NDEFDecodeBenchmark {
+
+    /**
+     * Size of the READ BINARY responses the message is split into for the reader benchmark
+     */
+    private static final int READ_BINARY_LENGTH = 0xE6;
+
+    private static final RecordTypeFilter VERIFICATION_RECORDS = RecordTypeFilter
+            .of(NDEFConstants.TNF_WELL_KNOWN, "U")
+            .withTnf(NDEFConstants.TNF_EXTERNAL);
+
+    @Param
+    public SampleMessage message;
+
+    private final NDEFMessageDecoder decoder = NDEFMessageDecoder.instance();
+    private byte[] ndefMessage;
+
+    @Setup
+    public void setUp() {
+        ndefMessage = message.encode();
+    }
+
+    @Benchmark
+    public NDEFMessage decrypt() {
+        return decoder.decrypt(ndefMessage);
+    }
+
+    @Benchmark
+    public List<AbstractRecord> decryptToRecords() throws NFCException {
+        return decoder.decryptToRecords(ndefMessage);
+    }
+
+    @Benchmark
+    public List<AbstractRecord> decryptVerificationRecords() throws NFCException {
+        return decoder.decryptToRecords(ndefMessage, VERIFICATION_RECORDS);
+    }
+
+    @Benchmark
+    public List<LazyRecord> decryptToLazyRecords() {
+        return decoder.decryptToLazyRecords(ndefMessage);
+    }
+
+    @Benchmark
+    public void readInChunks(Blackhole blackhole) {
+        NDEFRecordReader reader = decoder.reader();
+        for (int offset = 0; offset < ndefMessage.length; offset += READ_BINARY_LENGTH) {
+            reader.append(ndefMessage, offset, Math.min(READ_BINARY_LENGTH, ndefMessage.length - offset));
+            while (reader.hasNext()) {
+                NDEFRecord record = reader.next();
+                blackhole.consume(record);
+            }
+        }
+    }
+}
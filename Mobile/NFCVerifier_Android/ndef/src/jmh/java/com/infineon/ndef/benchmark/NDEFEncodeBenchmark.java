@@ -0,0 +1,94 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.ndef.benchmark;
+
+import com.infineon.ndef.NDEFRecord;
+import com.infineon.ndef.NFCFactory;
+import com.infineon.ndef.converter.NDEFMessageEncoder;
+import com.infineon.ndef.converter.NDEFOutputBuffer;
+import com.infineon.ndef.model.AbstractRecord;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of encoding the sample NDEF messages
+ *
+ * @author Infineon Technologies
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NDEFEncodeBenchmark {
+
+    @Param
+    public SampleMessage message;
+
+    private final NDEFMessageEncoder encoder = NDEFMessageEncoder.instance();
+    private final NDEFOutputBuffer outputBuffer = new NDEFOutputBuffer();
+    private List<AbstractRecord> records;
+    private NDEFRecord[] ndefRecords;
+
+    @Setup
+    public void setUp() {
+        records = message.records();
+        ndefRecords = new NDEFRecord[records.size()];
+        for (int i = 0; i < ndefRecords.length; i++) {
+            ndefRecords[i] = NFCFactory.encryptRecord(records.get(i));
+        }
+    }
+
+    @Benchmark
+    public byte[] encryptRecords() {
+        return encoder.encrypt(records);
+    }
+
+    @Benchmark
+    public int encodeToReusedBuffer() {
+        outputBuffer.reset();
+        encoder.encodeTo(outputBuffer, records);
+        return outputBuffer.position();
+    }
+
+    @Benchmark
+    public byte[] encryptNDEFRecords() {
+        return encoder.encrypt(ndefRecords);
+    }
+
+    @Benchmark
+    public void encryptPayloads(Blackhole blackhole) {
+        for (AbstractRecord record : records) {
+            blackhole.consume(NFCFactory.encryptRecord(record));
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.ndef.benchmark;
+
+import com.infineon.ndef.ActionType;
+import com.infineon.ndef.NDEFRecord;
+import com.infineon.ndef.NFCFactory;
+import com.infineon.ndef.converter.NDEFMessageEncoder;
+import com.infineon.ndef.model.AbstractRecord;
+import com.infineon.ndef.model.ActionRecord;
+import com.infineon.ndef.model.ExternalTypeRecord;
+import com.infineon.ndef.model.IconRecord;
+import com.infineon.ndef.model.SmartPosterRecord;
+import com.infineon.ndef.model.TextRecord;
+import com.infineon.ndef.model.URIRecord;
+import com.infineon.ndef.model.VCardRecord;
+import com.infineon.ndef.utils.NDEFConstants;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * NDEF messages used by the benchmarks, modelled on the content of real tags
+ *
+ * @author Infineon Technologies
+ */
+public enum SampleMessage {
+
+    /**
+     * Single URI record
+     */
+    URI {
+        @Override
+        List<AbstractRecord> records() {
+            return Arrays.<AbstractRecord>asList(new URIRecord(PRODUCT_URI));
+        }
+    },
+
+    /**
+     * Smart poster with URI, titles in two languages and action
+     */
+    SMART_POSTER {
+        @Override
+        List<AbstractRecord> records() {
+            SmartPosterRecord smartPoster = new SmartPosterRecord();
+            smartPoster.setUriRecord(new URIRecord(PRODUCT_URI));
+            smartPoster.addTitleRecord(new TextRecord("Genuine product information", Locale.ENGLISH));
+            smartPoster.addTitleRecord(new TextRecord("Informationen zum Originalprodukt", Locale.GERMAN));
+            smartPoster.setActionRecord(new ActionRecord(ActionType.DO_ACTION));
+            return Arrays.<AbstractRecord>asList(smartPoster);
+        }
+    },
+
+    /**
+     * URI record followed by the external type brand protection record, as written to a secured tag
+     */
+    BRAND_PROTECTION {
+        @Override
+        List<AbstractRecord> records() {
+            return Arrays.<AbstractRecord>asList(new URIRecord(PRODUCT_URI),
+                    new ExternalTypeRecord(brandProtectionPayload()));
+        }
+    },
+
+    /**
+     * Brand protection records behind a large vCard with an embedded photo
+     */
+    VCARD {
+        @Override
+        List<AbstractRecord> records() {
+            StringBuilder vCard = new StringBuilder("BEGIN:VCARD\r\nVERSION:3.0\r\n")
+                    .append("N:Mustermann;Erika\r\nFN:Erika Mustermann\r\nORG:Example GmbH\r\n")
+                    .append("TEL;TYPE=WORK:+49 89 000000\r\nEMAIL:erika.mustermann@example.com\r\n")
+                    .append("PHOTO;ENCODING=b;TYPE=PNG:");
+            byte[] photo = randomBytes(1500);
+            char[] alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+            for (byte b : photo) {
+                vCard.append(alphabet[b & 0x3F]);
+            }
+            vCard.append("\r\nEND:VCARD\r\n");
+            return withBrandProtection(new VCardRecord(VCardRecord.SUPPORTED_TYPES[0], vCard.toString()));
+        }
+    },
+
+    /**
+     * Brand protection records behind a 4 KB icon
+     */
+    ICON {
+        @Override
+        List<AbstractRecord> records() {
+            return withBrandProtection(new IconRecord("image/png", randomBytes(4096)));
+        }
+    };
+
+    /**
+     * Placeholder external type of the brand protection record. The real type is chosen at personalization; the
+     * decoding cost depends only on its length, since the records are selected by TNF.
+     */
+    private static final byte[] BRAND_PROTECTION_TYPE = "example.com:bp".getBytes(StandardCharsets.US_ASCII);
+
+    private static final String PRODUCT_URI = "https://www.example.com/products/verify?id=0123456789ABCDEF";
+
+    /**
+     * Method returns the records of the message
+     *
+     * @return records of the message
+     */
+    abstract List<AbstractRecord> records();
+
+    /**
+     * Method returns the encoded NDEF message. The brand protection record is encoded with TNF external as on the tag.
+     *
+     * @return NDEF message as byte array
+     */
+    byte[] encode() {
+        List<AbstractRecord> records = records();
+        NDEFRecord[] ndefRecords = new NDEFRecord[records.size()];
+        for (int i = 0; i < ndefRecords.length; i++) {
+            AbstractRecord record = records.get(i);
+            ndefRecords[i] = record instanceof ExternalTypeRecord
+                    ? new NDEFRecord(NDEFConstants.TNF_EXTERNAL, BRAND_PROTECTION_TYPE, new byte[0],
+                    ((ExternalTypeRecord) record).getData())
+                    : NFCFactory.encryptRecord(record);
+        }
+        return NDEFMessageEncoder.instance().encrypt(ndefRecords);
+    }
+
+    private static List<AbstractRecord> withBrandProtection(AbstractRecord record) {
+        List<AbstractRecord> records = new ArrayList<>();
+        records.add(record);
+        records.add(new URIRecord(PRODUCT_URI));
+        records.add(new ExternalTypeRecord(brandProtectionPayload()));
+        return records;
+    }
+
+    /**
+     * Payload of a cloud verification brand protection record: structure indicator, verification type,
+     * URL length, URL and key label
+     *
+     * @return payload of the brand protection record
+     */
+    private static byte[] brandProtectionPayload() {
+        byte[] url = "https://verify.example.com/api/v1".getBytes(StandardCharsets.UTF_8);
+        byte[] payload = new byte[3 + url.length + 2];
+        payload[0] = 0x01;
+        payload[1] = 0x01;
+        payload[2] = (byte) url.length;
+        System.arraycopy(url, 0, payload, 3, url.length);
+        payload[payload.length - 2] = 0x00;
+        payload[payload.length - 1] = 0x01;
+        return payload;
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+}
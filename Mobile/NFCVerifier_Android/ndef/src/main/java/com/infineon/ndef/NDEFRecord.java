@@ -20,6 +20,10 @@ package com.infineon.ndef;
 
 import com.infineon.ndef.utils.Utils;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+
 /**
  * NFC Data Exchange Format (NDEF) Record.
  * Contains the following parameters or fields
@@ -151,6 +155,79 @@ public final class NDEFRecord {
         return payload == null ? null : payload.clone();
     }
 
+    /**
+     * This method returns the length of the record type without copying it
+     *
+     * @return length of the Type field in bytes
+     */
+    public int getTypeLength() {
+        return Objects.requireNonNull(type).length;
+    }
+
+    /**
+     * This method returns the length of the record ID without copying it
+     *
+     * @return length of the ID field in bytes
+     */
+    public int getIdLength() {
+        return Objects.requireNonNull(id).length;
+    }
+
+    /**
+     * This method returns the length of the record payload without copying it
+     *
+     * @return length of the payload in bytes
+     */
+    public int getPayloadLength() {
+        return Objects.requireNonNull(payload).length;
+    }
+
+    /**
+     * Method is to compare the record type without copying it
+     *
+     * @param other record type to be compared
+     * @return true if the record type is equal to the given type
+     */
+    public boolean typeEquals(byte[] other) {
+        return Arrays.equals(Objects.requireNonNull(type), other);
+    }
+
+    /**
+     * This method returns the hash code of the record type as computed by {@link Arrays#hashCode(byte[])}
+     *
+     * @return hash code of the Type field
+     */
+    public int typeHashCode() {
+        return Arrays.hashCode(Objects.requireNonNull(type));
+    }
+
+    /**
+     * Method is to write the record type into the buffer at its current position
+     *
+     * @param destination buffer receiving the Type field
+     */
+    public void putType(ByteBuffer destination) {
+        destination.put(Objects.requireNonNull(type));
+    }
+
+    /**
+     * Method is to write the record ID into the buffer at its current position
+     *
+     * @param destination buffer receiving the ID field
+     */
+    public void putId(ByteBuffer destination) {
+        destination.put(Objects.requireNonNull(id));
+    }
+
+    /**
+     * Method is to write the record payload into the buffer at its current position
+     *
+     * @param destination buffer receiving the payload
+     */
+    public void putPayload(ByteBuffer destination) {
+        destination.put(Objects.requireNonNull(payload));
+    }
+
     /**
      * The CF flag indicates if this is the first record chunk or a middle record chunk
      *
@@ -0,0 +1,477 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.infineon.ndef;
+
+import com.infineon.ndef.utils.NDEFConstants;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Zero-copy view of the NDEF records contained in an encoded NDEF message.
+ * <br>
+ * <br>
+ * The view works as a cursor: each call of {@link #next()} parses the header of the following record and exposes the
+ * offset and length of its type, ID and payload fields within the original buffer. No record data is copied while
+ * iterating; the payload bytes are only materialized when {@link #getPayload()} or {@link #toNDEFRecord()} is called.
+ * <br>
+ * <br>
+ * The backing buffer is accessed with absolute reads only, so its position and limit are never modified. The view itself
+ * is not thread safe and must not be shared between threads.
+ *
+ * @author Infineon Technologies
+ */
+public final class NDEFRecordView {
+
+    /**
+     * Buffer holding the encoded NDEF message
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * Index of the first byte of the NDEF message in the buffer
+     */
+    private final int start;
+
+    /**
+     * Index after the last byte of the NDEF message in the buffer
+     */
+    private final int limit;
+
+    /**
+     * Index of the header byte of the following record
+     */
+    private int nextOffset;
+
+    /**
+     * Index of the header byte of the current record, -1 if no record is parsed yet
+     */
+    private int recordOffset = -1;
+
+    /**
+     * Index of the header byte of the marked record, -1 if no record is marked
+     */
+    private int markedOffset = -1;
+
+    /**
+     * Header byte of the current record
+     */
+    private int header;
+
+    private int typeOffset;
+    private int typeLength;
+    private int idOffset;
+    private int idLength;
+    private int payloadOffset;
+    private int payloadLength;
+
+    /**
+     * Creates a view over the complete byte array.
+     *
+     * @param ndefMessage NDEF message as byte array
+     */
+    public NDEFRecordView(byte[] ndefMessage) {
+        this(ndefMessage, 0, ndefMessage.length);
+    }
+
+    /**
+     * Creates a view over a range of the byte array.
+     *
+     * @param ndefMessage NDEF message as byte array
+     * @param offset      offset of the NDEF message in the array
+     * @param length      length of the NDEF message
+     */
+    public NDEFRecordView(byte[] ndefMessage, int offset, int length) {
+        this(ByteBuffer.wrap(ndefMessage, offset, length));
+    }
+
+    /**
+     * Creates a view over the remaining bytes of the buffer, i.e. from its position up to its limit.
+     *
+     * @param ndefMessage buffer holding the NDEF message
+     */
+    public NDEFRecordView(ByteBuffer ndefMessage) {
+        this.buffer = ndefMessage;
+        this.start = ndefMessage.position();
+        this.limit = ndefMessage.limit();
+        this.nextOffset = start;
+    }
+
+    /**
+     * Method returns true if there is at least one more record after the current one.
+     *
+     * @return true if {@link #next()} will parse another record
+     */
+    public boolean hasNext() {
+        return nextOffset < limit;
+    }
+
+    /**
+     * Method is to move the view to the next record of the NDEF message and parse its header.
+     *
+     * @return true if the view points to a new record, false if the end of the message is reached
+     * @throws IllegalArgumentException if the record header is malformed or the record exceeds the message
+     */
+    public boolean next() {
+        if (!hasNext()) {
+            return false;
+        }
+        int position = nextOffset;
+        int newHeader = readUnsignedByte(position++);
+        int newTypeLength = readUnsignedByte(position++);
+        int newPayloadLength;
+        if ((newHeader & NDEFConstants.SR) != 0) {
+            newPayloadLength = readUnsignedByte(position++);
+        } else {
+            newPayloadLength = (readUnsignedByte(position) << 24) | (readUnsignedByte(position + 1) << 16)
+                    | (readUnsignedByte(position + 2) << 8) | readUnsignedByte(position + 3);
+            position += 4;
+            if (newPayloadLength < 0) {
+                throw new IllegalArgumentException("Unsupported NDEF record payload length");
+            }
+        }
+        int newIdLength = 0;
+        if ((newHeader & NDEFConstants.IL) != 0) {
+            newIdLength = readUnsignedByte(position++);
+        }
+        long end = (long) position + newTypeLength + newIdLength + newPayloadLength;
+        if (end > limit) {
+            throw new IllegalArgumentException("Truncated record in the NDEF Message");
+        }
+        if (nextOffset == start && (newHeader & NDEFConstants.MB) == 0) {
+            throw new IllegalArgumentException("Missing Message Begin record in the NDEF Message");
+        }
+        if (end == limit && (newHeader & NDEFConstants.ME) == 0) {
+            throw new IllegalArgumentException("Missing Message End record in the NDEF Message");
+        }
+
+        recordOffset = nextOffset;
+        header = newHeader;
+        typeOffset = position;
+        typeLength = newTypeLength;
+        idOffset = typeOffset + typeLength;
+        idLength = newIdLength;
+        payloadOffset = idOffset + idLength;
+        payloadLength = newPayloadLength;
+        nextOffset = (int) end;
+        return true;
+    }
+
+    /**
+     * Method is to move the view back to the beginning of the NDEF message.
+     */
+    public void rewind() {
+        nextOffset = start;
+        recordOffset = -1;
+        markedOffset = -1;
+    }
+
+    /**
+     * Method is to mark the current record. A later call of {@link #reset()} moves the view back so that the following
+     * {@link #next()} parses the marked record again.
+     */
+    public void mark() {
+        if (recordOffset < 0) {
+            throw new IllegalStateException("No current record to be marked");
+        }
+        markedOffset = recordOffset;
+    }
+
+    /**
+     * Method is to move the view back to the record marked with {@link #mark()}.
+     */
+    public void reset() {
+        if (markedOffset < 0) {
+            throw new IllegalStateException("No record is marked");
+        }
+        nextOffset = markedOffset;
+        recordOffset = -1;
+    }
+
+    /**
+     * This method returns the buffer backing the view. Offsets returned by this view are absolute indices into this buffer.
+     *
+     * @return buffer holding the NDEF message
+     */
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * This method returns the TNF: Type Name Format Field of the current record
+     *
+     * @return Returns the 3-bit TNF.
+     */
+    public byte getTnf() {
+        return (byte) (header & NDEFConstants.TNF_MASK);
+    }
+
+    /**
+     * The MB flag indicates the first record of the NDEF message
+     *
+     * @return true if current record has the MB flag set
+     */
+    public boolean isMessageBegin() {
+        return (header & NDEFConstants.MB) != 0;
+    }
+
+    /**
+     * The ME flag indicates the last record of the NDEF message
+     *
+     * @return true if current record has the ME flag set
+     */
+    public boolean isMessageEnd() {
+        return (header & NDEFConstants.ME) != 0;
+    }
+
+    /**
+     * The CF flag indicates if this is the first record chunk or a middle record chunk
+     *
+     * @return true if current record is chunked
+     */
+    public boolean isChunked() {
+        return (header & NDEFConstants.CF) != 0;
+    }
+
+    /**
+     * This method returns the offset of the header byte of the current record
+     *
+     * @return offset of the current record in the buffer
+     */
+    public int getRecordOffset() {
+        return recordOffset;
+    }
+
+    /**
+     * This method returns the length of the current record including its header
+     *
+     * @return length of the encoded record in bytes
+     */
+    public int getRecordLength() {
+        return nextOffset - recordOffset;
+    }
+
+    /**
+     * This method returns the offset of the type field of the current record
+     *
+     * @return offset of the type in the buffer
+     */
+    public int getTypeOffset() {
+        return typeOffset;
+    }
+
+    /**
+     * This method returns the length of the type field of the current record
+     *
+     * @return length of the type in bytes
+     */
+    public int getTypeLength() {
+        return typeLength;
+    }
+
+    /**
+     * This method returns the offset of the ID field of the current record
+     *
+     * @return offset of the ID in the buffer
+     */
+    public int getIdOffset() {
+        return idOffset;
+    }
+
+    /**
+     * This method returns the length of the ID field of the current record
+     *
+     * @return length of the ID in bytes
+     */
+    public int getIdLength() {
+        return idLength;
+    }
+
+    /**
+     * This method returns the offset of the payload of the current record
+     *
+     * @return offset of the payload in the buffer
+     */
+    public int getPayloadOffset() {
+        return payloadOffset;
+    }
+
+    /**
+     * This method returns the length of the payload of the current record
+     *
+     * @return length of the payload in bytes
+     */
+    public int getPayloadLength() {
+        return payloadLength;
+    }
+
+    /**
+     * Method is to compare the type of the current record without copying it
+     *
+     * @param type record type to be compared
+     * @return true if the type of the current record is equal to the given type
+     */
+    public boolean typeEquals(byte[] type) {
+        if (type == null || type.length != typeLength) {
+            return false;
+        }
+        for (int i = 0; i < typeLength; i++) {
+            if (buffer.get(typeOffset + i) != type[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * This method returns the hash code of the type of the current record as computed by
+     * {@link java.util.Arrays#hashCode(byte[])}, without copying the type
+     *
+     * @return hash code of the type
+     */
+    public int typeHashCode() {
+        int result = 1;
+        for (int i = 0; i < typeLength; i++) {
+            result = 31 * result + buffer.get(typeOffset + i);
+        }
+        return result;
+    }
+
+    /**
+     * This method returns a read-only buffer sharing the payload bytes of the current record. No data is copied.
+     *
+     * @return read-only buffer positioned at the payload
+     */
+    public ByteBuffer getPayloadBuffer() {
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.limit(payloadOffset + payloadLength);
+        duplicate.position(payloadOffset);
+        return duplicate.slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * This method returns a copy of the type of the current record
+     *
+     * @return The variable length Type field.
+     */
+    public byte[] getType() {
+        return copyOf(typeOffset, typeLength);
+    }
+
+    /**
+     * This method returns a copy of the ID of the current record
+     *
+     * @return Returns the variable length ID.
+     */
+    public byte[] getId() {
+        return copyOf(idOffset, idLength);
+    }
+
+    /**
+     * This method returns a copy of the payload of the current record
+     *
+     * @return Returns the variable length payload.
+     */
+    public byte[] getPayload() {
+        return copyOf(payloadOffset, payloadLength);
+    }
+
+    /**
+     * Method is to copy the payload of the current record into the given array
+     *
+     * @param destination array receiving the payload
+     * @param offset      offset in the destination array
+     * @return number of bytes copied
+     */
+    public int copyPayload(byte[] destination, int offset) {
+        copy(payloadOffset, payloadLength, destination, offset);
+        return payloadLength;
+    }
+
+    /**
+     * Method is to write the payload of the current record to the stream. Array backed buffers are written without
+     * an intermediate copy.
+     *
+     * @param stream stream receiving the payload
+     * @return number of bytes written
+     * @throws IOException if writing to the stream fails
+     */
+    public int writePayload(OutputStream stream) throws IOException {
+        if (buffer.hasArray()) {
+            stream.write(buffer.array(), buffer.arrayOffset() + payloadOffset, payloadLength);
+        } else {
+            stream.write(getPayload());
+        }
+        return payloadLength;
+    }
+
+    /**
+     * Method is to materialize the current record as {@link NDEFRecord}. Type, ID and payload are copied once.
+     *
+     * @return NDEF record with the content of the current record
+     */
+    public NDEFRecord toNDEFRecord() {
+        return new NDEFRecord(getTnf(), isChunked(), getType(), getId(), getPayload());
+    }
+
+    /**
+     * Reads one byte of the NDEF message as unsigned value
+     *
+     * @param index absolute index in the buffer
+     * @return value of the byte
+     */
+    private int readUnsignedByte(int index) {
+        if (index >= limit) {
+            throw new IllegalArgumentException("Truncated record header in the NDEF Message");
+        }
+        return buffer.get(index) & 0xFF;
+    }
+
+    /**
+     * Copies a range of the buffer into a new array
+     *
+     * @param offset absolute index in the buffer
+     * @param length number of bytes
+     * @return new array with the data
+     */
+    private byte[] copyOf(int offset, int length) {
+        byte[] bytes = new byte[length];
+        copy(offset, length, bytes, 0);
+        return bytes;
+    }
+
+    /**
+     * Copies a range of the buffer into the destination array
+     *
+     * @param offset            absolute index in the buffer
+     * @param length            number of bytes
+     * @param destination       destination array
+     * @param destinationOffset offset in the destination array
+     */
+    private void copy(int offset, int length, byte[] destination, int destinationOffset) {
+        if (buffer.hasArray()) {
+            System.arraycopy(buffer.array(), buffer.arrayOffset() + offset, destination, destinationOffset, length);
+        } else {
+            ByteBuffer duplicate = buffer.duplicate();
+            duplicate.limit(offset + length);
+            duplicate.position(offset);
+            duplicate.get(destination, destinationOffset, length);
+        }
+    }
+}
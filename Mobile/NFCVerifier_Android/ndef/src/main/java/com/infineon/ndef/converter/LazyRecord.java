@@ -0,0 +1,193 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.ndef.converter;
+
+import com.infineon.ndef.NDEFRecord;
+import com.infineon.ndef.NDEFRecordView;
+import com.infineon.ndef.NFCException;
+import com.infineon.ndef.model.AbstractRecord;
+import com.infineon.ndef.model.decoder.RecordPayloadDecoder;
+import com.infineon.ndef.utils.NDEFConstants;
+import com.infineon.ndef.utils.RecordUtils;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Lightweight handle of an NDEF record whose payload is decoded on demand.
+ * <br>
+ * <br>
+ * TNF and type are available without decoding. The payload stays in the buffer of the NDEF message until
+ * {@link #getRecord()} is called for the first time; the decoded {@link AbstractRecord} is then kept and returned by
+ * every further call. A handle can be shared between threads; concurrent first calls may decode the payload more
+ * than once, but afterwards all callers get the same record.
+ *
+ * @author Infineon Technologies
+ */
+public final class LazyRecord {
+
+    private final byte tnf;
+    private final byte[] type;
+    private final byte[] id;
+
+    /**
+     * Read-only buffer holding the payload
+     */
+    private final ByteBuffer payload;
+
+    /**
+     * Decoded record, null until the first call of getRecord()
+     */
+    private volatile AbstractRecord record;
+
+    private LazyRecord(byte tnf, byte[] type, byte[] id, ByteBuffer payload) {
+        this.tnf = tnf;
+        this.type = type;
+        this.id = id;
+        this.payload = payload;
+    }
+
+    /**
+     * Method is to create a handle of the record the view points to. The payload is shared with the buffer of the view.
+     *
+     * @param view view positioned on a record
+     * @return handle of the record
+     */
+    static LazyRecord of(NDEFRecordView view) {
+        return new LazyRecord(view.getTnf(), view.getType(), view.getId(), view.getPayloadBuffer());
+    }
+
+    /**
+     * Method is to create a handle of the NDEF record
+     *
+     * @param ndefRecord NDEF record
+     * @return handle of the record
+     */
+    public static LazyRecord of(NDEFRecord ndefRecord) {
+        return new LazyRecord(ndefRecord.getTnf(), ndefRecord.getType(), ndefRecord.getId(),
+                ByteBuffer.wrap(ndefRecord.getPayload()).asReadOnlyBuffer());
+    }
+
+    /**
+     * This method returns the TNF: Type Name Format Field of the record
+     *
+     * @return Returns the 3-bit TNF.
+     */
+    public byte getTnf() {
+        return tnf;
+    }
+
+    /**
+     * This method returns the record type
+     *
+     * @return The variable length Type field.
+     */
+    public byte[] getType() {
+        return type.clone();
+    }
+
+    /**
+     * Method is to compare the record type without copying it
+     *
+     * @param other record type to be compared
+     * @return true if the record type is equal to the given type
+     */
+    public boolean typeEquals(byte[] other) {
+        return Arrays.equals(type, other);
+    }
+
+    /**
+     * Method is to compare the record type without copying it
+     *
+     * @param other record type to be compared, e.g. "U"
+     * @return true if the record type is equal to the given type
+     */
+    public boolean typeEquals(String other) {
+        return typeEquals(other.getBytes(NDEFConstants.DEFAULT_CHARSET));
+    }
+
+    /**
+     * This method returns the record ID
+     *
+     * @return Returns the variable length ID.
+     */
+    public byte[] getId() {
+        return id.clone();
+    }
+
+    /**
+     * This method returns the length of the record payload
+     *
+     * @return length of the payload in bytes
+     */
+    public int getPayloadLength() {
+        return payload.remaining();
+    }
+
+    /**
+     * This method returns a read-only buffer of the undecoded payload
+     *
+     * @return read-only buffer positioned at the payload
+     */
+    public ByteBuffer getPayloadBuffer() {
+        return payload.duplicate();
+    }
+
+    /**
+     * Method returns true if the payload has already been decoded
+     *
+     * @return true if {@link #getRecord()} has been called successfully
+     */
+    public boolean isDecoded() {
+        return record != null;
+    }
+
+    /**
+     * Method is to decode the payload into the concrete record data structure. The payload is decoded on the first call
+     * only, the result is kept for further calls.
+     *
+     * @return decoded record
+     * @throws NFCException Throws NFC exception if the payload can not be decoded
+     */
+    public AbstractRecord getRecord() throws NFCException {
+        AbstractRecord decoded = record;
+        if (decoded == null) {
+            RecordPayloadDecoder decoder = RecordUtils.getDecoderTable().lookup(tnf, type);
+            if (decoder == null) {
+                throw NDEFMessageDecoder.unsupportedRecord(tnf, type);
+            }
+            decoded = decoder.decodePayload(copyPayload());
+            record = decoded;
+        }
+        return decoded;
+    }
+
+    /**
+     * Method is to materialize the record as {@link NDEFRecord}
+     *
+     * @return NDEF record with the content of the handle
+     */
+    public NDEFRecord toNDEFRecord() {
+        return new NDEFRecord(tnf, type.clone(), id.clone(), copyPayload());
+    }
+
+    private byte[] copyPayload() {
+        byte[] bytes = new byte[payload.remaining()];
+        payload.duplicate().get(bytes);
+        return bytes;
+    }
+}
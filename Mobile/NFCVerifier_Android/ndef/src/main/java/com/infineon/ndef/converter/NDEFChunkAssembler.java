@@ -0,0 +1,189 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.ndef.converter;
+
+import com.infineon.ndef.NDEFRecord;
+import com.infineon.ndef.NDEFRecordView;
+import com.infineon.ndef.utils.NDEFConstants;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * To reassemble chunked NDEF records. A chunked payload starts with a record with the CF flag set, continues with
+ * middle chunks of TNF Unchanged with the CF flag set and ends with a chunk of TNF Unchanged without the CF flag.
+ * <br>
+ * <br>
+ * The chunk headers are validated and the payload lengths are summed up before any data is copied, so the payload is
+ * either copied once into a buffer of the exact size or written chunk by chunk to a caller supplied stream. The
+ * maximum payload length applies to records that are not chunked as well.
+ *
+ * @author Infineon Technologies
+ */
+public final class NDEFChunkAssembler {
+
+    /**
+     * Default maximum size of a reassembled payload
+     */
+    public static final int DEFAULT_MAX_PAYLOAD_LENGTH = 64 * 1024;
+
+    /**
+     * Maximum size of a reassembled payload
+     */
+    private final int maxPayloadLength;
+
+    /**
+     * Creates an assembler accepting reassembled payloads up to {@link #DEFAULT_MAX_PAYLOAD_LENGTH}
+     */
+    public NDEFChunkAssembler() {
+        this(DEFAULT_MAX_PAYLOAD_LENGTH);
+    }
+
+    /**
+     * Creates an assembler
+     *
+     * @param maxPayloadLength maximum size of a reassembled payload in bytes
+     */
+    public NDEFChunkAssembler(int maxPayloadLength) {
+        if (maxPayloadLength < 0) {
+            throw new IllegalArgumentException("Maximum payload length must not be negative");
+        }
+        this.maxPayloadLength = maxPayloadLength;
+    }
+
+    /**
+     * Method is to decode all records of the NDEF message, joining chunked records to one record each
+     *
+     * @param view view over the NDEF message, positioned before the first record to be decoded
+     * @return list of the NDEF records
+     * @throws IllegalArgumentException if a chunk sequence is malformed or exceeds the maximum payload length
+     */
+    public List<NDEFRecord> reassemble(NDEFRecordView view) {
+        List<NDEFRecord> records = new ArrayList<>();
+        while (view.next()) {
+            records.add(assemble(view));
+        }
+        return records;
+    }
+
+    /**
+     * Method is to return the record the view points to. If it is the first chunk of a chunked record, the following
+     * chunks are joined into one payload buffer of the exact size and the view is left on the last chunk.
+     *
+     * @param view view positioned on a record
+     * @return the complete NDEF record
+     * @throws IllegalArgumentException if the chunk sequence is malformed or exceeds the maximum payload length
+     */
+    public NDEFRecord assemble(NDEFRecordView view) {
+        checkFirstRecord(view);
+        if (!view.isChunked()) {
+            checkLength(view.getPayloadLength());
+            return view.toNDEFRecord();
+        }
+        byte tnf = view.getTnf();
+        byte[] type = view.getType();
+        byte[] id = view.getId();
+
+        view.mark();
+        byte[] payload = new byte[scanChunks(view)];
+        view.reset();
+        view.next();
+        int position = view.copyPayload(payload, 0);
+        while (view.isChunked()) {
+            view.next();
+            position += view.copyPayload(payload, position);
+        }
+        return new NDEFRecord(tnf, type, id, payload);
+    }
+
+    /**
+     * Method is to write the payload of the record the view points to into the stream. If it is the first chunk of a
+     * chunked record, the payloads of all chunks are written one after the other and the view is left on the last
+     * chunk. Type and ID have to be taken from the view before this method is called.
+     *
+     * @param view   view positioned on a record
+     * @param stream stream receiving the payload
+     * @return length of the complete payload
+     * @throws IOException              if writing to the stream fails
+     * @throws IllegalArgumentException if the chunk sequence is malformed or exceeds the maximum payload length
+     */
+    public int assemble(NDEFRecordView view, OutputStream stream) throws IOException {
+        checkFirstRecord(view);
+        if (!view.isChunked()) {
+            checkLength(view.getPayloadLength());
+            return view.writePayload(stream);
+        }
+        view.mark();
+        int payloadLength = scanChunks(view);
+        view.reset();
+        view.next();
+        view.writePayload(stream);
+        while (view.isChunked()) {
+            view.next();
+            view.writePayload(stream);
+        }
+        return payloadLength;
+    }
+
+    /**
+     * Checks that the record is not a middle or last chunk of a chunk sequence
+     *
+     * @param view view positioned on a record
+     */
+    private void checkFirstRecord(NDEFRecordView view) {
+        if (view.getTnf() == NDEFConstants.TNF_UNCHANGED) {
+            throw new IllegalArgumentException("Unexpected record chunk in the NDEF Message");
+        }
+    }
+
+    /**
+     * Moves the view from the first to the last chunk, validating the chunk headers and summing up the payload lengths
+     *
+     * @param view view positioned on the first chunk
+     * @return length of the reassembled payload
+     */
+    private int scanChunks(NDEFRecordView view) {
+        long payloadLength = view.getPayloadLength();
+        checkLength(payloadLength);
+        while (view.isChunked()) {
+            if (view.isMessageEnd() || !view.next()) {
+                throw new IllegalArgumentException("Incomplete chunked record in the NDEF Message");
+            }
+            if (view.getTnf() != NDEFConstants.TNF_UNCHANGED || view.getTypeLength() != 0
+                    || view.getIdLength() != 0) {
+                throw new IllegalArgumentException("Malformed record chunk in the NDEF Message");
+            }
+            payloadLength += view.getPayloadLength();
+            checkLength(payloadLength);
+        }
+        return (int) payloadLength;
+    }
+
+    /**
+     * Checks the payload length, reassembled or of a record that is not chunked, against the maximum
+     *
+     * @param payloadLength length of the payload
+     */
+    private void checkLength(long payloadLength) {
+        if (payloadLength > maxPayloadLength) {
+            throw new IllegalArgumentException("Record payload exceeds the maximum length of "
+                    + maxPayloadLength + " bytes");
+        }
+    }
+}
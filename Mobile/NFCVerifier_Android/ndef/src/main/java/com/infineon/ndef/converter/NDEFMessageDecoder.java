@@ -19,14 +19,19 @@ package com.infineon.ndef.converter;
 
 import com.infineon.ndef.NDEFMessage;
 import com.infineon.ndef.NDEFRecord;
+import com.infineon.ndef.NDEFRecordView;
 import com.infineon.ndef.NFCException;
 import com.infineon.ndef.model.AbstractRecord;
+import com.infineon.ndef.model.decoder.RecordPayloadDecoder;
 import com.infineon.ndef.utils.NDEFConstants;
+import com.infineon.ndef.utils.RecordUtils;
 import com.infineon.ndef.utils.Utils;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -60,9 +65,68 @@ public final class NDEFMessageDecoder {
      * @return returns the decrypted record information
      */
     public NDEFMessage decrypt(byte[] ndefMessage, int offset, int length) {
-        ByteArrayInputStream bais = new ByteArrayInputStream(ndefMessage,
-                offset, length);
-        return decrypt(bais);
+        List<NDEFRecord> records = new ArrayList<>();
+        try {
+            NDEFRecordView view = view(ndefMessage, offset, length);
+            while (view.next()) {
+                records.add(view.toNDEFRecord());
+            }
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+        return new NDEFMessage(records.toArray(new NDEFRecord[0]));
+    }
+
+    /**
+     * Method is to decode the NDEF message and join chunked records, returning one record per chunk sequence
+     *
+     * @param ndefMessage      NDEF Message as byte array
+     * @param offset           offset of the NDEF message in the array
+     * @param length           length of the NDEF message
+     * @param maxPayloadLength maximum size of a reassembled payload
+     * @return returns the decoded NDEF Message without chunked records
+     */
+    public NDEFMessage decryptReassembled(byte[] ndefMessage, int offset, int length, int maxPayloadLength) {
+        List<NDEFRecord> records;
+        try {
+            records = new NDEFChunkAssembler(maxPayloadLength).reassemble(view(ndefMessage, offset, length));
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+        return new NDEFMessage(records.toArray(new NDEFRecord[0]));
+    }
+
+    /**
+     * Method is to decode the NDEF message and join chunked records up to {@link NDEFChunkAssembler#DEFAULT_MAX_PAYLOAD_LENGTH}
+     *
+     * @param ndefMessage NDEF Message
+     * @return returns the decoded NDEF Message without chunked records
+     */
+    public NDEFMessage decryptReassembled(byte[] ndefMessage) {
+        return decryptReassembled(ndefMessage, 0, ndefMessage.length, NDEFChunkAssembler.DEFAULT_MAX_PAYLOAD_LENGTH);
+    }
+
+    /**
+     * Method is to create a zero-copy view over the records of the NDEF message. The records are parsed on demand
+     * while iterating the view, no record data is copied.
+     *
+     * @param ndefMessage NDEF Message as byte array
+     * @param offset      offset of the NDEF message in the array
+     * @param length      length of the NDEF message
+     * @return view over the records of the NDEF message
+     */
+    public NDEFRecordView view(byte[] ndefMessage, int offset, int length) {
+        return new NDEFRecordView(ndefMessage, offset, length);
+    }
+
+    /**
+     * Method is to create a zero-copy view over the records of the NDEF message held by the remaining bytes of the buffer.
+     *
+     * @param ndefMessage buffer holding the NDEF message
+     * @return view over the records of the NDEF message
+     */
+    public NDEFRecordView view(ByteBuffer ndefMessage) {
+        return new NDEFRecordView(ndefMessage);
     }
 
     /**
@@ -75,6 +139,36 @@ public final class NDEFMessageDecoder {
         return decrypt(ndefMessage, 0, ndefMessage.length);
     }
 
+    /**
+     * Method is to create a reader returning the records of the NDEF message one by one while the stream is read
+     *
+     * @param stream stream of data
+     * @return reader of the NDEF records
+     */
+    public NDEFRecordReader reader(InputStream stream) {
+        return new NDEFRecordReader(stream);
+    }
+
+    /**
+     * Method is to create a reader returning the records of the NDEF message one by one while the channel is read
+     *
+     * @param channel channel of data
+     * @return reader of the NDEF records
+     */
+    public NDEFRecordReader reader(ReadableByteChannel channel) {
+        return new NDEFRecordReader(channel);
+    }
+
+    /**
+     * Method is to create a reader to which the NDEF message is appended in parts as it is received.
+     * Records are returned as soon as they are complete.
+     *
+     * @return reader of the NDEF records
+     */
+    public NDEFRecordReader reader() {
+        return new NDEFRecordReader();
+    }
+
     /**
      * Method is to decode the stream of input data of ndef message and return the decoded NDEF Message
      *
@@ -149,14 +243,141 @@ public final class NDEFMessageDecoder {
     }
 
     /**
-     * Method is to take the byte[] array of payload data and decode to a collection of NDEF records
+     * Method is to take the byte[] array of payload data and decode to a collection of NDEF records. Chunked records are joined.
      *
      * @param payload payload byte[] array to be decoded
      * @return The decoded collection of NDEF records
      * @throws NFCException Throws NFC exception if condition not satisfied
      */
     public List<AbstractRecord> decryptToRecords(byte[] payload) throws NFCException {
-        return decryptToRecords(decrypt(payload));
+        return decryptToRecords(decryptReassembled(payload));
+    }
+
+    /**
+     * Method is to decode only the records of the NDEF message accepted by the filter. The filter is evaluated on the
+     * record header and type; the payloads of all other records are skipped without being copied or decoded. With a
+     * {@link RecordTypeFilter} decoding stops as soon as a record has been found for every entry of the filter, the
+     * rest of the NDEF message is not parsed.
+     *
+     * @param ndefMessage NDEF Message as byte array
+     * @param offset      offset of the NDEF message in the array
+     * @param length      length of the NDEF message
+     * @param filter      filter of the wanted records
+     * @return The decoded records accepted by the filter, in message order
+     * @throws NFCException Throws NFC exception if condition not satisfied
+     */
+    public List<AbstractRecord> decryptToRecords(byte[] ndefMessage, int offset, int length, RecordFilter filter)
+            throws NFCException {
+        List<AbstractRecord> records = new ArrayList<>();
+        RecordSelection selection = new RecordSelection(filter);
+        try {
+            NDEFRecordView view = view(ndefMessage, offset, length);
+            NDEFChunkAssembler chunkAssembler = null;
+            while (!selection.isComplete() && view.next()) {
+                if (!selection.select(view.getTnf(), view.getBuffer(), view.getTypeOffset(), view.getTypeLength())) {
+                    while (view.isChunked() && view.next()) {
+                        // skip the remaining chunks of the rejected record
+                    }
+                } else if (view.isChunked()) {
+                    if (chunkAssembler == null) {
+                        chunkAssembler = new NDEFChunkAssembler();
+                    }
+                    NDEFRecord ndefRecord = chunkAssembler.assemble(view);
+                    records.add(lookupDecoder(ndefRecord).decodePayload(ndefRecord.getPayload()));
+                } else {
+                    records.add(lookupDecoder(view).decodePayload(view.getPayload()));
+                }
+            }
+        } catch (NFCException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+        return records;
+    }
+
+    /**
+     * Method is to decode only the records of the NDEF message accepted by the filter
+     *
+     * @param ndefMessage NDEF Message as byte array
+     * @param filter      filter of the wanted records
+     * @return The decoded records accepted by the filter, in message order
+     * @throws NFCException Throws NFC exception if condition not satisfied
+     * @see #decryptToRecords(byte[], int, int, RecordFilter)
+     */
+    public List<AbstractRecord> decryptToRecords(byte[] ndefMessage, RecordFilter filter) throws NFCException {
+        return decryptToRecords(ndefMessage, 0, ndefMessage.length, filter);
+    }
+
+    private static RecordPayloadDecoder lookupDecoder(NDEFRecord record) {
+        RecordPayloadDecoder decoder = RecordUtils.getDecoderTable().lookup(record);
+        if (decoder == null) {
+            throw unsupportedRecord(record.getTnf(), record.getType());
+        }
+        return decoder;
+    }
+
+    private static RecordPayloadDecoder lookupDecoder(NDEFRecordView view) {
+        RecordPayloadDecoder decoder = RecordUtils.getDecoderTable().lookup(view);
+        if (decoder == null) {
+            throw unsupportedRecord(view.getTnf(), view.getType());
+        }
+        return decoder;
+    }
+
+    /**
+     * Method is to create the error of a record type without payload decoder
+     *
+     * @param tnf  Type Name Format of the record
+     * @param type record type
+     * @return exception naming TNF and type of the record
+     */
+    static IllegalArgumentException unsupportedRecord(byte tnf, byte[] type) {
+        return new IllegalArgumentException("Unsupported record [TNF " + tnf + ", type "
+                + new String(type, StandardCharsets.US_ASCII) + "]");
+    }
+
+    /**
+     * Method is to split the NDEF message into lazily decoded records. Type and TNF of each record are available at once,
+     * the payload is decoded into the concrete record only when {@link LazyRecord#getRecord()} is called.
+     * Chunked records are joined. The handles share the payload bytes with the given array, so the array must not
+     * be modified while the handles are in use.
+     *
+     * @param ndefMessage NDEF Message as byte array
+     * @param offset      offset of the NDEF message in the array
+     * @param length      length of the NDEF message
+     * @return The collection of lazily decoded records
+     */
+    public List<LazyRecord> decryptToLazyRecords(byte[] ndefMessage, int offset, int length) {
+        List<LazyRecord> records = new ArrayList<>();
+        try {
+            NDEFRecordView view = view(ndefMessage, offset, length);
+            NDEFChunkAssembler chunkAssembler = null;
+            while (view.next()) {
+                if (view.isChunked() || view.getTnf() == NDEFConstants.TNF_UNCHANGED) {
+                    if (chunkAssembler == null) {
+                        chunkAssembler = new NDEFChunkAssembler();
+                    }
+                    records.add(LazyRecord.of(chunkAssembler.assemble(view)));
+                } else {
+                    records.add(LazyRecord.of(view));
+                }
+            }
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+        return records;
+    }
+
+    /**
+     * Method is to split the NDEF message into lazily decoded records
+     *
+     * @param ndefMessage NDEF Message as byte array
+     * @return The collection of lazily decoded records
+     * @see #decryptToLazyRecords(byte[], int, int)
+     */
+    public List<LazyRecord> decryptToLazyRecords(byte[] ndefMessage) {
+        return decryptToLazyRecords(ndefMessage, 0, ndefMessage.length);
     }
 
     /**
@@ -180,8 +401,9 @@ public final class NDEFMessageDecoder {
     public List<AbstractRecord> decryptToRecords(NDEFMessage ndefMessage) throws NFCException {
         List<AbstractRecord> records = new ArrayList<>();
         List<NDEFRecord> ndefRecords = ndefMessage.getNdefRecords();
+        NDEFRecordDecoder recordDecoder = NDEFRecordDecoder.instance();
         for (NDEFRecord record : ndefRecords) {
-            records.add(new NDEFRecordDecoder().decrypt(record));
+            records.add(recordDecoder.decrypt(record));
         }
         return records;
     }
@@ -19,9 +19,14 @@ package com.infineon.ndef.converter;
 
 import com.infineon.ndef.NDEFRecord;
 import com.infineon.ndef.model.AbstractRecord;
+import com.infineon.ndef.model.encoder.RecordPayloadEncoder;
+import com.infineon.ndef.model.encoder.RecordPayloadWriter;
 import com.infineon.ndef.utils.NDEFConstants;
+import com.infineon.ndef.utils.RecordUtils;
 
 import java.io.ByteArrayOutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.Objects;
@@ -51,7 +56,8 @@ public final class NDEFMessageEncoder {
 
 
     /**
-     * Method to encode the collection of NDEF records and return as raw byte[] array
+     * Method to encode the collection of NDEF records and return as raw byte[] array.
+     * The encoded length is computed first, so every record is written once into an array of the exact size.
      *
      * @param ndefRecords Collection of NDEF records that are to be encoded to raw byte array data
      * @return raw byte[] array data that is encoded
@@ -60,119 +66,141 @@ public final class NDEFMessageEncoder {
         if (ndefRecords == null || ndefRecords.length == 0) {
             throw new IllegalArgumentException("Invalid NDEF record Entry...");
         }
-        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        return encodeExact(ndefRecords);
+    }
+
+    /**
+     * Method to encode the collection of NDEF records into the buffer, starting at its current position.
+     * Nothing is written if the remaining space of the buffer is not sufficient.
+     *
+     * @param destination Buffer receiving the encoded NDEF message
+     * @param ndefRecords Collection of NDEF records that are to be encoded
+     * @return number of bytes written into the buffer
+     * @throws BufferOverflowException if the remaining space of the buffer is less than the encoded length
+     */
+    public int encodeTo(ByteBuffer destination, NDEFRecord... ndefRecords) {
+        if (ndefRecords == null || ndefRecords.length == 0) {
+            throw new IllegalArgumentException("Invalid NDEF record Entry...");
+        }
+        int length = getEncodedLength(ndefRecords);
+        if (destination.remaining() < length) {
+            throw new BufferOverflowException();
+        }
+        writeRecords(destination, ndefRecords);
+        return length;
+    }
+
+    /**
+     * Method to compute the length of the encoded NDEF message, including the SR and IL header decisions
+     *
+     * @param ndefRecords Collection of NDEF records that are to be encoded
+     * @return length of the encoded NDEF message in bytes
+     */
+    public int getEncodedLength(NDEFRecord... ndefRecords) {
+        long length = 0;
+        for (NDEFRecord ndefRecord : ndefRecords) {
+            length += getEncodedLength(ndefRecord);
+        }
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("NDEF message exceeds the maximum length");
+        }
+        return (int) length;
+    }
+
+    /**
+     * Method to compute the length of one encoded record
+     *
+     * @param ndefRecord NDEFRecord Object
+     * @return length of the encoded record in bytes
+     */
+    private long getEncodedLength(NDEFRecord ndefRecord) {
+        int payloadLength = ndefRecord.getPayloadLength();
+        int idLength = ndefRecord.getIdLength();
+        return 2L + (payloadLength <= MAX_LENGTH_FOR_SHORT_RECORD ? 1 : 4) + (idLength > 0 ? 1 : 0)
+                + ndefRecord.getTypeLength() + idLength + payloadLength;
+    }
+
+    /**
+     * Method to encode the records into an array of the exact size
+     *
+     * @param ndefRecords Collection of NDEF records
+     * @return raw byte[] array data that is encoded
+     */
+    private byte[] encodeExact(NDEFRecord[] ndefRecords) {
+        byte[] encoded = new byte[getEncodedLength(ndefRecords)];
+        writeRecords(ByteBuffer.wrap(encoded), ndefRecords);
+        return encoded;
+    }
+
+    /**
+     * Method to write the records with the MB flag on the first and the ME flag on the last record
+     *
+     * @param destination Buffer receiving the encoded records
+     * @param ndefRecords Collection of NDEF records
+     */
+    private void writeRecords(ByteBuffer destination, NDEFRecord[] ndefRecords) {
         byte header = (byte) NDEFConstants.MB;
         for (int i = 0; i < ndefRecords.length; i++) {
-            NDEFRecord tempRecord = ndefRecords[i];
             if (i == ndefRecords.length - 1) {
                 header |= NDEFConstants.ME;
             }
-            assembleRecord(stream, header, tempRecord);
+            assembleRecord(destination, header, ndefRecords[i]);
             header = 0;
         }
-        return stream.toByteArray();
     }
 
  	/**
      * Method to assemble the records
+     * @param destination Buffer receiving the record
      * @param header Header of Record
      * @param tempRecord NDEFRecord Object
      */
-    private void assembleRecord(ByteArrayOutputStream stream, byte header, NDEFRecord tempRecord) {
-        appendHeader(stream, header, tempRecord);
-        stream.write(Objects.requireNonNull(tempRecord.getType()).length);
-        appendPayloadLength(stream, Objects.requireNonNull(tempRecord.getPayload()).length);
-        appendIdLength(stream, Objects.requireNonNull(tempRecord.getId()).length);
-        appendBytes(stream, tempRecord.getType());
-        appendBytes(stream, tempRecord.getId());
-        appendBytes(stream, tempRecord.getPayload());
+    private void assembleRecord(ByteBuffer destination, byte header, NDEFRecord tempRecord) {
+        int payloadLength = tempRecord.getPayloadLength();
+        int idLength = tempRecord.getIdLength();
+        destination.put(buildHeader(header, tempRecord, payloadLength, idLength));
+        destination.put((byte) tempRecord.getTypeLength());
+        appendPayloadLength(destination, payloadLength);
+        if (idLength > 0) {
+            destination.put((byte) idLength);
+        }
+        tempRecord.putType(destination);
+        tempRecord.putId(destination);
+        tempRecord.putPayload(destination);
     }
 
    	/**
-     * Method to append the Record Header
-     * @param header Header byte
+     * Method to build the Record Header with the SR, IL, CF and TNF fields
+     * @param header Header byte with the MB and ME flags
      * @param ndefRecord NDEFRecord Object
+     * @param payloadLength Length of the payload
+     * @param idLength Length of the ID
+     * @return Updated Header
      */
-    private void appendHeader(ByteArrayOutputStream baos, byte header, NDEFRecord ndefRecord) {
-        header = setShortRecord(header, ndefRecord);
-        header = setIdLength(header, ndefRecord);
-        header = setTypeNameFormat(header, ndefRecord);
-        baos.write(header);
-    }
-
-	/**
-     *  Method to set Short Record flag in header
-     *  @param header Header byte
-     *  @param ndefRecord NDEFRecord Object
-     *  @return Updated Header
-     */
-    private byte setShortRecord(byte header, NDEFRecord ndefRecord) {
-        if (Objects.requireNonNull(ndefRecord.getPayload()).length <= MAX_LENGTH_FOR_SHORT_RECORD) {
+    private byte buildHeader(byte header, NDEFRecord ndefRecord, int payloadLength, int idLength) {
+        if (payloadLength <= MAX_LENGTH_FOR_SHORT_RECORD) {
             header |= NDEFConstants.SR;
         }
-        return header;
-    }
-
-
-
-    /**
-     * Method to set the length of the if ID is present
-     * @param header Header byte
-     * @param ndefRecord NDEFRecord Object
-     * @return Updated Header
-     */
-    private byte setIdLength(byte header, NDEFRecord ndefRecord) {
-        if (ndefRecord.getId() != null && ndefRecord.getId().length > 0) {
+        if (idLength > 0) {
             header |= NDEFConstants.IL;
         }
-        return header;
-    }
-
- 	/**
-     * Method to set Type Name Format header
-     * @param header byte
-     * @param ndefRecord Object
-     * @return Updated Header
-     */
-    private byte setTypeNameFormat(byte header, NDEFRecord ndefRecord) {
+        if (ndefRecord.isChunked()) {
+            header |= NDEFConstants.CF;
+        }
         header |= ndefRecord.getTnf();
         return header;
     }
 
-	/**
-     * Method to append the byte array to payload byte stream
-     * @param baos Payload byte stream
-     * @param bytes Byte array to be append
-     */
-    private void appendBytes(ByteArrayOutputStream baos, byte[] bytes) {
-        baos.write(bytes, 0, bytes.length);
-    }
-
- 	/**
-     * Method to append the length of the ID field
-     * @param baos Payload byte stream
-     * @param length Length byte
-     */
-    private void appendIdLength(ByteArrayOutputStream baos, int length) {
-        if (length > 0)
-            baos.write(length);
-    }
-
  	/**
      * Appends the payload length
-     * @param baos Payload byte stream
+     * @param destination Buffer receiving the record
      * @param length: Payload length
      */
-    private void appendPayloadLength(ByteArrayOutputStream baos, int length) {
+    private void appendPayloadLength(ByteBuffer destination, int length) {
         if (length <= MAX_LENGTH_FOR_SHORT_RECORD) {
-            baos.write(length);
+            destination.put((byte) length);
         } else {
-            byte[] payloadLengthArray = new byte[4];
-            payloadLengthArray[0] = (byte) (length >>> 24);
-            payloadLengthArray[1] = (byte) (length >>> 16);
-            payloadLengthArray[2] = (byte) (length >>> 8);
-            payloadLengthArray[3] = (byte) (length & 0xff);
-            baos.write(payloadLengthArray, 0, payloadLengthArray.length);
+            destination.putInt(length);
         }
     }
 
@@ -193,10 +221,9 @@ public final class NDEFMessageEncoder {
      * @return encoded raw bytes[] array data
      */
     public byte[] encrypt(Iterable<? extends AbstractRecord> records) {
-
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        encrypt(records, baos);
-        return baos.toByteArray();
+        NDEFOutputBuffer buffer = new NDEFOutputBuffer();
+        encodeTo(buffer, records);
+        return buffer.toByteArray();
     }
 
     /**
@@ -206,17 +233,76 @@ public final class NDEFMessageEncoder {
      * @param baos    Byte Array Output Stream to assemble the record
      */
     public void encrypt(Iterable<? extends AbstractRecord> records, ByteArrayOutputStream baos) {
+        NDEFOutputBuffer buffer = new NDEFOutputBuffer();
+        encodeTo(buffer, records);
+        buffer.writeTo(baos);
+    }
+
+    /**
+     * Method is to encode the abstract records directly into the output buffer. The payload encoders write each payload
+     * in place and the payload length of the record header is patched afterwards, so no intermediate NDEF record or
+     * payload array is created.
+     *
+     * @param buffer  output buffer receiving the NDEF message
+     * @param records collection of abstract records that are to be encoded
+     */
+    public void encodeTo(NDEFOutputBuffer buffer, Iterable<? extends AbstractRecord> records) {
         byte header = (byte) NDEFConstants.MB;
         for (Iterator<? extends AbstractRecord> it = records.iterator(); it.hasNext(); ) {
             AbstractRecord record = it.next();
             header = setMessageEndIfLastRecord(it, header);
+            writeRecord(buffer, header, record);
+            header = 0;
+        }
+    }
 
+    /**
+     * Method is to write one abstract record into the output buffer. The record header is written with a short record
+     * payload length, which is widened to four bytes if the written payload exceeds 255 bytes.
+     *
+     * @param buffer output buffer receiving the record
+     * @param header Header byte with the MB and ME flags
+     * @param record abstract record to be encoded
+     */
+    private void writeRecord(NDEFOutputBuffer buffer, byte header, AbstractRecord record) {
+        RecordPayloadEncoder payloadEncoder = RecordUtils.getPayloadEncoder(record.getClass());
+        if (!(payloadEncoder instanceof RecordPayloadWriter)) {
             NDEFRecord ndefRecord = NDEFRecordEncoder.instance().encrypt(record);
+            assembleRecord(buffer.reserve((int) getEncodedLength(ndefRecord)), header, ndefRecord);
+            return;
+        }
+        byte[] id = record.getId();
+        if (id != null && id.length > 255) {
+            throw new IllegalArgumentException("Expected record id length <= 255 bytes");
+        }
+        Objects.requireNonNull(id);
+        byte[] type = record.getRecordType().getType();
 
-            assembleRecord(baos, header, ndefRecord);
-            header = 0;
+        int headerIndex = buffer.position();
+        header |= NDEFConstants.SR | NDEFConstants.TNF_WELL_KNOWN;
+        if (id.length > 0) {
+            header |= NDEFConstants.IL;
+        }
+        buffer.put(header);
+        buffer.put((byte) type.length);
+        int payloadLengthIndex = buffer.position();
+        buffer.put((byte) 0);
+        if (id.length > 0) {
+            buffer.put((byte) id.length);
         }
+        buffer.put(type);
+        buffer.put(id);
 
+        int payloadIndex = buffer.position();
+        ((RecordPayloadWriter) payloadEncoder).writePayload(record, buffer);
+        int payloadLength = buffer.position() - payloadIndex;
+        if (payloadLength <= MAX_LENGTH_FOR_SHORT_RECORD) {
+            buffer.putAt(payloadLengthIndex, (byte) payloadLength);
+        } else {
+            buffer.insert(payloadLengthIndex + 1, 3);
+            buffer.putAt(headerIndex, (byte) (header & ~NDEFConstants.SR));
+            buffer.putIntAt(payloadLengthIndex, payloadLength);
+        }
     }
 
     /**
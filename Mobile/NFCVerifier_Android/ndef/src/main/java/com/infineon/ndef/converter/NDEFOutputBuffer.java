@@ -0,0 +1,288 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.ndef.converter;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Growable output buffer the NDEF message is encoded into. Record payloads are written directly into the buffer and
+ * already written bytes, such as the payload length of a record header, can be patched afterwards.
+ *
+ * @author Infineon Technologies
+ */
+public final class NDEFOutputBuffer {
+
+    /**
+     * Default initial capacity, sufficient for typical NDEF messages of a tag
+     */
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private byte[] buffer;
+    private int position;
+
+    /**
+     * Creates a buffer with the default initial capacity
+     */
+    public NDEFOutputBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a buffer
+     *
+     * @param initialCapacity initial capacity in bytes
+     */
+    public NDEFOutputBuffer(int initialCapacity) {
+        buffer = new byte[Math.max(initialCapacity, 16)];
+    }
+
+    /**
+     * Method returns the number of bytes written so far, which is also the index of the next byte
+     *
+     * @return current write position
+     */
+    public int position() {
+        return position;
+    }
+
+    /**
+     * Method is to discard the content of the buffer, keeping its capacity
+     */
+    public void reset() {
+        position = 0;
+    }
+
+    /**
+     * Method is to append one byte
+     *
+     * @param value byte to be appended
+     */
+    public void put(byte value) {
+        ensureCapacity(1);
+        buffer[position++] = value;
+    }
+
+    /**
+     * Method is to append the bytes of the array
+     *
+     * @param bytes bytes to be appended
+     */
+    public void put(byte[] bytes) {
+        put(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Method is to append a range of the array
+     *
+     * @param bytes  source array
+     * @param offset offset in the source array
+     * @param length number of bytes
+     */
+    public void put(byte[] bytes, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(bytes, offset, buffer, position, length);
+        position += length;
+    }
+
+    /**
+     * Method is to append an integer in big endian byte order
+     *
+     * @param value integer to be appended
+     */
+    public void putInt(int value) {
+        ensureCapacity(4);
+        writeInt(position, value);
+        position += 4;
+    }
+
+    /**
+     * Method is to overwrite one already written byte
+     *
+     * @param index index of the byte
+     * @param value new value
+     */
+    public void putAt(int index, byte value) {
+        checkIndex(index, 1);
+        buffer[index] = value;
+    }
+
+    /**
+     * Method is to overwrite four already written bytes with an integer in big endian byte order
+     *
+     * @param index index of the first byte
+     * @param value new value
+     */
+    public void putIntAt(int index, int value) {
+        checkIndex(index, 4);
+        writeInt(index, value);
+    }
+
+    private void writeInt(int index, int value) {
+        buffer[index] = (byte) (value >>> 24);
+        buffer[index + 1] = (byte) (value >>> 16);
+        buffer[index + 2] = (byte) (value >>> 8);
+        buffer[index + 3] = (byte) value;
+    }
+
+    /**
+     * Method is to append a string in the given character set. UTF-8, UTF-16BE and US-ASCII are encoded directly into
+     * the buffer; the result is identical to {@link String#getBytes(Charset)}.
+     *
+     * @param value   string to be appended
+     * @param charset character set of the encoding
+     */
+    public void putString(String value, Charset charset) {
+        int length = value.length();
+        if (StandardCharsets.UTF_8.equals(charset) && putUtf8(value)) {
+            return;
+        }
+        if (StandardCharsets.UTF_16BE.equals(charset) && !containsSurrogate(value)) {
+            ensureCapacity(length * 2);
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                buffer[position++] = (byte) (c >>> 8);
+                buffer[position++] = (byte) c;
+            }
+            return;
+        }
+        if (StandardCharsets.US_ASCII.equals(charset) && isAscii(value)) {
+            ensureCapacity(length);
+            for (int i = 0; i < length; i++) {
+                buffer[position++] = (byte) value.charAt(i);
+            }
+            return;
+        }
+        put(value.getBytes(charset));
+    }
+
+    /**
+     * Method is to reserve the given number of bytes and return a buffer to write them. The write position is moved
+     * behind the reserved bytes.
+     *
+     * @param length number of bytes to be reserved
+     * @return buffer sharing the reserved bytes, positioned at the first reserved byte
+     */
+    public ByteBuffer reserve(int length) {
+        ensureCapacity(length);
+        ByteBuffer reserved = ByteBuffer.wrap(buffer, position, length);
+        position += length;
+        return reserved;
+    }
+
+    /**
+     * Method is to open a gap of the given length at the index, moving the following bytes back
+     *
+     * @param index  index of the gap
+     * @param length length of the gap
+     */
+    void insert(int index, int length) {
+        checkIndex(index, 0);
+        ensureCapacity(length);
+        System.arraycopy(buffer, index, buffer, index + length, position - index);
+        position += length;
+    }
+
+    /**
+     * Method returns a copy of the written bytes
+     *
+     * @return the written bytes
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    /**
+     * Method is to write the written bytes to the stream
+     *
+     * @param stream stream receiving the bytes
+     */
+    public void writeTo(ByteArrayOutputStream stream) {
+        stream.write(buffer, 0, position);
+    }
+
+    /**
+     * Encodes the string as UTF-8 into the buffer
+     *
+     * @param value string to be appended
+     * @return false if the string contains surrogates and has not been written
+     */
+    private boolean putUtf8(String value) {
+        int length = value.length();
+        int encodedLength = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                encodedLength++;
+            } else if (c < 0x800) {
+                encodedLength += 2;
+            } else if (Character.isSurrogate(c)) {
+                return false;
+            } else {
+                encodedLength += 3;
+            }
+        }
+        ensureCapacity(encodedLength);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer[position++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | (c >> 6));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            } else {
+                buffer[position++] = (byte) (0xE0 | (c >> 12));
+                buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return true;
+    }
+
+    private static boolean containsSurrogate(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (Character.isSurrogate(value.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void checkIndex(int index, int length) {
+        if (index < 0 || index + length > position) {
+            throw new IndexOutOfBoundsException("Index " + index + " exceeds the written data");
+        }
+    }
+
+    private void ensureCapacity(int length) {
+        if (buffer.length - position < length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + length));
+        }
+    }
+}
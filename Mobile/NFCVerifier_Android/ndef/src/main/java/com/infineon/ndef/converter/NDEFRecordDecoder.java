@@ -30,6 +30,11 @@ import com.infineon.ndef.model.decoder.RecordDecoder;
  */
 public class NDEFRecordDecoder {
 
+    /**
+     * The record decoder is stateless and shared by all instances
+     */
+    private static final RecordDecoder RECORD_DECODER = new RecordDecoder();
+
     public static NDEFRecordDecoder instance() {
         return new NDEFRecordDecoder();
     }
@@ -42,11 +47,6 @@ public class NDEFRecordDecoder {
      * @throws NFCException Throws NFC exception if condition not satisfied
      */
     public AbstractRecord decrypt(NDEFRecord record) throws NFCException {
-        RecordDecoder decoder = new RecordDecoder();
-        if (decoder.canDecodeRecord(record)) {
-            return decoder.decodeRecord(record);
-        }
-        throw new IllegalArgumentException(
-                "Unsupported record [" + record.getClass().getName() + "]");
+        return RECORD_DECODER.decodeRecord(record);
     }
 }
@@ -0,0 +1,578 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.ndef.converter;
+
+import com.infineon.ndef.NDEFRecord;
+import com.infineon.ndef.utils.NDEFConstants;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Pull-style decoder returning the records of an NDEF message one by one, as soon as the bytes of a record are available.
+ * <br>
+ * <br>
+ * The reader works in one of two modes:
+ * <ul>
+ * <li>Stream mode: created with an {@link InputStream} or {@link ReadableByteChannel}, {@link #hasNext()} blocks until
+ * the next record has been read completely or the end of the stream is reached.</li>
+ * <li>Push mode: created without a source, the data is handed over with {@link #append(byte[], int, int)} as it arrives,
+ * e.g. per READ BINARY response. {@link #hasNext()} never blocks and returns false until the next record is complete.</li>
+ * </ul>
+ * Reading stops after the record with the ME flag; any following bytes are ignored. With a {@link RecordFilter} set,
+ * only the accepted records are returned; the bytes of all other records are skipped without being buffered in push
+ * mode, and reading stops early once a {@link RecordTypeFilter} is satisfied.
+ * <br>
+ * <br>
+ * Chunked records are returned as one record with the joined payload, like {@link NDEFChunkAssembler} does. The chunks
+ * stay in the buffer until the last one is complete, then their payloads are copied once into an array of the joined
+ * length. The payload of every returned record, chunked or not, is limited to
+ * {@link NDEFChunkAssembler#DEFAULT_MAX_PAYLOAD_LENGTH} unless set otherwise with {@link #setMaxPayloadLength(int)}.
+ *
+ * @author Infineon Technologies
+ */
+public final class NDEFRecordReader implements Iterator<NDEFRecord> {
+
+    /**
+     * Initial size of the internal buffer, sufficient for a typical NDEF file read with a single READ BINARY
+     */
+    private static final int INITIAL_CAPACITY = 256;
+
+    /**
+     * Source of the data in stream mode, null in push mode
+     */
+    private final InputStream stream;
+
+    /**
+     * Bytes received but not decoded yet, between readPosition and writePosition
+     */
+    private byte[] buffer = new byte[INITIAL_CAPACITY];
+    private ByteBuffer bufferView = ByteBuffer.wrap(buffer);
+    private int readPosition;
+    private int writePosition;
+
+    /**
+     * Record decoded by hasNext() and not yet returned by next()
+     */
+    private NDEFRecord pendingRecord;
+
+    private boolean firstRecord = true;
+    private boolean messageEnd;
+    private boolean endOfInput;
+
+    /**
+     * Selection of the wanted records, null if all records are returned
+     */
+    private RecordSelection selection;
+
+    /**
+     * Number of bytes of a rejected record still to be skipped
+     */
+    private long skipRemaining;
+
+    /**
+     * True if the record at the read position has already been accepted by the filter
+     */
+    private boolean recordSelected;
+
+    /**
+     * True while the following chunks belong to an accepted chunked record
+     */
+    private boolean acceptingChunks;
+
+    /**
+     * Maximum size of the payload of a returned record
+     */
+    private int maxPayloadLength = NDEFChunkAssembler.DEFAULT_MAX_PAYLOAD_LENGTH;
+
+    /**
+     * Chunked record being reassembled: number of chunks read so far, their length in the buffer starting at the read
+     * position and their summed payload length
+     */
+    private int chunkCount;
+    private int chunksLength;
+    private int chunkedPayloadLength;
+
+    /**
+     * Creates a reader in push mode. The data of the NDEF message has to be passed with
+     * {@link #append(byte[], int, int)}.
+     */
+    public NDEFRecordReader() {
+        this.stream = null;
+    }
+
+    /**
+     * Creates a reader decoding the records from the input stream.
+     *
+     * @param stream stream of the NDEF message
+     */
+    public NDEFRecordReader(InputStream stream) {
+        if (stream == null) {
+            throw new IllegalArgumentException("Stream must not be null");
+        }
+        this.stream = stream;
+    }
+
+    /**
+     * Creates a reader decoding the records from the channel.
+     *
+     * @param channel channel of the NDEF message
+     */
+    public NDEFRecordReader(ReadableByteChannel channel) {
+        this(Channels.newInputStream(channel));
+    }
+
+    /**
+     * Method is to set the filter of the wanted records. It has to be set before the first record is read.
+     *
+     * @param filter filter of the wanted records
+     * @return this reader
+     */
+    public NDEFRecordReader setFilter(RecordFilter filter) {
+        if (!firstRecord || pendingRecord != null) {
+            throw new IllegalStateException("Filter has to be set before the first record is read");
+        }
+        this.selection = filter == null ? null : new RecordSelection(filter);
+        return this;
+    }
+
+    /**
+     * Method is to set the maximum size of the payload of a returned record. It applies to the joined payload of
+     * chunked records as well and has to be set before the first record is read.
+     *
+     * @param maxPayloadLength maximum payload size in bytes
+     * @return this reader
+     */
+    public NDEFRecordReader setMaxPayloadLength(int maxPayloadLength) {
+        if (maxPayloadLength < 0) {
+            throw new IllegalArgumentException("Maximum payload length must not be negative");
+        }
+        if (!firstRecord || pendingRecord != null) {
+            throw new IllegalStateException("Maximum payload length has to be set before the first record is read");
+        }
+        this.maxPayloadLength = maxPayloadLength;
+        return this;
+    }
+
+    /**
+     * Method is to pass the next part of the NDEF message to a reader in push mode
+     *
+     * @param data   bytes of the NDEF message
+     * @param offset offset of the bytes in the array
+     * @param length number of bytes
+     */
+    public void append(byte[] data, int offset, int length) {
+        if (stream != null) {
+            throw new IllegalStateException("Data can only be appended to a reader in push mode");
+        }
+        if (endOfInput) {
+            throw new IllegalStateException("End of input has already been signalled");
+        }
+        if (isStopped()) {
+            return;
+        }
+        if (skipRemaining > 0 && readPosition == writePosition) {
+            int skipped = (int) Math.min(skipRemaining, length);
+            skipRemaining -= skipped;
+            offset += skipped;
+            length -= skipped;
+        }
+        ensureCapacity(length);
+        System.arraycopy(data, offset, buffer, writePosition, length);
+        writePosition += length;
+    }
+
+    /**
+     * Method is to signal a reader in push mode that no more data will be appended.
+     * Afterwards {@link #hasNext()} reports an incomplete last record or a missing ME record.
+     */
+    public void endOfInput() {
+        endOfInput = true;
+    }
+
+    /**
+     * Method returns true once the record with the ME flag has been decoded
+     *
+     * @return true if the complete NDEF message has been decoded
+     */
+    public boolean isMessageComplete() {
+        return messageEnd && pendingRecord == null;
+    }
+
+    /**
+     * Method returns true once a record has been returned for every entry of the {@link RecordTypeFilter} set with
+     * {@link #setFilter(RecordFilter)}. The rest of the NDEF message is not needed anymore.
+     *
+     * @return true if all wanted records have been decoded
+     */
+    public boolean isSelectionComplete() {
+        return isSelectionDone() && pendingRecord == null;
+    }
+
+    /**
+     * Method returns true if the next record is available. In stream mode the method blocks until the record is read;
+     * in push mode it returns false if the record is not complete yet.
+     *
+     * @return true if {@link #next()} returns a record
+     * @throws RuntimeException if the stream fails or the NDEF message is malformed
+     */
+    @Override
+    public boolean hasNext() {
+        if (pendingRecord != null) {
+            return true;
+        }
+        if (isStopped()) {
+            return false;
+        }
+        try {
+            pendingRecord = decodeRecord();
+            while (pendingRecord == null && stream != null && !endOfInput && !isStopped()) {
+                fill();
+                pendingRecord = decodeRecord();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        if (pendingRecord == null && endOfInput && !isStopped()) {
+            if (writePosition > readPosition + chunksLength || skipRemaining > 0) {
+                throw new RuntimeException(new IllegalArgumentException("Truncated record in the NDEF Message"));
+            }
+            if (chunkCount > 0) {
+                throw new RuntimeException(new IllegalArgumentException(
+                        "Incomplete chunked record in the NDEF Message"));
+            }
+            if (!firstRecord) {
+                throw new RuntimeException(new IllegalArgumentException(
+                        "Missing Message End record in the NDEF Message"));
+            }
+        }
+        return pendingRecord != null;
+    }
+
+    /**
+     * Method is to return the next record of the NDEF message
+     *
+     * @return the next NDEF record
+     * @throws NoSuchElementException if no complete record is available
+     */
+    @Override
+    public NDEFRecord next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        NDEFRecord record = pendingRecord;
+        pendingRecord = null;
+        return record;
+    }
+
+    /**
+     * Records can not be removed from an NDEF message being read
+     */
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Decodes the record at the read position if all its bytes are available. The chunks of a chunked record are
+     * joined before the record is returned.
+     *
+     * @return the record or null if more data is required
+     */
+    private NDEFRecord decodeRecord() {
+        while (skipRecord()) {
+            int position = readPosition;
+            NDEFRecord record = readRecord();
+            if (record != null) {
+                return record;
+            } else if (skipRemaining == 0 && readPosition == position) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Discards the buffered bytes of a rejected record
+     *
+     * @return true if the next record can be read, false if more data is required or reading has stopped
+     */
+    private boolean skipRecord() {
+        int skipped = (int) Math.min(skipRemaining, writePosition - readPosition);
+        readPosition += skipped;
+        skipRemaining -= skipped;
+        return skipRemaining == 0 && !isStopped();
+    }
+
+    /**
+     * Decodes or skips the record at the read position if the required bytes are available. The chunks of a chunked
+     * record are validated as they arrive and left in the buffer until the last chunk is complete.
+     *
+     * @return the record or null if more data is required or the record has been skipped
+     */
+    private NDEFRecord readRecord() {
+        while (true) {
+            int start = readPosition + chunksLength;
+            int available = writePosition - start;
+            if (available < 2) {
+                return null;
+            }
+            int header = buffer[start] & 0xFF;
+            boolean shortRecord = (header & NDEFConstants.SR) != 0;
+            boolean idLengthPresent = (header & NDEFConstants.IL) != 0;
+            int headerLength = 2 + (shortRecord ? 1 : 4) + (idLengthPresent ? 1 : 0);
+            if (available < headerLength) {
+                return null;
+            }
+            int position = start + 1;
+            int typeLength = buffer[position++] & 0xFF;
+            int payloadLength;
+            if (shortRecord) {
+                payloadLength = buffer[position++] & 0xFF;
+            } else {
+                payloadLength = ((buffer[position] & 0xFF) << 24) | ((buffer[position + 1] & 0xFF) << 16)
+                        | ((buffer[position + 2] & 0xFF) << 8) | (buffer[position + 3] & 0xFF);
+                position += 4;
+                if (payloadLength < 0) {
+                    throw new RuntimeException(new IllegalArgumentException("Unsupported NDEF record payload length"));
+                }
+            }
+            int idLength = idLengthPresent ? buffer[position++] & 0xFF : 0;
+            long recordLength = (long) headerLength + typeLength + idLength + payloadLength;
+            if (selection != null && !recordSelected) {
+                if (available < headerLength + typeLength) {
+                    return null;
+                }
+                checkMessageBegin(header);
+                if (!select(header, position, typeLength)) {
+                    firstRecord = false;
+                    messageEnd = (header & NDEFConstants.ME) != 0;
+                    skipRemaining = recordLength;
+                    return null;
+                }
+                recordSelected = true;
+            }
+            byte tnf = (byte) (header & NDEFConstants.TNF_MASK);
+            if (chunkCount == 0 && tnf == NDEFConstants.TNF_UNCHANGED) {
+                throw new RuntimeException(new IllegalArgumentException("Unexpected record chunk in the NDEF Message"));
+            }
+            if (chunkCount > 0 && (tnf != NDEFConstants.TNF_UNCHANGED || typeLength != 0 || idLength != 0)) {
+                throw new RuntimeException(new IllegalArgumentException("Malformed record chunk in the NDEF Message"));
+            }
+            checkPayloadLength((long) chunkedPayloadLength + payloadLength);
+            if (available < recordLength) {
+                return null;
+            }
+            checkMessageBegin(header);
+
+            recordSelected = false;
+            firstRecord = false;
+            messageEnd = (header & NDEFConstants.ME) != 0;
+            if ((header & NDEFConstants.CF) != 0) {
+                if (messageEnd) {
+                    throw new RuntimeException(new IllegalArgumentException(
+                            "Incomplete chunked record in the NDEF Message"));
+                }
+                chunkCount++;
+                chunksLength += (int) recordLength;
+                chunkedPayloadLength += payloadLength;
+                continue;
+            }
+            if (chunkCount > 0) {
+                return joinChunks(start + (int) recordLength, chunkedPayloadLength + payloadLength);
+            }
+
+            byte[] type = Arrays.copyOfRange(buffer, position, position + typeLength);
+            position += typeLength;
+            byte[] id = Arrays.copyOfRange(buffer, position, position + idLength);
+            position += idLength;
+            byte[] payload = Arrays.copyOfRange(buffer, position, position + payloadLength);
+            readPosition = position + payloadLength;
+            return new NDEFRecord(tnf, type, id, payload);
+        }
+    }
+
+    /**
+     * Copies the payloads of the buffered chunks into one array and consumes the chunks
+     *
+     * @param end           index behind the last chunk in the buffer
+     * @param payloadLength joined payload length
+     * @return the joined record with type and ID of the first chunk
+     */
+    private NDEFRecord joinChunks(int end, int payloadLength) {
+        byte tnf = (byte) (buffer[readPosition] & NDEFConstants.TNF_MASK);
+        int typeOffset = typeOffset(readPosition);
+        int idOffset = typeOffset + (buffer[readPosition + 1] & 0xFF);
+        byte[] type = Arrays.copyOfRange(buffer, typeOffset, idOffset);
+        byte[] id = Arrays.copyOfRange(buffer, idOffset, idOffset + idLength(readPosition));
+
+        byte[] payload = new byte[payloadLength];
+        int copied = 0;
+        int position = readPosition;
+        while (position < end) {
+            int chunkPayloadOffset = typeOffset(position) + (buffer[position + 1] & 0xFF) + idLength(position);
+            int chunkPayloadLength = payloadLength(position);
+            System.arraycopy(buffer, chunkPayloadOffset, payload, copied, chunkPayloadLength);
+            copied += chunkPayloadLength;
+            position = chunkPayloadOffset + chunkPayloadLength;
+        }
+        readPosition = end;
+        chunkCount = 0;
+        chunksLength = 0;
+        chunkedPayloadLength = 0;
+        return new NDEFRecord(tnf, type, id, payload);
+    }
+
+    /**
+     * Returns the index of the type of a buffered record, behind the length fields
+     *
+     * @param start index of the record header in the buffer
+     * @return index of the record type
+     */
+    private int typeOffset(int start) {
+        int header = buffer[start] & 0xFF;
+        return start + 2 + ((header & NDEFConstants.SR) != 0 ? 1 : 4) + ((header & NDEFConstants.IL) != 0 ? 1 : 0);
+    }
+
+    /**
+     * Returns the ID length of a buffered record
+     *
+     * @param start index of the record header in the buffer
+     * @return length of the record ID
+     */
+    private int idLength(int start) {
+        return (buffer[start] & NDEFConstants.IL) != 0 ? buffer[typeOffset(start) - 1] & 0xFF : 0;
+    }
+
+    /**
+     * Returns the payload length of a buffered record
+     *
+     * @param start index of the record header in the buffer
+     * @return length of the record payload
+     */
+    private int payloadLength(int start) {
+        if ((buffer[start] & NDEFConstants.SR) != 0) {
+            return buffer[start + 2] & 0xFF;
+        }
+        return ((buffer[start + 2] & 0xFF) << 24) | ((buffer[start + 3] & 0xFF) << 16)
+                | ((buffer[start + 4] & 0xFF) << 8) | (buffer[start + 5] & 0xFF);
+    }
+
+    /**
+     * Checks the payload length of a returned record against the maximum, before its bytes are buffered
+     *
+     * @param payloadLength length of the payload, of all chunks read so far for a chunked record
+     */
+    private void checkPayloadLength(long payloadLength) {
+        if (payloadLength > maxPayloadLength) {
+            throw new RuntimeException(new IllegalArgumentException("Record payload exceeds the maximum length of "
+                    + maxPayloadLength + " bytes"));
+        }
+    }
+
+    /**
+     * Checks the MB flag of the first record
+     *
+     * @param header header byte of the record
+     */
+    private void checkMessageBegin(int header) {
+        if (firstRecord && (header & NDEFConstants.MB) == 0) {
+            throw new RuntimeException(new IllegalArgumentException(
+                    "Missing Message Begin record in the NDEF Message"));
+        }
+    }
+
+    /**
+     * Applies the filter to the record. Following chunks of a chunked record share the decision of its first chunk.
+     *
+     * @param header     header byte of the record
+     * @param typeOffset index of the record type in the buffer
+     * @param typeLength length of the record type
+     * @return true if the record is wanted
+     */
+    private boolean select(int header, int typeOffset, int typeLength) {
+        byte tnf = (byte) (header & NDEFConstants.TNF_MASK);
+        if (acceptingChunks && tnf != NDEFConstants.TNF_UNCHANGED) {
+            throw new RuntimeException(new IllegalArgumentException("Malformed record chunk in the NDEF Message"));
+        }
+        boolean wanted = tnf == NDEFConstants.TNF_UNCHANGED ? acceptingChunks
+                : selection.select(tnf, bufferView, typeOffset, typeLength);
+        acceptingChunks = wanted && (header & NDEFConstants.CF) != 0;
+        return wanted;
+    }
+
+    /**
+     * Method returns true if all wanted records have been read, including all chunks of the last one
+     *
+     * @return true if the filter is satisfied
+     */
+    private boolean isSelectionDone() {
+        return selection != null && selection.isComplete() && !recordSelected && !acceptingChunks
+                && chunkCount == 0;
+    }
+
+    /**
+     * Method returns true if no further record will be read
+     *
+     * @return true after the ME record or once the filter is satisfied
+     */
+    private boolean isStopped() {
+        return messageEnd || isSelectionDone();
+    }
+
+    /**
+     * Reads the next block of data from the stream into the buffer
+     *
+     * @throws IOException if the stream fails
+     */
+    private void fill() throws IOException {
+        ensureCapacity(1);
+        int read = stream.read(buffer, writePosition, buffer.length - writePosition);
+        if (read < 0) {
+            endOfInput = true;
+        } else {
+            writePosition += read;
+        }
+    }
+
+    /**
+     * Makes room for the given number of bytes after the write position, discarding already decoded data first
+     *
+     * @param length number of bytes to be written
+     */
+    private void ensureCapacity(int length) {
+        if (buffer.length - writePosition >= length) {
+            return;
+        }
+        int pending = writePosition - readPosition;
+        if (buffer.length - pending < length) {
+            buffer = Arrays.copyOfRange(buffer, readPosition,
+                    Math.max(buffer.length * 2, pending + length));
+            bufferView = ByteBuffer.wrap(buffer);
+        } else {
+            System.arraycopy(buffer, readPosition, buffer, 0, pending);
+        }
+        readPosition = 0;
+        writePosition = pending;
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.ndef.converter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Predicate selecting NDEF records by TNF and type before their payload is read. The type is passed as a range of the
+ * buffer holding the NDEF message, so the filter is evaluated without copying the type.
+ *
+ * @author Infineon Technologies
+ */
+public interface RecordFilter {
+
+    /**
+     * Method to check if the record is wanted
+     *
+     * @param tnf        Type Name Format of the record
+     * @param buffer     buffer holding the record
+     * @param typeOffset absolute index of the record type in the buffer
+     * @param typeLength length of the record type
+     * @return true if the record shall be decoded, false if it shall be skipped
+     */
+    boolean accept(byte tnf, ByteBuffer buffer, int typeOffset, int typeLength);
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.ndef.converter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Tracks the records selected by a filter while one NDEF message is decoded. For a {@link RecordTypeFilter} the
+ * selection is complete once a record has been found for every entry.
+ *
+ * @author Infineon Technologies
+ */
+final class RecordSelection {
+
+    private final RecordFilter filter;
+    private final boolean[] found;
+    private int remaining;
+
+    /**
+     * Creates the selection state of one decode run
+     *
+     * @param filter filter of the wanted records
+     */
+    RecordSelection(RecordFilter filter) {
+        this.filter = filter;
+        if (filter instanceof RecordTypeFilter) {
+            found = new boolean[((RecordTypeFilter) filter).size()];
+            remaining = found.length;
+        } else {
+            found = null;
+            remaining = -1;
+        }
+    }
+
+    /**
+     * Method to check if the record is wanted and to record the match
+     *
+     * @param tnf        Type Name Format of the record
+     * @param buffer     buffer holding the record
+     * @param typeOffset absolute index of the record type in the buffer
+     * @param typeLength length of the record type
+     * @return true if the record shall be decoded
+     */
+    boolean select(byte tnf, ByteBuffer buffer, int typeOffset, int typeLength) {
+        if (found == null) {
+            return filter.accept(tnf, buffer, typeOffset, typeLength);
+        }
+        int index = ((RecordTypeFilter) filter).indexOf(tnf, buffer, typeOffset, typeLength);
+        if (index < 0) {
+            return false;
+        }
+        if (!found[index]) {
+            found[index] = true;
+            remaining--;
+        }
+        return true;
+    }
+
+    /**
+     * Method returns true once all wanted records have been found
+     *
+     * @return true if decoding can stop
+     */
+    boolean isComplete() {
+        return remaining == 0;
+    }
+}
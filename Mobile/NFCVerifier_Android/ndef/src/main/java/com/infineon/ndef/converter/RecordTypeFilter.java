@@ -0,0 +1,151 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.ndef.converter;
+
+import com.infineon.ndef.utils.NDEFConstants;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Immutable set of the wanted TNF and record type pairs. An entry without a type accepts every record of its TNF.
+ * <br>
+ * <br>
+ * Decoding with this filter stops as soon as a record has been found for every entry, so the remaining records of
+ * the NDEF message are neither read nor validated.
+ *
+ * @author Infineon Technologies
+ */
+public final class RecordTypeFilter implements RecordFilter {
+
+    private final byte[] tnfs;
+
+    /**
+     * Wanted record types, a null entry accepts any type of the TNF
+     */
+    private final byte[][] types;
+
+    private RecordTypeFilter(byte[] tnfs, byte[][] types) {
+        this.tnfs = tnfs;
+        this.types = types;
+    }
+
+    /**
+     * Method is to create a filter for one record type
+     *
+     * @param tnf  Type Name Format of the record
+     * @param type record type e.g. "U"
+     * @return the filter
+     */
+    public static RecordTypeFilter of(byte tnf, String type) {
+        return new RecordTypeFilter(new byte[0], new byte[0][]).with(tnf, type);
+    }
+
+    /**
+     * Method is to create a filter for any record type of the TNF
+     *
+     * @param tnf Type Name Format of the record
+     * @return the filter
+     */
+    public static RecordTypeFilter ofTnf(byte tnf) {
+        return new RecordTypeFilter(new byte[0], new byte[0][]).withTnf(tnf);
+    }
+
+    /**
+     * Method is to create a filter additionally accepting the record type
+     *
+     * @param tnf  Type Name Format of the record
+     * @param type record type e.g. "U"
+     * @return new filter with the additional entry
+     */
+    public RecordTypeFilter with(byte tnf, String type) {
+        return with(tnf, type.getBytes(NDEFConstants.DEFAULT_CHARSET));
+    }
+
+    /**
+     * Method is to create a filter additionally accepting the record type
+     *
+     * @param tnf  Type Name Format of the record
+     * @param type record type
+     * @return new filter with the additional entry
+     */
+    public RecordTypeFilter with(byte tnf, byte[] type) {
+        return add(tnf, type.clone());
+    }
+
+    /**
+     * Method is to create a filter additionally accepting any record type of the TNF
+     *
+     * @param tnf Type Name Format of the record
+     * @return new filter with the additional entry
+     */
+    public RecordTypeFilter withTnf(byte tnf) {
+        return add(tnf, null);
+    }
+
+    /**
+     * Method returns the number of entries of the filter
+     *
+     * @return number of wanted TNF and type pairs
+     */
+    public int size() {
+        return tnfs.length;
+    }
+
+    /**
+     * Method is to find the entry matching the record
+     *
+     * @param tnf        Type Name Format of the record
+     * @param buffer     buffer holding the record
+     * @param typeOffset absolute index of the record type in the buffer
+     * @param typeLength length of the record type
+     * @return index of the first matching entry, -1 if the record is not wanted
+     */
+    public int indexOf(byte tnf, ByteBuffer buffer, int typeOffset, int typeLength) {
+        for (int i = 0; i < tnfs.length; i++) {
+            if (tnfs[i] == tnf && (types[i] == null || typeEquals(types[i], buffer, typeOffset, typeLength))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean accept(byte tnf, ByteBuffer buffer, int typeOffset, int typeLength) {
+        return indexOf(tnf, buffer, typeOffset, typeLength) >= 0;
+    }
+
+    private RecordTypeFilter add(byte tnf, byte[] type) {
+        byte[] newTnfs = Arrays.copyOf(tnfs, tnfs.length + 1);
+        byte[][] newTypes = Arrays.copyOf(types, types.length + 1);
+        newTnfs[tnfs.length] = tnf;
+        newTypes[types.length] = type;
+        return new RecordTypeFilter(newTnfs, newTypes);
+    }
+
+    private static boolean typeEquals(byte[] type, ByteBuffer buffer, int typeOffset, int typeLength) {
+        if (type.length != typeLength) {
+            return false;
+        }
+        for (int i = 0; i < typeLength; i++) {
+            if (buffer.get(typeOffset + i) != type[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
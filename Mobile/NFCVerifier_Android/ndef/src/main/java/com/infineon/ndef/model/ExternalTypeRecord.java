@@ -17,6 +17,7 @@
 
 package com.infineon.ndef.model;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 /**
@@ -48,6 +49,24 @@ public class ExternalTypeRecord extends AbstractRecord {
         return data == null ? null : data.clone();
     }
 
+    /**
+     * Method is to get the length of the record data bytes without copying them.
+     *
+     * @return length of the external type record data bytes
+     */
+    public int getDataLength() {
+        return data.length;
+    }
+
+    /**
+     * Method is to write the record data bytes into the buffer at its current position.
+     *
+     * @param destination buffer receiving the external type record data bytes
+     */
+    public void putData(ByteBuffer destination) {
+        destination.put(data);
+    }
+
     /**
      * Method is to set the raw record data bytes stream to the record.
      *
@@ -21,6 +21,7 @@ package com.infineon.ndef.model;
 import com.infineon.ndef.utils.NDEFConstants;
 
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 /**
@@ -64,6 +65,24 @@ public class IconRecord extends AbstractRecord {
         return image == null ? null : image.clone();
     }
 
+    /**
+     * Method is to get the length of the image byte stream without copying it
+     *
+     * @return length of the image data
+     */
+    public int getImageLength() {
+        return image.length;
+    }
+
+    /**
+     * Method is to write the image byte stream into the buffer at its current position
+     *
+     * @param destination buffer receiving the image data
+     */
+    public void putImage(ByteBuffer destination) {
+        destination.put(image);
+    }
+
     /**
      * Method is to set the image byte stream
      *
@@ -21,12 +21,8 @@ import com.infineon.ndef.NDEFRecord;
 import com.infineon.ndef.NFCException;
 import com.infineon.ndef.model.AbstractRecord;
 import com.infineon.ndef.model.IRecordDecoder;
-import com.infineon.ndef.model.RecordType;
-import com.infineon.ndef.utils.NDEFConstants;
 import com.infineon.ndef.utils.RecordUtils;
 
-import java.util.Objects;
-
 /**
  * Class is to decode a well known NDEF record type.
  *
@@ -34,8 +30,6 @@ import java.util.Objects;
  */
 public class RecordDecoder implements IRecordDecoder {
 
-    RecordPayloadDecoder recordPayLoadDecoder;
-
     /**
      * Method to check record decoding is supported or not
      * @param record NDEFRecord to be check
@@ -43,12 +37,7 @@ public class RecordDecoder implements IRecordDecoder {
      */
     @Override
     public boolean canDecodeRecord(NDEFRecord record) {
-        if (record.getTnf() == NDEFConstants.TNF_WELL_KNOWN || record.getTnf() == NDEFConstants.TNF_EXTERNAL) {
-            recordPayLoadDecoder = RecordUtils.getPayloadDecoder(new RecordType(Objects.requireNonNull(record.getType())));
-            return recordPayLoadDecoder != null;
-        }
-
-        return false;
+        return RecordUtils.getDecoderTable().lookup(record) != null;
     }
 
     /**
@@ -59,6 +48,11 @@ public class RecordDecoder implements IRecordDecoder {
      */
     @Override
     public AbstractRecord decodeRecord(NDEFRecord record) throws NFCException {
+        RecordPayloadDecoder recordPayLoadDecoder = RecordUtils.getDecoderTable().lookup(record);
+        if (recordPayLoadDecoder == null) {
+            throw new IllegalArgumentException(
+                    "Unsupported record [" + record.getClass().getName() + "]");
+        }
         return recordPayLoadDecoder.decodePayload(record.getPayload());
     }
 
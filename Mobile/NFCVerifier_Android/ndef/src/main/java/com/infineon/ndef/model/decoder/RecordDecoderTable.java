@@ -0,0 +1,231 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.ndef.model.decoder;
+
+import com.infineon.ndef.NDEFRecord;
+import com.infineon.ndef.NDEFRecordView;
+import com.infineon.ndef.utils.NDEFConstants;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Immutable dispatch table of the record payload decoders, keyed by TNF and record type bytes.
+ * <br>
+ * <br>
+ * The table is built once with a {@link Builder} and uses open addressing over plain arrays, so a lookup neither
+ * allocates nor copies the record type. As the table is never modified after construction it can be shared between
+ * threads without synchronization. For every TNF an optional fallback decoder is used for unregistered types.
+ *
+ * @author Infineon Technologies
+ */
+public final class RecordDecoderTable {
+
+    private final byte[] tnfs;
+    private final byte[][] types;
+    private final RecordPayloadDecoder[] decoders;
+    private final RecordPayloadDecoder[] fallbacks;
+    private final int mask;
+
+    private RecordDecoderTable(Builder builder) {
+        int capacity = 16;
+        while (capacity < builder.types.size() * 2) {
+            capacity <<= 1;
+        }
+        tnfs = new byte[capacity];
+        types = new byte[capacity][];
+        decoders = new RecordPayloadDecoder[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < builder.types.size(); i++) {
+            byte tnf = builder.tnfs.get(i);
+            byte[] type = builder.types.get(i);
+            int slot = hash(tnf, Arrays.hashCode(type)) & mask;
+            while (types[slot] != null && !(tnfs[slot] == tnf && Arrays.equals(types[slot], type))) {
+                slot = (slot + 1) & mask;
+            }
+            tnfs[slot] = tnf;
+            types[slot] = type;
+            decoders[slot] = builder.decoders.get(i);
+        }
+        fallbacks = builder.fallbacks.clone();
+    }
+
+    /**
+     * Method is to create an empty builder
+     *
+     * @return builder of a decoder table
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Method is to create a builder containing all entries of this table, e.g. to register an additional decoder
+     *
+     * @return builder of a decoder table
+     */
+    public Builder toBuilder() {
+        Builder builder = new Builder();
+        for (int slot = 0; slot < types.length; slot++) {
+            if (types[slot] != null) {
+                builder.register(tnfs[slot], types[slot], decoders[slot]);
+            }
+        }
+        for (int tnf = 0; tnf < fallbacks.length; tnf++) {
+            if (fallbacks[tnf] != null) {
+                builder.fallback((byte) tnf, fallbacks[tnf]);
+            }
+        }
+        return builder;
+    }
+
+    /**
+     * Method is to find the payload decoder of the record type
+     *
+     * @param tnf  Type Name Format of the record
+     * @param type record type
+     * @return the payload decoder, or null if the record type is not supported
+     */
+    public RecordPayloadDecoder lookup(byte tnf, byte[] type) {
+        return find(tnf, Arrays.hashCode(Objects.requireNonNull(type)), type);
+    }
+
+    /**
+     * Method is to find the payload decoder of the NDEF record without copying its type
+     *
+     * @param record NDEF record
+     * @return the payload decoder, or null if the record type is not supported
+     */
+    public RecordPayloadDecoder lookup(NDEFRecord record) {
+        return find(record.getTnf(), record.typeHashCode(), record);
+    }
+
+    /**
+     * Method is to find the payload decoder of the record the view points to without copying its type
+     *
+     * @param view view positioned on a record
+     * @return the payload decoder, or null if the record type is not supported
+     */
+    public RecordPayloadDecoder lookup(NDEFRecordView view) {
+        return find(view.getTnf(), view.typeHashCode(), view);
+    }
+
+    /**
+     * Probes the table starting at the slot of the hash
+     *
+     * @param tnf      Type Name Format of the record
+     * @param typeHash hash of the record type as computed by {@link Arrays#hashCode(byte[])}
+     * @param source   record type as byte array, NDEF record or record view
+     * @return the payload decoder or the fallback of the TNF
+     */
+    private RecordPayloadDecoder find(byte tnf, int typeHash, Object source) {
+        int slot = hash(tnf, typeHash) & mask;
+        while (types[slot] != null) {
+            if (tnfs[slot] == tnf && typeEquals(types[slot], source)) {
+                return decoders[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return fallbacks[tnf & NDEFConstants.TNF_MASK];
+    }
+
+    private static boolean typeEquals(byte[] type, Object source) {
+        if (source instanceof NDEFRecord) {
+            return ((NDEFRecord) source).typeEquals(type);
+        }
+        if (source instanceof NDEFRecordView) {
+            return ((NDEFRecordView) source).typeEquals(type);
+        }
+        return Arrays.equals(type, (byte[]) source);
+    }
+
+    private static int hash(byte tnf, int typeHash) {
+        int hash = typeHash * 31 + tnf;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Builder of the immutable decoder table
+     */
+    public static final class Builder {
+        private final List<Byte> tnfs = new ArrayList<>();
+        private final List<byte[]> types = new ArrayList<>();
+        private final List<RecordPayloadDecoder> decoders = new ArrayList<>();
+        private final RecordPayloadDecoder[] fallbacks = new RecordPayloadDecoder[NDEFConstants.TNF_MASK + 1];
+
+        private Builder() {
+        }
+
+        /**
+         * Method is to register the payload decoder of a record type. An existing entry of the same TNF and type is replaced.
+         *
+         * @param tnf     Type Name Format of the record
+         * @param type    record type
+         * @param decoder payload decoder
+         * @return this builder
+         */
+        public Builder register(byte tnf, byte[] type, RecordPayloadDecoder decoder) {
+            Objects.requireNonNull(decoder);
+            byte[] key = type.clone();
+            for (int i = 0; i < types.size(); i++) {
+                if (tnfs.get(i) == tnf && Arrays.equals(types.get(i), key)) {
+                    decoders.set(i, decoder);
+                    return this;
+                }
+            }
+            tnfs.add(tnf);
+            types.add(key);
+            decoders.add(decoder);
+            return this;
+        }
+
+        /**
+         * Method is to register the payload decoder of a record type given as string
+         *
+         * @param tnf     Type Name Format of the record
+         * @param type    record type e.g. "U"
+         * @param decoder payload decoder
+         * @return this builder
+         */
+        public Builder register(byte tnf, String type, RecordPayloadDecoder decoder) {
+            return register(tnf, type.getBytes(NDEFConstants.DEFAULT_CHARSET), decoder);
+        }
+
+        /**
+         * Method is to set the decoder used for all unregistered types of the TNF
+         *
+         * @param tnf     Type Name Format of the record
+         * @param decoder payload decoder, or null for no fallback
+         * @return this builder
+         */
+        public Builder fallback(byte tnf, RecordPayloadDecoder decoder) {
+            fallbacks[tnf & NDEFConstants.TNF_MASK] = decoder;
+            return this;
+        }
+
+        /**
+         * Method is to build the immutable table
+         *
+         * @return the decoder table
+         */
+        public RecordDecoderTable build() {
+            return new RecordDecoderTable(this);
+        }
+    }
+}
@@ -18,6 +18,7 @@
 package com.infineon.ndef.model.encoder;
 
 
+import com.infineon.ndef.converter.NDEFOutputBuffer;
 import com.infineon.ndef.model.AbstractRecord;
 import com.infineon.ndef.model.ActionRecord;
 
@@ -26,23 +27,19 @@ import com.infineon.ndef.model.ActionRecord;
  *
  * @author Infineon Technologies
  */
-public class ActionRecordEncoder implements RecordPayloadEncoder {
+public class ActionRecordEncoder extends RecordPayloadWriter {
 
     /**
-     * Method to encode the record data structure into record payload byte array.
+     * Method to write the ActionRecord payload into the output buffer.
      * @param wellKnownRecord wellKnownRecord ActionRecord from NDEF
-     * @return record payload byte array.
+     * @param buffer output buffer of the NDEF message
      */
     @Override
-    public byte[] encodePayload(AbstractRecord wellKnownRecord) {
+    public void writePayload(AbstractRecord wellKnownRecord, NDEFOutputBuffer buffer) {
         ActionRecord actionRecord = ((ActionRecord) wellKnownRecord);
-
         if (!actionRecord.hasAction()) {
             throw new IllegalArgumentException("Missing action");
         }
-        return new byte[]{
-                actionRecord.getAction().getValue()
-        };
+        buffer.put(actionRecord.getAction().getValue());
     }
-
 }
@@ -18,6 +18,7 @@
 package com.infineon.ndef.model.encoder;
 
 
+import com.infineon.ndef.converter.NDEFOutputBuffer;
 import com.infineon.ndef.model.AbstractRecord;
 import com.infineon.ndef.model.ExternalTypeRecord;
 
@@ -26,24 +27,16 @@ import com.infineon.ndef.model.ExternalTypeRecord;
  *
  * @author Infineon Technologies
  */
-public class ExternalTypeRecordEncoder implements RecordPayloadEncoder {
+public class ExternalTypeRecordEncoder extends RecordPayloadWriter {
 
     /**
-     * Method to encode the record data structure into record payload byte array.
+     * Method to write the ExternalTypeRecord payload into the output buffer.
      * @param wellKnownRecord wellKnownRecord ExternalTypeRecord from NDEF
-     * @return record payload byte array.
+     * @param buffer output buffer of the NDEF message
      */
     @Override
-    public byte[] encodePayload(AbstractRecord wellKnownRecord) {
-
+    public void writePayload(AbstractRecord wellKnownRecord, NDEFOutputBuffer buffer) {
         ExternalTypeRecord externalTypeRecord = (ExternalTypeRecord) wellKnownRecord;
-
-
-        if (externalTypeRecord.getData() == null) {
-            throw new RuntimeException("Expected text");
-        }
-
-        return externalTypeRecord.getData();
+        externalTypeRecord.putData(buffer.reserve(externalTypeRecord.getDataLength()));
     }
-
 }
@@ -17,6 +17,7 @@
 
 package com.infineon.ndef.model.encoder;
 
+import com.infineon.ndef.converter.NDEFOutputBuffer;
 import com.infineon.ndef.model.AbstractRecord;
 import com.infineon.ndef.model.IconRecord;
 
@@ -25,25 +26,21 @@ import com.infineon.ndef.model.IconRecord;
  *
  * @author Infineon Technologies
  */
-public class IconPayloadEncoder implements RecordPayloadEncoder {
-
+public class IconPayloadEncoder extends RecordPayloadWriter {
 
     /**
-     * Method to encode the IconRecord data structure into record payload byte array.
+     * Method to write the IconRecord payload into the output buffer.
      * @param record wellKnownRecord IconRecord from NDEF
-     * @return record payload byte array.
+     * @param buffer output buffer of the NDEF message
      */
     @Override
-    public byte[] encodePayload(AbstractRecord record) {
+    public void writePayload(AbstractRecord record, NDEFOutputBuffer buffer) {
         IconRecord iconRecord = (IconRecord) record;
-
-        if (iconRecord.getImage() == null || iconRecord.getImage().length == 0
+        if (iconRecord.getImageLength() == 0
                 || iconRecord.getMimeType() == null
                 || iconRecord.getMimeType().isEmpty()) {
             throw new RuntimeException("Icon record content is empty");
         }
-
-        return iconRecord.getImage();
+        iconRecord.putImage(buffer.reserve(iconRecord.getImageLength()));
     }
-
 }
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.ndef.model.encoder;
+
+import com.infineon.ndef.converter.NDEFOutputBuffer;
+import com.infineon.ndef.model.AbstractRecord;
+
+/**
+ * Base class of the payload encoders writing the record payload directly into the output buffer of the NDEF message,
+ * without creating an intermediate payload array.
+ *
+ * @author Infineon Technologies
+ */
+public abstract class RecordPayloadWriter implements RecordPayloadEncoder {
+
+    /**
+     * Method to write the record payload into the output buffer, starting at its current position.
+     * @param wellKnownRecord wellKnownRecord from NDEF
+     * @param buffer output buffer of the NDEF message
+     */
+    public abstract void writePayload(AbstractRecord wellKnownRecord, NDEFOutputBuffer buffer);
+
+    /**
+     * Method to encode the record data structure into record payload byte array.
+     * @param wellKnownRecord wellKnownRecord from NDEF
+     * @return record payload byte array.
+     */
+    @Override
+    public byte[] encodePayload(AbstractRecord wellKnownRecord) {
+        NDEFOutputBuffer buffer = new NDEFOutputBuffer();
+        writePayload(wellKnownRecord, buffer);
+        return buffer.toByteArray();
+    }
+}
@@ -18,6 +18,7 @@
 package com.infineon.ndef.model.encoder;
 
 
+import com.infineon.ndef.converter.NDEFOutputBuffer;
 import com.infineon.ndef.model.AbstractRecord;
 import com.infineon.ndef.model.SizeRecord;
 
@@ -26,17 +27,16 @@ import com.infineon.ndef.model.SizeRecord;
  *
  * @author Infineon Technologies
  */
-public class SizeRecordEncoder implements RecordPayloadEncoder {
+public class SizeRecordEncoder extends RecordPayloadWriter {
 
     /**
-     * Method to encode the SizeRecord data structure into record payload byte array.
+     * Method to write the SizeRecord payload into the output buffer.
      * @param wellKnownRecord wellKnownRecord SizeRecord from NDEF
-     * @return record payload byte array.
+     * @param buffer output buffer of the NDEF message
      */
     @Override
-    public byte[] encodePayload(AbstractRecord wellKnownRecord) {
+    public void writePayload(AbstractRecord wellKnownRecord, NDEFOutputBuffer buffer) {
         SizeRecord sizeRecord = ((SizeRecord) wellKnownRecord);
-        return sizeRecord.getSize();
+        buffer.put(sizeRecord.getSize());
     }
-
 }
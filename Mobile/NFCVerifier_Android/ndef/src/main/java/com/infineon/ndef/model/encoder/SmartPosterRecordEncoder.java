@@ -19,6 +19,7 @@ package com.infineon.ndef.model.encoder;
 
 
 import com.infineon.ndef.converter.NDEFMessageEncoder;
+import com.infineon.ndef.converter.NDEFOutputBuffer;
 import com.infineon.ndef.model.AbstractRecord;
 import com.infineon.ndef.model.SmartPosterRecord;
 
@@ -30,26 +31,23 @@ import java.util.List;
  *
  * @author Infineon Technologies
  */
-public class SmartPosterRecordEncoder implements RecordPayloadEncoder {
+public class SmartPosterRecordEncoder extends RecordPayloadWriter {
 
     /**
-     * Method to encode the SmartPosterRecord data structure into record payload byte array.
+     * Method to write the SmartPosterRecord payload, a nested NDEF message, into the output buffer.
      * @param wellKnownRecord wellKnownRecord SmartPosterRecord
-     * @return record payload byte array.
+     * @param buffer output buffer of the NDEF message
      */
     @Override
-    public byte[] encodePayload(AbstractRecord wellKnownRecord) {
+    public void writePayload(AbstractRecord wellKnownRecord, NDEFOutputBuffer buffer) {
         SmartPosterRecord myRecord = (SmartPosterRecord) wellKnownRecord;
-
         List<AbstractRecord> records = new ArrayList<>();
-
         if (myRecord.getTitleRecords() != null)
             records.addAll(myRecord.getTitleRecords());
         if (myRecord.getUriRecord() != null)
             records.add(myRecord.getUriRecord());
         if (myRecord.getActionRecord() != null)
             records.add(myRecord.getActionRecord());
-        return NDEFMessageEncoder.instance().encrypt(records.toArray(new AbstractRecord[0]));
+        NDEFMessageEncoder.instance().encodeTo(buffer, records);
     }
-
 }
@@ -17,10 +17,10 @@
 
 package com.infineon.ndef.model.encoder;
 
+import com.infineon.ndef.converter.NDEFOutputBuffer;
 import com.infineon.ndef.model.AbstractRecord;
 import com.infineon.ndef.model.TextRecord;
 
-import java.io.UnsupportedEncodingException;
 import java.nio.charset.Charset;
 import java.util.Locale;
 
@@ -29,59 +29,40 @@ import java.util.Locale;
  *
  * @author Infineon Technologies
  */
-public class TextRecordEncoder implements RecordPayloadEncoder {
+public class TextRecordEncoder extends RecordPayloadWriter {
 
     /**
-     * Method to encode the TextRecord data structure into record payload byte array.
+     * Method to write the TextRecord payload into the output buffer.
      * @param wellKnownRecord wellKnownRecord TextRecord
-     * @return record payload byte array.
+     * @param buffer output buffer of the NDEF message
      */
     @Override
-    public byte[] encodePayload(AbstractRecord wellKnownRecord) {
-
+    public void writePayload(AbstractRecord wellKnownRecord, NDEFOutputBuffer buffer) {
         TextRecord textRecord = (TextRecord) wellKnownRecord;
-
         if (!textRecord.hasLocale()) {
             throw new RuntimeException("Missing locale");
         }
-
         if (!textRecord.hasEncoding()) {
             throw new RuntimeException("Missing encoding");
         }
-
         if (!textRecord.hasText()) {
             throw new RuntimeException("Expected text");
         }
-
         Locale locale = textRecord.getLocale();
-
-        byte[] languageData = (locale.getLanguage() + (locale.getCountry().length() == 0 ? ""
-                : "-" + locale.getCountry())).getBytes();
-
-        if (languageData.length > TextRecord.LANGUAGE_CODE_MASK) {
-            throw new IllegalArgumentException("language code length longer than 2^5. this is not supported.");
-        }
-
         Charset encoding = textRecord.getEncoding();
 
-        byte[] textData = getTextAsBytes(textRecord, encoding);
-        byte[] payload = new byte[1 + languageData.length + textData.length];
-
-        byte status = (byte) (languageData.length | (TextRecord.UTF16.equals(encoding) ? 0x80 : 0x00));
-        payload[0] = status;
-        System.arraycopy(languageData, 0, payload, 1, languageData.length);
-        System.arraycopy(textData, 0, payload, 1 + languageData.length, textData.length);
-
-        return payload;
-    }
-
-    private byte[] getTextAsBytes(TextRecord textRecord, Charset encoding) {
-        try {
-            return textRecord.getText().getBytes(encoding.name());
-        } catch (UnsupportedEncodingException e) {
-            throw new RuntimeException(e);
+        // The status byte holds the length of the language code, which is known once it is written
+        int statusIndex = buffer.position();
+        buffer.put((byte) 0);
+        buffer.putString(locale.getLanguage(), Charset.defaultCharset());
+        if (locale.getCountry().length() != 0) {
+            buffer.putString("-" + locale.getCountry(), Charset.defaultCharset());
         }
+        int languageLength = buffer.position() - statusIndex - 1;
+        if (languageLength > TextRecord.LANGUAGE_CODE_MASK) {
+            throw new IllegalArgumentException("language code length longer than 2^5. this is not supported.");
+        }
+        buffer.putAt(statusIndex, (byte) (languageLength | (TextRecord.UTF16.equals(encoding) ? 0x80 : 0x00)));
+        buffer.putString(textRecord.getText(), encoding);
     }
-
-
 }
@@ -17,40 +17,30 @@
 package com.infineon.ndef.model.encoder;
 
 import com.infineon.ndef.InvalidURIException;
+import com.infineon.ndef.converter.NDEFOutputBuffer;
 import com.infineon.ndef.model.AbstractRecord;
 import com.infineon.ndef.model.TypeRecord;
 
-import java.io.UnsupportedEncodingException;
 
 /**
  * Class is to encode the type record.
  *
  * @author Infineon Technologies
  */
-public class TypeRecordEncoder implements RecordPayloadEncoder {
+public class TypeRecordEncoder extends RecordPayloadWriter {
 
     /**
-     * Method to encode the TypeRecord data structure into record payload byte array.
+     * Method to write the TypeRecord payload into the output buffer.
      * @param wellKnownRecord wellKnownRecord TypeRecord
-     * @return record payload byte array.
+     * @param buffer output buffer of the NDEF message
      */
     @Override
-    public byte[] encodePayload(AbstractRecord wellKnownRecord) {
+    public void writePayload(AbstractRecord wellKnownRecord, NDEFOutputBuffer buffer) {
         TypeRecord typeRecord = (TypeRecord) wellKnownRecord;
         String type = typeRecord.getType();
-
         if (type == null || type.isEmpty()) {
             throw new InvalidURIException();
         }
-
-        return getTypeAsBytes(type);
-    }
-
-    private byte[] getTypeAsBytes(String type) {
-        try {
-            return type.getBytes(TypeRecord.CONTENT_TYPE_CHARSET.name());
-        } catch (UnsupportedEncodingException e) {
-            throw new RuntimeException(e);
-        }
+        buffer.putString(type, TypeRecord.CONTENT_TYPE_CHARSET);
     }
 }
@@ -18,62 +18,44 @@
 package com.infineon.ndef.model.encoder;
 
 import com.infineon.ndef.InvalidURIException;
+import com.infineon.ndef.converter.NDEFOutputBuffer;
 import com.infineon.ndef.model.AbstractRecord;
 import com.infineon.ndef.model.URIRecord;
 
-import java.io.UnsupportedEncodingException;
 
 /**
  * Class is to encode the URI record type.
  *
  * @author Infineon Technologies
  */
-public class URIPayloadEncoder implements RecordPayloadEncoder {
+public class URIPayloadEncoder extends RecordPayloadWriter {
 
     /**
-     * Method to encode the  URIRecord data structure into record payload byte array.
+     * Method to write the URIRecord payload into the output buffer.
      * @param wellKnownRecord wellKnownRecord  URIRecord
-     * @return record payload byte array.
+     * @param buffer output buffer of the NDEF message
      */
     @Override
-    public byte[] encodePayload(AbstractRecord wellKnownRecord) {
+    public void writePayload(AbstractRecord wellKnownRecord, NDEFOutputBuffer buffer) {
         URIRecord uriRecord = (URIRecord) wellKnownRecord;
-
         if (uriRecord.getUri() == null || uriRecord.getUri().isEmpty()) {
             throw new InvalidURIException();
         }
-
         String uri = uriRecord.getUri();
-        byte[] uriAsBytes = getUriAsBytes(uri);
         int abbreviateIndex = getAbbreviateIndex(uri.toLowerCase());
         if (abbreviateIndex == -1) {
             throw new InvalidURIException();
         }
         int uriCopyOffset = URIRecord.ABBRIVIABLE_URIS[abbreviateIndex].length();
-        byte[] payload = new byte[uriAsBytes.length + 1 - uriCopyOffset];
-        payload[0] = (byte) abbreviateIndex;
-        System.arraycopy(uriAsBytes, uriCopyOffset, payload, 1, uriAsBytes.length - uriCopyOffset);
-        return payload;
-
-
-    }
-
-    private byte[] getUriAsBytes(String uri) {
-        try {
-            return uri.getBytes(URIRecord.DEFAULT_URI_CHARSET.name());
-        } catch (UnsupportedEncodingException e) {
-            throw new RuntimeException(e);
-        }
+        buffer.put((byte) abbreviateIndex);
+        buffer.putString(uri.substring(uriCopyOffset), URIRecord.DEFAULT_URI_CHARSET);
     }
 
-
     private int getAbbreviateIndex(String uri) {
         int maxLength = 0;
         int abbreviateIndex = 0;
         for (int x = 1; x < URIRecord.ABBRIVIABLE_URIS.length; x++) {
-
             String prefix = URIRecord.ABBRIVIABLE_URIS[x];
-
             if (uri.startsWith(prefix) && prefix.length() > maxLength) {
                 abbreviateIndex = x;
                 maxLength = prefix.length();
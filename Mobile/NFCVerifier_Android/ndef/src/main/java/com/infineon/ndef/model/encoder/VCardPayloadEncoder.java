@@ -18,49 +18,32 @@
 package com.infineon.ndef.model.encoder;
 
 
+import com.infineon.ndef.converter.NDEFOutputBuffer;
 import com.infineon.ndef.model.AbstractRecord;
 import com.infineon.ndef.model.VCardRecord;
 
-import java.io.UnsupportedEncodingException;
 
 /**
  * Class is to encode the VCard record type.
  *
  * @author Infineon Technologies
  */
-public class VCardPayloadEncoder implements RecordPayloadEncoder {
+public class VCardPayloadEncoder extends RecordPayloadWriter {
 
     /**
-     * Method to encode the VCardRecord data structure into record payload byte array.
+     * Method to write the VCardRecord payload into the output buffer.
      * @param record wellKnownRecord VCardRecord
-     * @return record payload byte array.
+     * @param buffer output buffer of the NDEF message
      */
     @Override
-    public byte[] encodePayload(AbstractRecord record) {
+    public void writePayload(AbstractRecord record, NDEFOutputBuffer buffer) {
         VCardRecord vCardRecord = (VCardRecord) record;
-
         if (vCardRecord.getVCardString() == null
                 || vCardRecord.getVCardString().isEmpty()
                 || vCardRecord.getMimeType() == null
                 || vCardRecord.getMimeType().isEmpty()) {
             throw new RuntimeException("vCard content is empty");
         }
-
-        String vCardString = vCardRecord.getVCardString();
-
-        return getVCardStringAsBytes(vCardString);
-    }
-
-    /**
-     * Method to convert string to byte array
-     * @param vCardString to be convert as byte
-     * @return byte form of the string
-     */
-    private byte[] getVCardStringAsBytes(String vCardString) {
-        try {
-            return vCardString.getBytes(VCardRecord.DEFAULT_CHARSET.name());
-        } catch (UnsupportedEncodingException e) {
-            throw new RuntimeException(e);
-        }
+        buffer.putString(vCardRecord.getVCardString(), VCardRecord.DEFAULT_CHARSET);
     }
 }
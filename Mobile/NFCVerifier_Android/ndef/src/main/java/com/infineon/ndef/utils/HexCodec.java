@@ -0,0 +1,252 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.ndef.utils;
+
+import java.util.Arrays;
+
+/**
+ * Table driven conversion between byte arrays and hex strings of upper case digits.
+ * <br>
+ * <br>
+ * Unlike {@link Utils#toByteArray(String)} the decoder is strict: only an even number of hex digits without
+ * delimiters, prefixes or quoted ASCII is accepted. The range based methods write into buffers supplied by the
+ * caller, so converting does not allocate.
+ *
+ * @author Infineon Technologies
+ */
+public final class HexCodec {
+
+    private static final char[] DIGITS = "0123456789ABCDEF".toCharArray();
+
+    /**
+     * First and second hex digit of every byte value
+     */
+    private static final char[] HIGH_DIGITS = new char[256];
+    private static final char[] LOW_DIGITS = new char[256];
+
+    /**
+     * Value of every ASCII hex digit, -1 for all other characters
+     */
+    private static final byte[] NIBBLES = new byte[128];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            HIGH_DIGITS[i] = DIGITS[i >>> 4];
+            LOW_DIGITS[i] = DIGITS[i & 0x0F];
+        }
+        Arrays.fill(NIBBLES, (byte) -1);
+        for (int i = 0; i < 10; i++) {
+            NIBBLES['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++) {
+            NIBBLES['A' + i] = (byte) (10 + i);
+            NIBBLES['a' + i] = (byte) (10 + i);
+        }
+    }
+
+    /**
+     * Private default constructor - prevents instantiation.
+     */
+    private HexCodec() {
+    }
+
+    /**
+     * Method is to convert a range of the byte array into hex digits written to the char array
+     *
+     * @param source       bytes to be converted
+     * @param offset       offset of the bytes
+     * @param length       number of bytes
+     * @param destination  array receiving two hex digits per byte
+     * @param targetOffset offset in the destination
+     * @return number of characters written
+     */
+    public static int encode(byte[] source, int offset, int length, char[] destination, int targetOffset) {
+        checkRange(source.length, offset, length);
+        checkRange(destination.length, targetOffset, length * 2);
+        int position = targetOffset;
+        for (int i = offset; i < offset + length; i++) {
+            int value = source[i] & 0xFF;
+            destination[position++] = HIGH_DIGITS[value];
+            destination[position++] = LOW_DIGITS[value];
+        }
+        return position - targetOffset;
+    }
+
+    /**
+     * Method is to convert a range of the byte array into hex digits separated by the delimiter
+     *
+     * @param source       bytes to be converted
+     * @param offset       offset of the bytes
+     * @param length       number of bytes
+     * @param delimiter    character written between two bytes
+     * @param destination  array receiving the hex digits and delimiters
+     * @param targetOffset offset in the destination
+     * @return number of characters written
+     */
+    public static int encode(byte[] source, int offset, int length, char delimiter, char[] destination,
+                             int targetOffset) {
+        checkRange(source.length, offset, length);
+        checkRange(destination.length, targetOffset, getEncodedLength(length, true));
+        int position = targetOffset;
+        for (int i = offset; i < offset + length; i++) {
+            if (i > offset) {
+                destination[position++] = delimiter;
+            }
+            int value = source[i] & 0xFF;
+            destination[position++] = HIGH_DIGITS[value];
+            destination[position++] = LOW_DIGITS[value];
+        }
+        return position - targetOffset;
+    }
+
+    /**
+     * Method is to convert the byte array into a hex string, e.g. "0A1B2C"
+     *
+     * @param source bytes to be converted
+     * @return hex string
+     */
+    public static String encode(byte[] source) {
+        return encode(source, 0, source.length);
+    }
+
+    /**
+     * Method is to convert a range of the byte array into a hex string
+     *
+     * @param source bytes to be converted
+     * @param offset offset of the bytes
+     * @param length number of bytes
+     * @return hex string
+     */
+    public static String encode(byte[] source, int offset, int length) {
+        char[] chars = new char[getEncodedLength(length, false)];
+        encode(source, offset, length, chars, 0);
+        return new String(chars);
+    }
+
+    /**
+     * Method is to convert a range of the byte array into a hex string with the delimiter between two bytes,
+     * e.g. "0A 1B 2C"
+     *
+     * @param source    bytes to be converted
+     * @param offset    offset of the bytes
+     * @param length    number of bytes
+     * @param delimiter character written between two bytes
+     * @return hex string
+     */
+    public static String encode(byte[] source, int offset, int length, char delimiter) {
+        char[] chars = new char[getEncodedLength(length, true)];
+        encode(source, offset, length, delimiter, chars, 0);
+        return new String(chars);
+    }
+
+    /**
+     * Method returns the number of characters of the hex string of the given number of bytes
+     *
+     * @param length    number of bytes
+     * @param delimited true if the bytes are separated by a delimiter
+     * @return length of the hex string
+     */
+    public static int getEncodedLength(int length, boolean delimited) {
+        if (length <= 0) {
+            return 0;
+        }
+        return delimited ? length * 3 - 1 : length * 2;
+    }
+
+    /**
+     * Method is to convert hex digits into bytes written to the byte array
+     *
+     * @param source       hex string
+     * @param offset       offset of the first hex digit
+     * @param length       number of hex digits, must be even
+     * @param destination  array receiving one byte per two hex digits
+     * @param targetOffset offset in the destination
+     * @return number of bytes written
+     * @throws UtilException if the range contains other characters than hex digits or an odd number of them
+     */
+    public static int decode(CharSequence source, int offset, int length, byte[] destination, int targetOffset)
+            throws UtilException {
+        checkRange(source.length(), offset, length);
+        if ((length & 1) != 0) {
+            throw new UtilException("Hex string has odd nibble count");
+        }
+        checkRange(destination.length, targetOffset, length / 2);
+        int written = decodeDigits(source, offset, length, destination, targetOffset);
+        if (written < 0) {
+            throw new UtilException("Illegal character in hex string");
+        }
+        return written;
+    }
+
+    /**
+     * Method is to convert a hex string like "0A1B2C" into a byte array
+     *
+     * @param source hex string
+     * @return byte array
+     * @throws UtilException if the string contains other characters than hex digits or an odd number of them
+     */
+    public static byte[] decode(CharSequence source) throws UtilException {
+        byte[] bytes = new byte[source.length() / 2];
+        decode(source, 0, source.length(), bytes, 0);
+        return bytes;
+    }
+
+    /**
+     * Method is to convert the string if it consists of an even number of hex digits only
+     *
+     * @param source string to be converted
+     * @return byte array, or null if the string is not a plain hex string
+     */
+    static byte[] tryDecode(CharSequence source) {
+        int length = source.length();
+        if ((length & 1) != 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length / 2];
+        return decodeDigits(source, 0, length, bytes, 0) < 0 ? null : bytes;
+    }
+
+    /**
+     * Converts pairs of hex digits into bytes
+     *
+     * @return number of bytes written, -1 if an illegal character has been found
+     */
+    private static int decodeDigits(CharSequence source, int offset, int length, byte[] destination,
+                                    int targetOffset) {
+        int position = targetOffset;
+        for (int i = offset; i < offset + length; i += 2) {
+            char high = source.charAt(i);
+            char low = source.charAt(i + 1);
+            if ((high | low) >= NIBBLES.length) {
+                return -1;
+            }
+            int value = (NIBBLES[high] << 4) | NIBBLES[low];
+            if (value < 0) {
+                return -1;
+            }
+            destination[position++] = (byte) value;
+        }
+        return position - targetOffset;
+    }
+
+    private static void checkRange(int arrayLength, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > arrayLength - length) {
+            throw new IndexOutOfBoundsException("Range [" + offset + ", " + offset + " + " + length
+                    + ") out of bounds for length " + arrayLength);
+        }
+    }
+}
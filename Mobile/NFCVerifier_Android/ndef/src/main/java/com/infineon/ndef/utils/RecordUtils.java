@@ -30,6 +30,7 @@ import com.infineon.ndef.model.VCardRecord;
 import com.infineon.ndef.model.decoder.ActionRecordDecoder;
 import com.infineon.ndef.model.decoder.ExternalTypePayloadDecoder;
 import com.infineon.ndef.model.decoder.IconPayloadDecoder;
+import com.infineon.ndef.model.decoder.RecordDecoderTable;
 import com.infineon.ndef.model.decoder.RecordPayloadDecoder;
 import com.infineon.ndef.model.decoder.SizeRecordDecoder;
 import com.infineon.ndef.model.decoder.SmartPosterRecordDecoder;
@@ -59,7 +60,7 @@ import java.util.Map;
 public final class RecordUtils {
 
     private static final Map<Class<?>, RecordPayloadEncoder> encoderMap = new HashMap<>();
-    private static final Map<RecordType, RecordPayloadDecoder> decoderMap = new HashMap<>();
+    private static volatile RecordDecoderTable decoderTable;
 
     static {
         encoderMap.put(URIRecord.class, new URIPayloadEncoder());
@@ -73,22 +74,32 @@ public final class RecordUtils {
         encoderMap.put(VCardRecord.class, new VCardPayloadEncoder());
         encoderMap.put(IconRecord.class, new IconPayloadEncoder());
 
-        decoderMap.put(new RecordType("U"), new URIPayloadDecoder());
-        decoderMap.put(new RecordType("act"), new ActionRecordDecoder());
-        decoderMap.put(new RecordType("T"), new TextPayloadDecoder());
-        decoderMap.put(new RecordType("Sp"), new SmartPosterRecordDecoder());
-        decoderMap.put(new RecordType("s"), new SizeRecordDecoder());
-        decoderMap.put(new RecordType("t"), new TypeRecordDecoder());
-       
+        RecordDecoderTable.Builder builder = RecordDecoderTable.builder();
+        // Built-in types are accepted as well known and external types, as in the former type-only lookup
+        for (byte tnf : new byte[]{NDEFConstants.TNF_WELL_KNOWN, NDEFConstants.TNF_EXTERNAL}) {
+            builder.register(tnf, "U", new URIPayloadDecoder());
+            builder.register(tnf, "act", new ActionRecordDecoder());
+            builder.register(tnf, "T", new TextPayloadDecoder());
+            builder.register(tnf, "Sp", new SmartPosterRecordDecoder());
+            builder.register(tnf, "s", new SizeRecordDecoder());
+            builder.register(tnf, "t", new TypeRecordDecoder());
+            builder.fallback(tnf, new ExternalTypePayloadDecoder());
+        }
+
         for (String mimeType : VCardRecord.SUPPORTED_TYPES) {
-            decoderMap.put(new RecordType(mimeType),
-                    new VCardPayloadDecoder(mimeType));
+            VCardPayloadDecoder decoder = new VCardPayloadDecoder(mimeType);
+            builder.register(NDEFConstants.TNF_WELL_KNOWN, mimeType, decoder);
+            builder.register(NDEFConstants.TNF_EXTERNAL, mimeType, decoder);
+            builder.register(NDEFConstants.TNF_MEDIA_TYPE, mimeType, decoder);
         }
 
         for (String mimeType : IconRecord.SUPPORTED_TYPES) {
-            decoderMap.put(new RecordType(mimeType),
-                    new IconPayloadDecoder(mimeType));
+            IconPayloadDecoder decoder = new IconPayloadDecoder(mimeType);
+            builder.register(NDEFConstants.TNF_WELL_KNOWN, mimeType, decoder);
+            builder.register(NDEFConstants.TNF_EXTERNAL, mimeType, decoder);
+            builder.register(NDEFConstants.TNF_MEDIA_TYPE, mimeType, decoder);
         }
+        decoderTable = builder.build();
     }
 
     private RecordUtils() {
@@ -107,17 +118,36 @@ public final class RecordUtils {
     }
 
     /**
-     * Method is to get the payload decoder
+     * Method is to get the payload decoder of a well known record type
      *
      * @param recordType Type of record
      * @return Record payload decoder
      */
     public static RecordPayloadDecoder getPayloadDecoder(
             RecordType recordType) {
-        if (decoderMap.containsKey(recordType)) {
-            return decoderMap.get(recordType);
-        }
-        return new ExternalTypePayloadDecoder();
+        return decoderTable.lookup(NDEFConstants.TNF_WELL_KNOWN, recordType.getType());
+    }
+
+    /**
+     * Method is to get the immutable decoder table used to dispatch the record payload decoding.
+     * The table can be shared across threads.
+     *
+     * @return Record decoder table
+     */
+    public static RecordDecoderTable getDecoderTable() {
+        return decoderTable;
+    }
+
+    /**
+     * Method is to register a custom payload decoder. The decoder table is rebuilt and replaced,
+     * so lookups running concurrently keep using the previous table.
+     *
+     * @param tnf     Type Name Format of the record
+     * @param type    Type of record
+     * @param decoder Record payload decoder
+     */
+    public static synchronized void registerPayloadDecoder(byte tnf, byte[] type, RecordPayloadDecoder decoder) {
+        decoderTable = decoderTable.toBuilder().register(tnf, type, decoder).build();
     }
 
 }
@@ -34,11 +34,6 @@ public class Utils {
                     '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F'
             };
 
-    /**
-     * Default delimiter
-     */
-    private static final String SPACE = " ";
-
     /**
      * Logger instance of for all library packages
      */
@@ -77,7 +72,7 @@ public class Utils {
      * @return hex string representation of byte array.
      */
     public static String toHexString(byte[] value) {
-        return toHexString(value, 0, value.length, SPACE, false, null);
+        return HexCodec.encode(value, 0, value.length, ' ');
     }
 
     /**
@@ -203,6 +198,11 @@ public class Utils {
      * @throws UtilException if conversion fails for syntactical reasons.
      */
     public static byte[] toByteArray(String data) throws UtilException {
+        // plain hex strings are converted by the table driven codec
+        byte[] plainHex = HexCodec.tryDecode(data);
+        if (plainHex != null)
+            return plainHex;
+
         int i, iOffset, iLength = data.length();
         byte[] abyValue = new byte[iLength];
         boolean bOddNibbleCountAllowed = false;
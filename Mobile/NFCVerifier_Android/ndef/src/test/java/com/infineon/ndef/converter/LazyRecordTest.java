@@ -0,0 +1,49 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.ndef.converter;
+
+import com.infineon.ndef.NDEFRecord;
+import com.infineon.ndef.NFCException;
+import com.infineon.ndef.utils.NDEFConstants;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the error of {@link LazyRecord} for a record type without payload decoder
+ *
+ * @author Infineon Technologies
+ */
+public class LazyRecordTest {
+
+    @Test
+    public void unsupportedRecordNamesTnfAndType() throws NFCException {
+        LazyRecord record = LazyRecord.of(new NDEFRecord(NDEFConstants.TNF_MEDIA_TYPE,
+                "text/plain".getBytes(StandardCharsets.US_ASCII), new byte[0], new byte[]{'a'}));
+
+        try {
+            record.getRecord();
+            fail("Unsupported record decoded");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Unsupported record [TNF 2, type text/plain]", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.ndef.converter;
+
+import com.infineon.ndef.NDEFRecord;
+import com.infineon.ndef.NDEFRecordView;
+import com.infineon.ndef.utils.NDEFConstants;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the reassembly of chunked records and the payload limit of {@link NDEFChunkAssembler}
+ *
+ * @author Infineon Technologies
+ */
+public class NDEFChunkAssemblerTest {
+
+    /**
+     * URI record, text record "ab" with CF, chunk "cd" with CF, last chunk "e", external record with ME
+     */
+    private static final byte[] MESSAGE = bytes(
+            0x91, 1, 1, 'U', 0x04,
+            0x31, 1, 2, 'T', 'a', 'b',
+            0x36, 0, 2, 'c', 'd',
+            0x16, 0, 1, 'e',
+            0x54, 3, 1, 'x', ':', 'y', 'z');
+
+    @Test
+    public void reassembleMessage() {
+        List<NDEFRecord> records = new NDEFChunkAssembler().reassemble(new NDEFRecordView(MESSAGE));
+
+        assertEquals(3, records.size());
+        assertArrayEquals(bytes('U'), records.get(0).getType());
+        assertEquals(NDEFConstants.TNF_WELL_KNOWN, records.get(1).getTnf());
+        assertArrayEquals(bytes('T'), records.get(1).getType());
+        assertArrayEquals(bytes('a', 'b', 'c', 'd', 'e'), records.get(1).getPayload());
+        assertFalse(records.get(1).isChunked());
+        assertArrayEquals(bytes('z'), records.get(2).getPayload());
+    }
+
+    @Test
+    public void assembleLeavesViewOnLastChunk() {
+        NDEFRecordView view = new NDEFRecordView(MESSAGE);
+        view.next();
+        view.next();
+
+        NDEFRecord record = new NDEFChunkAssembler().assemble(view);
+
+        assertArrayEquals(bytes('a', 'b', 'c', 'd', 'e'), record.getPayload());
+        assertEquals(16, view.getRecordOffset());
+        view.next();
+        assertEquals(NDEFConstants.TNF_EXTERNAL, view.getTnf());
+    }
+
+    @Test
+    public void assembleIntoStream() throws IOException {
+        NDEFRecordView view = new NDEFRecordView(MESSAGE);
+        view.next();
+        view.next();
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+
+        assertEquals(5, new NDEFChunkAssembler().assemble(view, stream));
+        assertArrayEquals(bytes('a', 'b', 'c', 'd', 'e'), stream.toByteArray());
+    }
+
+    @Test
+    public void chunkedPayloadWithinLimit() {
+        assertEquals(3, new NDEFChunkAssembler(5).reassemble(new NDEFRecordView(MESSAGE)).size());
+    }
+
+    @Test
+    public void chunkedPayloadExceedsLimit() {
+        assertFormatError("Record payload exceeds the maximum length of 4 bytes", new NDEFChunkAssembler(4), MESSAGE);
+    }
+
+    @Test
+    public void payloadExceedsLimit() {
+        assertFormatError("Record payload exceeds the maximum length of 1 bytes", new NDEFChunkAssembler(1),
+                bytes(0xD1, 1, 2, 'T', 'a', 'b'));
+    }
+
+    @Test
+    public void incompleteChunkedRecord() {
+        assertFormatError("Incomplete chunked record in the NDEF Message", new NDEFChunkAssembler(),
+                bytes(0xF1, 1, 2, 'T', 'a', 'b'));
+    }
+
+    @Test
+    public void chunkWithoutFirstChunk() {
+        assertFormatError("Unexpected record chunk in the NDEF Message", new NDEFChunkAssembler(),
+                bytes(0xD6, 0, 1, 'e'));
+    }
+
+    @Test
+    public void chunkWithType() {
+        assertFormatError("Malformed record chunk in the NDEF Message", new NDEFChunkAssembler(),
+                bytes(0xB1, 1, 2, 'T', 'a', 'b', 0x51, 1, 1, 'T', 'c'));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeLimit() {
+        new NDEFChunkAssembler(-1);
+    }
+
+    /**
+     * Checks that reassembling the message fails with the format error
+     *
+     * @param message     expected message of the error
+     * @param assembler   assembler to check
+     * @param ndefMessage NDEF message to reassemble
+     */
+    private static void assertFormatError(String message, NDEFChunkAssembler assembler, byte[] ndefMessage) {
+        try {
+            assembler.reassemble(new NDEFRecordView(ndefMessage));
+            fail("No error reported: " + message);
+        } catch (IllegalArgumentException e) {
+            assertEquals(message, e.getMessage());
+        }
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+}
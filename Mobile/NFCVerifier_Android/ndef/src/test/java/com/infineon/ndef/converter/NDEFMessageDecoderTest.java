@@ -0,0 +1,51 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.ndef.converter;
+
+import com.infineon.ndef.NFCException;
+import com.infineon.ndef.utils.NDEFConstants;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the error of {@link NDEFMessageDecoder} for a selected record type without payload decoder
+ *
+ * @author Infineon Technologies
+ */
+public class NDEFMessageDecoderTest {
+
+    /**
+     * Media type record "text/plain" with payload "a"
+     */
+    private static final byte[] MESSAGE = {
+            (byte) 0xD2, 10, 1, 't', 'e', 'x', 't', '/', 'p', 'l', 'a', 'i', 'n', 'a'};
+
+    @Test
+    public void unsupportedRecordNamesTnfAndType() throws NFCException {
+        RecordFilter filter = RecordTypeFilter.of(NDEFConstants.TNF_MEDIA_TYPE, "text/plain");
+
+        try {
+            NDEFMessageDecoder.instance().decryptToRecords(MESSAGE, filter);
+            fail("Unsupported record decoded");
+        } catch (RuntimeException e) {
+            assertEquals("Unsupported record [TNF 2, type text/plain]", e.getCause().getMessage());
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.ndef.converter;
+
+import com.infineon.ndef.NDEFRecord;
+import com.infineon.ndef.utils.NDEFConstants;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the reassembly of chunked records and the payload limit of {@link NDEFRecordReader}
+ *
+ * @author Infineon Technologies
+ */
+public class NDEFRecordReaderTest {
+
+    /**
+     * Text record "ab" with MB and CF, chunk "cd" with CF, last chunk "e" with ME
+     */
+    private static final byte[] CHUNKED_MESSAGE = bytes(
+            0xB1, 1, 2, 'T', 'a', 'b',
+            0x36, 0, 2, 'c', 'd',
+            0x56, 0, 1, 'e');
+
+    @Test
+    public void chunkedRecordAppendedAtOnce() {
+        NDEFRecordReader reader = new NDEFRecordReader();
+        reader.append(CHUNKED_MESSAGE, 0, CHUNKED_MESSAGE.length);
+        reader.endOfInput();
+
+        assertTextRecord("abcde", reader.next());
+        assertFalse(reader.hasNext());
+        assertTrue(reader.isMessageComplete());
+    }
+
+    @Test
+    public void chunkedRecordAppendedByteByByte() {
+        NDEFRecordReader reader = new NDEFRecordReader();
+        for (int i = 0; i < CHUNKED_MESSAGE.length - 1; i++) {
+            reader.append(CHUNKED_MESSAGE, i, 1);
+            assertFalse(reader.hasNext());
+        }
+        reader.append(CHUNKED_MESSAGE, CHUNKED_MESSAGE.length - 1, 1);
+
+        assertTrue(reader.hasNext());
+        assertTextRecord("abcde", reader.next());
+        assertTrue(reader.isMessageComplete());
+    }
+
+    @Test
+    public void chunkedRecordFromStream() {
+        NDEFRecordReader reader = new NDEFRecordReader(new ByteArrayInputStream(CHUNKED_MESSAGE));
+
+        assertTextRecord("abcde", reader.next());
+        assertFalse(reader.hasNext());
+    }
+
+    @Test
+    public void chunkedRecordWithIdAndLongLengths() {
+        byte[] message = bytes(
+                0xA9, 1, 0, 0, 0, 2, 1, 'T', 'i', 'a', 'b',
+                0x36, 0, 2, 'c', 'd',
+                0x46, 0, 0, 0, 0, 1, 'e');
+        NDEFRecordReader reader = new NDEFRecordReader();
+        for (int i = 0; i < message.length; i++) {
+            reader.append(message, i, 1);
+        }
+
+        NDEFRecord record = reader.next();
+        assertTextRecord("abcde", record);
+        assertArrayEquals(bytes('i'), record.getId());
+        assertTrue(reader.isMessageComplete());
+    }
+
+    @Test
+    public void recordsAroundChunkedRecord() {
+        byte[] message = bytes(
+                0x91, 1, 1, 'U', 0x04,
+                0x31, 1, 2, 'T', 'a', 'b',
+                0x16, 0, 1, 'c',
+                0x54, 3, 1, 'x', ':', 'y', 'z');
+        NDEFRecordReader reader = new NDEFRecordReader();
+        reader.append(message, 0, message.length);
+        reader.endOfInput();
+
+        NDEFRecord uri = reader.next();
+        assertArrayEquals(bytes('U'), uri.getType());
+        assertTextRecord("abc", reader.next());
+        NDEFRecord external = reader.next();
+        assertEquals(NDEFConstants.TNF_EXTERNAL, external.getTnf());
+        assertArrayEquals(bytes('z'), external.getPayload());
+        assertFalse(reader.hasNext());
+    }
+
+    @Test
+    public void filteredChunkedRecord() {
+        byte[] message = bytes(
+                0x91, 1, 1, 'U', 0x04,
+                0x31, 1, 2, 'T', 'a', 'b',
+                0x56, 0, 1, 'c');
+        NDEFRecordReader reader = new NDEFRecordReader()
+                .setFilter(RecordTypeFilter.of(NDEFConstants.TNF_WELL_KNOWN, "T"));
+        reader.append(message, 0, message.length - 1);
+
+        assertFalse(reader.hasNext());
+        assertFalse(reader.isSelectionComplete());
+
+        reader.append(message, message.length - 1, 1);
+        assertTextRecord("abc", reader.next());
+        assertTrue(reader.isSelectionComplete());
+    }
+
+    @Test
+    public void chunkedPayloadWithinLimit() {
+        NDEFRecordReader reader = new NDEFRecordReader().setMaxPayloadLength(5);
+        reader.append(CHUNKED_MESSAGE, 0, CHUNKED_MESSAGE.length);
+
+        assertTextRecord("abcde", reader.next());
+    }
+
+    @Test
+    public void chunkedPayloadExceedsLimit() {
+        NDEFRecordReader reader = new NDEFRecordReader().setMaxPayloadLength(4);
+        reader.append(CHUNKED_MESSAGE, 0, CHUNKED_MESSAGE.length);
+        reader.endOfInput();
+
+        assertFormatError("Record payload exceeds the maximum length of 4 bytes", reader);
+    }
+
+    @Test
+    public void payloadExceedsLimit() {
+        NDEFRecordReader reader = new NDEFRecordReader().setMaxPayloadLength(1);
+        byte[] message = bytes(0xD1, 1, 2, 'T', 'a', 'b');
+        reader.append(message, 0, message.length);
+
+        assertFormatError("Record payload exceeds the maximum length of 1 bytes", reader);
+    }
+
+    @Test
+    public void incompleteChunkedRecord() {
+        NDEFRecordReader reader = new NDEFRecordReader();
+        byte[] message = bytes(0xB1, 1, 2, 'T', 'a', 'b');
+        reader.append(message, 0, message.length);
+        reader.endOfInput();
+
+        assertFormatError("Incomplete chunked record in the NDEF Message", reader);
+    }
+
+    @Test
+    public void chunkWithoutFirstChunk() {
+        NDEFRecordReader reader = new NDEFRecordReader();
+        byte[] message = bytes(0xD6, 0, 1, 'e');
+        reader.append(message, 0, message.length);
+
+        assertFormatError("Unexpected record chunk in the NDEF Message", reader);
+    }
+
+    @Test
+    public void chunkWithType() {
+        NDEFRecordReader reader = new NDEFRecordReader();
+        byte[] message = bytes(
+                0xB1, 1, 2, 'T', 'a', 'b',
+                0x51, 1, 1, 'T', 'c');
+        reader.append(message, 0, message.length);
+
+        assertFormatError("Malformed record chunk in the NDEF Message", reader);
+    }
+
+    @Test
+    public void negativeLimit() {
+        try {
+            new NDEFRecordReader().setMaxPayloadLength(-1);
+            fail("Negative maximum payload length accepted");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Maximum payload length must not be negative", e.getMessage());
+        }
+    }
+
+    @Test
+    public void limitAfterFirstRecord() {
+        NDEFRecordReader reader = new NDEFRecordReader();
+        reader.append(CHUNKED_MESSAGE, 0, CHUNKED_MESSAGE.length);
+        reader.next();
+        try {
+            reader.setMaxPayloadLength(10);
+            fail("Maximum payload length changed after the first record");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Checks that the record is a text record with the given payload that is not chunked
+     *
+     * @param payload expected payload
+     * @param record  record to check
+     */
+    private static void assertTextRecord(String payload, NDEFRecord record) {
+        assertEquals(NDEFConstants.TNF_WELL_KNOWN, record.getTnf());
+        assertArrayEquals(bytes('T'), record.getType());
+        assertArrayEquals(payload.getBytes(StandardCharsets.US_ASCII), record.getPayload());
+        assertFalse(record.isChunked());
+    }
+
+    /**
+     * Checks that reading the next record fails with the format error
+     *
+     * @param message expected message of the error
+     * @param reader  reader to check
+     */
+    private static void assertFormatError(String message, NDEFRecordReader reader) {
+        try {
+            reader.hasNext();
+            fail("No error reported: " + message);
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+            assertEquals(message, e.getCause().getMessage());
+        }
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.nfcbpsk.benchmark;
+
+import com.infineon.ndef.NDEFRecord;
+import com.infineon.ndef.NFCFactory;
+import com.infineon.ndef.converter.NDEFMessageEncoder;
+import com.infineon.ndef.model.URIRecord;
+import com.infineon.ndef.utils.NDEFConstants;
+import com.infineon.nfcbpsk.data.nfc.simulator.KeyedMutualAuthenticator;
+import com.infineon.nfcbpsk.data.nfc.simulator.Type4TagSimulator;
+import com.infineon.nfcbpsk.services.appfiledecoder.product.ProfileType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulated tags of the supported profiles used by the benchmarks
+ */
+public enum SampleTag {
+
+    /**
+     * A10 profile
+     */
+    A10(ProfileType.A10, 21),
+
+    /**
+     * B10 profile
+     */
+    B10(ProfileType.B10, 64),
+
+    /**
+     * B20 profile
+     */
+    B20(ProfileType.B20, 64);
+
+    /**
+     * External type of the brand protection record. The type is set when the tag is personalized and is not checked
+     * by the verifier, which identifies the brand protection record by its payload, so any external type gives the
+     * same decoding path. A placeholder in the NFC Forum external type syntax "domain:type" is used.
+     */
+    private static final byte[] BRAND_PROTECTION_TYPE = "example.com:bp".getBytes(StandardCharsets.US_ASCII);
+
+    private static final String PRODUCT_URI = "https://www.example.com/products/verify?id=0123456789ABCDEF";
+
+    private static final String CUSTOM_FIELDS = "Color:Black;Size:M;Material:Leather";
+
+    private final ProfileType profileType;
+    private final int manufacturerLength;
+
+    SampleTag(ProfileType profileType, int manufacturerLength) {
+        this.profileType = profileType;
+        this.manufacturerLength = manufacturerLength;
+    }
+
+    /**
+     * Method returns a simulated tag of the profile. The NDEF and ID_INFO files are only accessible by file ID.
+     *
+     * @param latencyMicros latency per APDU in microseconds
+     * @return simulated tag
+     */
+    Type4TagSimulator simulator(long latencyMicros) {
+        byte[] chipId = new byte[16];
+        for (int i = 0; i < chipId.length; i++) {
+            chipId[i] = (byte) (ordinal() * 16 + i);
+        }
+        return Type4TagSimulator.builder()
+                .historicalBytes(new byte[]{(byte) 0x80, (byte) profileType.value})
+                .ndefMessage(ndefMessage(), 0)
+                .chipId(chipId, 0)
+                .productInformation(productInformation())
+                .serviceInformation(serviceInformation())
+                .mutualAuthenticator(new KeyedMutualAuthenticator(chipId))
+                .latencyNanos(TimeUnit.MICROSECONDS.toNanos(latencyMicros))
+                .build();
+    }
+
+    /**
+     * Method returns the NDEF message of a secured tag: URI record followed by the brand protection record
+     *
+     * @return NDEF message as byte array
+     */
+    private static byte[] ndefMessage() {
+        byte[] url = "https://verify.example.com/api/v1".getBytes(StandardCharsets.UTF_8);
+        byte[] payload = new byte[3 + url.length + 2];
+        payload[0] = 0x01;
+        payload[1] = 0x01;
+        payload[2] = (byte) url.length;
+        System.arraycopy(url, 0, payload, 3, url.length);
+        payload[payload.length - 1] = 0x01;
+        return NDEFMessageEncoder.instance().encrypt(
+                NFCFactory.encryptRecord(new URIRecord(PRODUCT_URI)),
+                new NDEFRecord(NDEFConstants.TNF_EXTERNAL, BRAND_PROTECTION_TYPE, new byte[0], payload));
+    }
+
+    /**
+     * Method returns the product information file: profile, layout version, model number,
+     * manufacture date, serial number, product code, manufacturer name and custom fields
+     *
+     * @return content of the product information file
+     */
+    private byte[] productInformation() {
+        byte[] custom = CUSTOM_FIELDS.getBytes(StandardCharsets.US_ASCII);
+        byte[] manufacturer = "Example GmbH".getBytes(StandardCharsets.US_ASCII);
+        byte[] file = new byte[24 + manufacturerLength + 2 + custom.length];
+        file[0] = (byte) (profileType.value >> 8);
+        file[1] = (byte) profileType.value;
+        file[2] = 0x01;
+        System.arraycopy("MODEL-01".getBytes(StandardCharsets.US_ASCII), 0, file, 3, 8);
+        file[11] = 0x22;
+        file[12] = 0x05;
+        file[13] = 0x26;
+        System.arraycopy("SN000001".getBytes(StandardCharsets.US_ASCII), 0, file, 14, 8);
+        file[22] = 0x12;
+        file[23] = 0x34;
+        file[24] = (byte) manufacturer.length;
+        System.arraycopy(manufacturer, 0, file, 25, manufacturer.length);
+        int customOffset = 24 + manufacturerLength;
+        file[customOffset] = (byte) (custom.length >> 8);
+        file[customOffset + 1] = (byte) custom.length;
+        System.arraycopy(custom, 0, file, customOffset + 2, custom.length);
+        return file;
+    }
+
+    /**
+     * Method returns the service information file: layout version, purchase, warranty and last
+     * service date and custom fields
+     *
+     * @return content of the service information file
+     */
+    private static byte[] serviceInformation() {
+        byte[] custom = CUSTOM_FIELDS.getBytes(StandardCharsets.US_ASCII);
+        byte[] file = new byte[12 + custom.length];
+        byte[] dates = {0x01, 0x22, 0x06, 0x01, 0x24, 0x06, 0x01, 0x23, 0x06, 0x01};
+        System.arraycopy(dates, 0, file, 0, dates.length);
+        file[10] = (byte) (custom.length >> 8);
+        file[11] = (byte) custom.length;
+        System.arraycopy(custom, 0, file, 12, custom.length);
+        return file;
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.nfcbpsk.benchmark;
+
+import com.infineon.nfcbpsk.data.nfc.ApduTransport;
+import com.infineon.nfcbpsk.data.nfc.CapabilityContainerCache;
+import com.infineon.nfcbpsk.data.nfc.NfcChannel;
+import com.infineon.nfcbpsk.data.nfc.simulator.KeyedMutualAuthenticator;
+import com.infineon.nfcbpsk.data.nfc.trace.ApduTrace;
+import com.infineon.nfcbpsk.data.nfc.trace.RecordingTransport;
+import com.infineon.nfcbpsk.data.nfc.trace.ReplayTransport;
+import com.infineon.nfcbpsk.data.nfc.trace.TraceEntry;
+import com.infineon.nfcbpsk.services.apdu.ApduCommand;
+import com.infineon.nfcbpsk.services.apdu.ApduException;
+import com.infineon.nfcbpsk.services.apdu.ApduResponse;
+import com.infineon.nfcbpsk.services.apdu.CommandManager;
+import com.infineon.nfcbpsk.services.apdu.ErrorMessageResolver;
+import com.infineon.nfcbpsk.services.apdu.MutualAuthException;
+import com.infineon.nfcbpsk.services.appfiledecoder.product.ProductInformationDecoder;
+import com.infineon.nfcbpsk.services.appfiledecoder.product.ProfileType;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark replaying a recorded scan, e.g. a field capture of the application, through the tag
+ * communication of a verification in the order of the BrandVerificationManager. Each replay starts
+ * with the CC cache entry of the tag type recorded in the trace, so captures of known tag types
+ * replay the scan without the CC file read. Run with -PjmhIncludes=TraceReplay and the path of the trace as traceFile parameter, without a
+ * trace the scan of the simulated B10 tag is recorded and replayed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TraceReplayBenchmark {
+
+    /**
+     * Path of the binary APDU trace, empty to record the scan of the simulated tag
+     */
+    @Param({""})
+    public String traceFile;
+
+    /**
+     * Factor applied to the recorded transceive times, 0 measures the processing of the application only
+     */
+    @Param({"0", "1"})
+    public double timeScale;
+
+    private ApduTrace trace;
+    private ReplayTransport transport;
+    private byte[] mutualAuthData = new byte[KeyedMutualAuthenticator.COMMAND_DATA_LENGTH];
+
+    @Setup
+    public void setUp() throws IOException, ApduException, MutualAuthException {
+        if (traceFile.isEmpty()) {
+            RecordingTransport recorder = new RecordingTransport(SampleTag.B10.simulator(0),
+                    new CapabilityContainerCache(null));
+            trace = recorder.getTrace();
+            scan(recorder);
+        } else {
+            try (InputStream inputStream = new BufferedInputStream(new FileInputStream(traceFile))) {
+                trace = ApduTrace.readFrom(inputStream);
+            }
+            mutualAuthData = getMutualAuthData(trace);
+        }
+        transport = new ReplayTransport(trace, timeScale);
+        scan(transport);
+        if (transport.getRemaining() != 0) {
+            throw new IllegalStateException("Trace does not match the verification flow: "
+                    + transport.getRemaining() + " commands not replayed");
+        }
+    }
+
+    @Benchmark
+    public ApduResponse replayScan() throws ApduException, MutualAuthException {
+        return scan(transport);
+    }
+
+    /**
+     * Performs the tag communication of a verification with the CC cache entry recorded in the trace
+     *
+     * @param apduTransport transport to the tag
+     * @return response of the last command
+     */
+    private ApduResponse scan(ApduTransport apduTransport) throws ApduException, MutualAuthException {
+        NfcChannel nfcChannel = new NfcChannel(apduTransport, null);
+        nfcChannel.open();
+        CapabilityContainerCache ccCache = new CapabilityContainerCache(null);
+        trace.restoreCacheEntry(ccCache);
+        CommandManager commandManager = new CommandManager(nfcChannel, ErrorMessageResolver.DEFAULT, null, ccCache);
+        commandManager.readNDEFMessage();
+        commandManager.getChipUniqueID();
+        commandManager.getChallenge();
+        ApduResponse apduResponse = commandManager.mutualAuthenticate(mutualAuthData);
+        ApduResponse productInformation = commandManager.readProductInformation();
+        if (ProductInformationDecoder.parseProfileType(productInformation.getDataBuffer()) != ProfileType.A10) {
+            apduResponse = commandManager.readServiceInformation();
+        }
+        nfcChannel.close();
+        return apduResponse;
+    }
+
+    /**
+     * Returns the command data of the recorded MUTUAL AUTHENTICATE, which has been generated by the backend.
+     * The length is taken from the Lc of the command, as it depends on the backend and not on the simulated tag.
+     *
+     * @param trace recorded exchange
+     * @return command data
+     */
+    private static byte[] getMutualAuthData(ApduTrace trace) throws ApduException {
+        for (TraceEntry entry : trace.getEntries()) {
+            byte[] command = entry.getCommand();
+            if (command.length > 5 && command[1] == (byte) 0x82) {
+                return new ApduCommand(command).getData();
+            }
+        }
+        throw new IllegalStateException("No MUTUAL AUTHENTICATE in the trace");
+    }
+}
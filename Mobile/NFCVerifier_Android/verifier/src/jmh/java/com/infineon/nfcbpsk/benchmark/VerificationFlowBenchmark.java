@@ -0,0 +1,111 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.nfcbpsk.benchmark;
+
+import com.infineon.nfcbpsk.data.nfc.CapabilityContainerCache;
+import com.infineon.nfcbpsk.data.nfc.NfcChannel;
+import com.infineon.nfcbpsk.data.nfc.simulator.KeyedMutualAuthenticator;
+import com.infineon.nfcbpsk.data.nfc.simulator.Type4TagSimulator;
+import com.infineon.nfcbpsk.services.apdu.ApduException;
+import com.infineon.nfcbpsk.services.apdu.ApduResponse;
+import com.infineon.nfcbpsk.services.apdu.CommandManager;
+import com.infineon.nfcbpsk.services.apdu.ErrorMessageResolver;
+import com.infineon.nfcbpsk.services.apdu.MutualAuthException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the tag communication of a verification against a simulated tag. Each thread
+ * scans its own tag, so running with -t measures the throughput of parallel scans. With a
+ * latency per APDU the scan time is dominated by the number of round trips.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VerificationFlowBenchmark {
+
+    @Param
+    public SampleTag tag;
+
+    /**
+     * Latency of each APDU in microseconds, 0 measures the processing of the application only
+     */
+    @Param({"0"})
+    public long latencyMicros;
+
+    private final byte[] mutualAuthData = new byte[KeyedMutualAuthenticator.COMMAND_DATA_LENGTH];
+
+    private Type4TagSimulator simulator;
+    private CapabilityContainerCache ccCache;
+
+    @Setup
+    public void setUp() {
+        simulator = tag.simulator(latencyMicros);
+        ccCache = new CapabilityContainerCache(null);
+    }
+
+    /**
+     * Scan of a tag type seen for the first time
+     */
+    @Benchmark
+    public void firstScan(Blackhole blackhole) throws ApduException, MutualAuthException {
+        scan(new CapabilityContainerCache(null), blackhole);
+    }
+
+    /**
+     * Scan of a known tag type, the CC and the profile are cached
+     */
+    @Benchmark
+    public void repeatedScan(Blackhole blackhole) throws ApduException, MutualAuthException {
+        scan(ccCache, blackhole);
+    }
+
+    /**
+     * Performs the tag communication of a verification: NDEF message, Chip Unique ID, mutual
+     * authentication, product and service information
+     */
+    private void scan(CapabilityContainerCache cache, Blackhole blackhole)
+            throws ApduException, MutualAuthException {
+        NfcChannel nfcChannel = new NfcChannel(simulator, null);
+        nfcChannel.open();
+        CommandManager commandManager = new CommandManager(nfcChannel, ErrorMessageResolver.DEFAULT, null, cache);
+        blackhole.consume(commandManager.readNDEFMessage());
+        blackhole.consume(commandManager.getChipUniqueID());
+        blackhole.consume(commandManager.getChallenge());
+        blackhole.consume(commandManager.mutualAuthenticate(mutualAuthData));
+        blackhole.consume(commandManager.readProductInformation());
+        ApduResponse serviceInformation = commandManager.readServiceInformation();
+        nfcChannel.close();
+        blackhole.consume(serviceInformation);
+    }
+}
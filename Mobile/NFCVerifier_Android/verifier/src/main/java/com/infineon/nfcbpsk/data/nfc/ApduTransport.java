@@ -0,0 +1,82 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.nfcbpsk.data.nfc;
+
+import java.io.IOException;
+
+/**
+ * Transport of command and response APDUs to an ISO/IEC 14443-4 tag. Decouples the
+ * {@link NfcChannel} from the Android tag handle, so the verification flow can also run
+ * against a simulated tag.
+ */
+public interface ApduTransport {
+
+    /**
+     * Establishes the connection with the tag
+     *
+     * @throws IOException if the tag can not be connected
+     */
+    void connect() throws IOException;
+
+    /**
+     * Closes the connection with the tag
+     *
+     * @throws IOException if the connection can not be closed
+     */
+    void close() throws IOException;
+
+    /**
+     * Transmits a command APDU and returns the response APDU
+     *
+     * @param command command APDU
+     * @return response APDU including the status word
+     * @throws IOException if the tag is lost or the transmission fails
+     */
+    byte[] transceive(byte[] command) throws IOException;
+
+    /**
+     * Sets the time to wait for the response of a command before the tag is considered lost
+     *
+     * @param timeout timeout in milliseconds
+     */
+    void setTimeout(int timeout);
+
+    /**
+     * @return timeout of a command in milliseconds
+     */
+    int getTimeout();
+
+    /**
+     * @return true if extended length APDUs can be transmitted
+     */
+    boolean isExtendedLengthApduSupported();
+
+    /**
+     * @return maximum number of bytes of a command or response
+     */
+    int getMaxTransceiveLength();
+
+    /**
+     * @return historical bytes of an NFC-A tag, or null
+     */
+    byte[] getHistoricalBytes();
+
+    /**
+     * @return higher layer response of an NFC-B tag, or null
+     */
+    byte[] getHiLayerResponse();
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.nfcbpsk.data.nfc;
+
+import com.infineon.ndef.utils.HexCodec;
+import com.infineon.ndef.utils.UtilException;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of the capability container (CC) file content per tag type. Tags of the same
+ * product carry the same CC, so the NDEF file ID and MLe can be taken from the cache instead of
+ * selecting and reading the CC file on every scan. The least recently used entry is dropped
+ * when the cache is full. The entries are persisted in a {@link Storage}, on the phone the shared preferences.
+ */
+public final class CapabilityContainerCache {
+
+    /**
+     * Maximum number of cached tag types
+     */
+    private static final int MAX_ENTRIES = 16;
+
+    /**
+     * Separators of the persisted entries, keys and values are hex strings
+     */
+    private static final char ENTRY_SEPARATOR = ';';
+    private static final char VALUE_SEPARATOR = '=';
+
+    /**
+     * Storage of the entries, null if the cache is not persisted
+     */
+    private final Storage storage;
+
+    private final Map<String, byte[]> entries = new LinkedHashMap<String, byte[]>(MAX_ENTRIES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    /**
+     * Persistent storage of the serialized entries
+     */
+    public interface Storage {
+
+        /**
+         * @return the persisted entries, or null if none
+         */
+        String load();
+
+        /**
+         * Persists the entries
+         *
+         * @param entries serialized entries
+         */
+        void save(String entries);
+    }
+
+    /**
+     * Initializes the cache and loads the persisted entries
+     *
+     * @param storage storage of the entries, null to keep the entries in memory only
+     */
+    public CapabilityContainerCache(Storage storage) {
+        this.storage = storage;
+        if (storage != null) {
+            load(storage.load());
+        }
+    }
+
+    /**
+     * Returns the cached CC file content of the tag type
+     *
+     * @param tagIdentity Identity of the tag type, see {@link NfcChannel#getTagIdentity()}
+     * @return CC file content, or null if not cached
+     */
+    public synchronized byte[] get(String tagIdentity) {
+        byte[] capabilityContainer = entries.get(tagIdentity);
+        return capabilityContainer == null ? null : capabilityContainer.clone();
+    }
+
+    /**
+     * Stores the CC file content of the tag type
+     *
+     * @param tagIdentity         Identity of the tag type
+     * @param capabilityContainer CC file content
+     */
+    public synchronized void put(String tagIdentity, byte[] capabilityContainer) {
+        byte[] cached = entries.get(tagIdentity);
+        if (cached != null && Arrays.equals(cached, capabilityContainer)) {
+            return;
+        }
+        entries.put(tagIdentity, capabilityContainer.clone());
+        save();
+    }
+
+    /**
+     * Removes a stale entry of the tag type
+     *
+     * @param tagIdentity Identity of the tag type
+     */
+    public synchronized void remove(String tagIdentity) {
+        if (entries.remove(tagIdentity) != null) {
+            save();
+        }
+    }
+
+    /**
+     * Parses the persisted entries, malformed entries are skipped
+     *
+     * @param persisted Entries as "identity=cc;identity=cc"
+     */
+    private void load(String persisted) {
+        if (persisted == null) {
+            return;
+        }
+        for (String entry : persisted.split(String.valueOf(ENTRY_SEPARATOR))) {
+            int separator = entry.indexOf(VALUE_SEPARATOR);
+            if (separator <= 0) {
+                continue;
+            }
+            try {
+                entries.put(entry.substring(0, separator), HexCodec.decode(entry.substring(separator + 1)));
+            } catch (UtilException e) {
+                // skip malformed entry
+            }
+        }
+    }
+
+    /**
+     * Persists the entries in the order of their last use
+     */
+    private void save() {
+        if (storage == null) {
+            return;
+        }
+        StringBuilder persisted = new StringBuilder();
+        for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+            if (persisted.length() > 0) {
+                persisted.append(ENTRY_SEPARATOR);
+            }
+            persisted.append(entry.getKey()).append(VALUE_SEPARATOR).append(HexCodec.encode(entry.getValue()));
+        }
+        storage.save(persisted.toString());
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.nfcbpsk.data.nfc;
+
+import com.infineon.nfcbpsk.data.logger.Logger;
+import com.infineon.ndef.utils.HexCodec;
+import com.infineon.ndef.utils.Utils;
+import com.infineon.nfcbpsk.services.apdu.ApduCommand;
+import com.infineon.nfcbpsk.services.apdu.ApduException;
+import com.infineon.nfcbpsk.services.apdu.ApduResponse;
+
+import java.io.IOException;
+
+/**
+ * Provides the communication channel for NFC
+ */
+public class NfcChannel {
+    /**
+     * Transport to the tag
+     */
+    private final ApduTransport nfcTag;
+    final Logger fileLogger;
+    Boolean connected = false;
+
+    /**
+     * Maximum length of the commands serialized into the reusable command buffers
+     */
+    private static final int MAX_BUFFERED_COMMAND_LENGTH = 64;
+
+    /**
+     * Reusable command buffers indexed by the command length, as the tag handle takes
+     * the command as array of the exact length
+     */
+    private final byte[][] commandBuffers = new byte[MAX_BUFFERED_COMMAND_LENGTH + 1][];
+
+    /**
+     * Initializes the command handler with the transport to the tag, e.g. the IsoDep tag handle
+     * of the phone or a simulated tag
+     *
+     * @param transport  Transport used for communication with the tag
+     * @param fileLogger Logger of the transmitted APDUs, can be null
+     */
+    public NfcChannel(ApduTransport transport, Logger fileLogger) {
+        nfcTag = transport;
+        this.fileLogger = fileLogger;
+    }
+
+    /**
+     * Transmits the command APDU to the NFC tag and receives the APDU response
+     *
+     * @param command Command APDU to be transmitted
+     * @return Byte array of APDU response
+     */
+    public byte[] transmit(byte[] command) {
+        long startTime = System.nanoTime();
+        if (fileLogger != null) {
+            fileLogger.log(getCommandName(command), "");
+            fileLogger.log("-->", command);
+        }
+        byte[] resp;
+        try {
+            resp = nfcTag.transceive(command);
+            ApduResponse response = new ApduResponse(resp, 0);
+            if (fileLogger != null) {
+                if (response.getDataLength() > 0) {
+                    fileLogger.log("<--", response.getData());
+                }
+                fileLogger.log("SW:" + HexCodec.encode(Utils.getBytes(response.getSW()))
+                        + "   Data: " + response.getDataLength() + " bytes",
+                        "  Exec Time:" + (System.nanoTime() - startTime) / 1000000.0 + " ms");
+            }
+        } catch (IOException | ApduException e) {
+            e.printStackTrace();
+            if (fileLogger != null) {
+
+                fileLogger.log("sw", e.toString());
+            }
+            resp = new byte[]{0x00, 0x00};
+        }
+        return resp;
+    }
+
+    /**
+     * Transmits APDU command and receives the APDU response
+     *
+     * @param command APDU command to be transmitted to the tag
+     * @return Response from the tag
+     */
+    public ApduResponse transmit(ApduCommand command) throws ApduException {
+        ApduResponse response;
+        try {
+            byte[] resp = transmit(serialize(command));
+            response = new ApduResponse(resp, 0);
+        } catch (ApduException e) {
+            e.printStackTrace();
+            byte[] emptyResponse = {0x00, 0x00};
+            response = new ApduResponse(emptyResponse, 0);
+        }
+        return response;
+    }
+
+    /**
+     * Serializes the command into the reusable buffer of its length. The buffer is only valid
+     * until the next command of the same length is transmitted.
+     *
+     * @param command APDU command
+     * @return array of the exact command length holding the command
+     */
+    private byte[] serialize(ApduCommand command) {
+        int length = command.getLength();
+        if (length > MAX_BUFFERED_COMMAND_LENGTH) {
+            return command.toBytes();
+        }
+        byte[] buffer = commandBuffers[length];
+        if (buffer == null) {
+            buffer = new byte[length];
+            commandBuffers[length] = buffer;
+        }
+        command.writeTo(buffer, 0);
+        return buffer;
+    }
+
+    /**
+     * Sets the time to wait for the response of a command before the tag is considered lost
+     *
+     * @param timeout timeout in milliseconds
+     */
+    public void setTimeout(int timeout) {
+        nfcTag.setTimeout(timeout);
+    }
+
+    /**
+     * Returns the time to wait for the response of a command
+     *
+     * @return timeout in milliseconds
+     */
+    public int getTimeout() {
+        return nfcTag.getTimeout();
+    }
+
+    /**
+     * Indicates whether the phone and the tag support extended length APDUs
+     *
+     * @return true if extended length APDUs can be transmitted
+     */
+    public boolean isExtendedLengthApduSupported() {
+        return nfcTag.isExtendedLengthApduSupported();
+    }
+
+    /**
+     * Returns the maximum number of bytes of a command or response the phone can transceive
+     *
+     * @return maximum transceive length in bytes
+     */
+    public int getMaxTransceiveLength() {
+        return nfcTag.getMaxTransceiveLength();
+    }
+
+    /**
+     * Returns the identity of the tag type: the historical bytes of an NFC-A tag or the
+     * higher layer response of an NFC-B tag. Tags of the same product share the identity.
+     *
+     * @return Identity as hex string prefixed with the technology, or null if not available
+     */
+    public String getTagIdentity() {
+        return getTagIdentity(nfcTag.getHistoricalBytes(), nfcTag.getHiLayerResponse());
+    }
+
+    /**
+     * Returns the identity of the tag type from the historical bytes or the higher layer response
+     *
+     * @param historicalBytes historical bytes of an NFC-A tag, or null
+     * @param hiLayerResponse higher layer response of an NFC-B tag, or null
+     * @return Identity as hex string prefixed with the technology, or null if not available
+     */
+    public static String getTagIdentity(byte[] historicalBytes, byte[] hiLayerResponse) {
+        if (historicalBytes != null && historicalBytes.length > 0) {
+            return "A" + HexCodec.encode(historicalBytes);
+        }
+        if (hiLayerResponse != null && hiLayerResponse.length > 0) {
+            return "B" + HexCodec.encode(hiLayerResponse);
+        }
+        return null;
+    }
+
+    /**
+     * Establishes connection with the tag
+     *
+     * @return Flag indicating whether tag is connected
+     */
+    public boolean open() {
+        try {
+            nfcTag.connect();
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Disconnects the tag
+     */
+    public void close() {
+        try {
+            nfcTag.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Returns the human readable command name based on the APDU command. Used for logging purpose.
+     *
+     * @param command APDU command
+     * @return Name of the command
+     */
+    private String getCommandName(byte[] command) {
+        String name = "";
+        if (command.length >= 4) {
+            if (command[1] == (byte) 0xA4) {
+                if (command[2] == (byte) 0x04) {
+                    name = "Select File by AID";
+                }else if (command[2] == (byte) 0x00) {
+                    name = "Select File by FID";
+                }
+            } else if (command[1] == (byte) 0xB0) {
+                name = "Read Binary";
+            } else if (command[1] == (byte) 0x84) {
+                name = "Get Challenge";
+            } else if (command[1] == (byte) 0x82) {
+                name = "Mutual Authenticate";
+            } else {
+                name = "Unknown";
+            }
+        } else {
+            name = "Unknown";
+        }
+        return name;
+    }
+}
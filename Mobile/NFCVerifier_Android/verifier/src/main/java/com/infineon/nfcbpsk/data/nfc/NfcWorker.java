@@ -0,0 +1,158 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.nfcbpsk.data.nfc;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dedicated worker thread for the communication with the tag. The tasks are queued and run one
+ * after the other, so the commands never interleave and neither the thread delivering the tag
+ * nor the thread receiving a cloud response is blocked by the tag I/O.
+ * <br>
+ * The tasks belong to a session, which holds the channel of the presented tag. Ending a session
+ * drops its queued tasks and closes the channel, which aborts a transceive in progress. A session
+ * with a time limit is ended by the watchdog when the limit expires.
+ */
+public class NfcWorker implements Executor {
+    private final ExecutorService worker;
+    private final ScheduledExecutorService watchdog;
+
+    /**
+     * Guards the session state
+     */
+    private final Object lock = new Object();
+    private int session;
+    private NfcChannel channel;
+    private ScheduledFuture<?> deadline;
+
+    /**
+     * Creates the worker and the watchdog thread
+     */
+    public NfcWorker() {
+        worker = Executors.newSingleThreadExecutor(daemonThreadFactory("nfc-worker"));
+        watchdog = Executors.newSingleThreadScheduledExecutor(daemonThreadFactory("nfc-watchdog"));
+    }
+
+    /**
+     * Starts a session with the channel of a presented tag. A session still active is ended.
+     *
+     * @param nfcChannel    channel of the tag, closed when the session ends
+     * @param timeoutMillis time limit of the session in milliseconds, 0 for none
+     * @param onTimeout     run on the worker thread if the session is ended by the time limit, can be null
+     * @return id of the session
+     */
+    public int startSession(NfcChannel nfcChannel, long timeoutMillis, Runnable onTimeout) {
+        synchronized (lock) {
+            endSession(session, null);
+            final int id = ++session;
+            channel = nfcChannel;
+            if (timeoutMillis > 0) {
+                deadline = watchdog.schedule(() -> endSession(id, onTimeout), timeoutMillis, TimeUnit.MILLISECONDS);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * Queues a task of the current session. The task is dropped if the session has ended before
+     * it is run, or if there is no active session.
+     *
+     * @param task task communicating with the tag
+     */
+    @Override
+    public void execute(Runnable task) {
+        final int taskSession;
+        synchronized (lock) {
+            if (channel == null) {
+                return;
+            }
+            taskSession = session;
+        }
+        worker.execute(() -> {
+            if (isActive(taskSession)) {
+                task.run();
+            }
+        });
+    }
+
+    /**
+     * Indicates whether the session is still active
+     *
+     * @param id id of the session
+     * @return true if the session has not ended
+     */
+    public boolean isActive(int id) {
+        synchronized (lock) {
+            return id == session && channel != null;
+        }
+    }
+
+    /**
+     * Ends the session: the queued tasks are dropped, the time limit is cancelled and the channel
+     * is closed. Only the first call for a session has an effect, so of concurrent outcomes of a
+     * session, e.g. a result and the time limit, exactly one is reported.
+     *
+     * @param id      id of the session
+     * @param cleanup run on the worker thread after the task in progress, e.g. to report the outcome
+     *                without overlapping the tag I/O of the session, can be null
+     * @return true if the session was ended by this call
+     */
+    public boolean endSession(int id, Runnable cleanup) {
+        NfcChannel sessionChannel;
+        synchronized (lock) {
+            if (!isActive(id)) {
+                return false;
+            }
+            sessionChannel = channel;
+            channel = null;
+            if (deadline != null) {
+                deadline.cancel(false);
+                deadline = null;
+            }
+        }
+        sessionChannel.close();
+        if (cleanup != null) {
+            worker.execute(cleanup);
+        }
+        return true;
+    }
+
+    /**
+     * Ends the current session and stops the threads once the queued cleanup has run
+     */
+    public void shutdown() {
+        synchronized (lock) {
+            endSession(session, null);
+        }
+        worker.shutdown();
+        watchdog.shutdownNow();
+    }
+
+    private static ThreadFactory daemonThreadFactory(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
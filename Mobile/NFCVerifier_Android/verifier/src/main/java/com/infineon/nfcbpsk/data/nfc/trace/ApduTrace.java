@@ -0,0 +1,322 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.nfcbpsk.data.nfc.trace;
+
+import com.infineon.nfcbpsk.data.nfc.CapabilityContainerCache;
+import com.infineon.nfcbpsk.data.nfc.NfcChannel;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Recorded APDU exchange with a tag, see {@link RecordingTransport} and {@link ReplayTransport}.
+ * Besides the entries the trace keeps the properties of the tag and the phone the flow depends on,
+ * so a replay takes the same decisions as the recorded scan. This includes the entry of the tag type
+ * in the {@link CapabilityContainerCache} at the start of the scan, which decides whether the CC
+ * file is read.
+ * <br>
+ * Binary format, big endian, var is an unsigned LEB128 varint:
+ * <pre>
+ * header: "APDT" | version (1) | flags (1, bit 0: extended length) | max transceive length (var)
+ *         | start time in ms since epoch (8) | historical bytes (var length + bytes)
+ *         | higher layer response (var length + bytes)
+ *         | cached CC (var length + bytes, 0 if not cached)
+ * entry:  µs since the previous entry (var) | transceive time in µs (var)
+ *         | command (var length + bytes) | response (var length + 1 + bytes, 0 if failed)
+ * </pre>
+ * The entries follow the header up to the end of the stream. Traces of version 1 have no cache
+ * entry and are read as scans of a tag type that was not cached. Traces of version 2 additionally
+ * hold the product profile of the tag type after the cached CC, which is skipped.
+ */
+public final class ApduTrace {
+
+    private static final byte[] MAGIC = {'A', 'P', 'D', 'T'};
+    private static final int VERSION = 3;
+    private static final int VERSION_WITH_PROFILE = 2;
+    private static final int VERSION_WITHOUT_CACHE_ENTRY = 1;
+    private static final int FLAG_EXTENDED_LENGTH = 0x01;
+
+    private final long startTimeMillis;
+    private final boolean extendedLengthApduSupported;
+    private final int maxTransceiveLength;
+    private final byte[] historicalBytes;
+    private final byte[] hiLayerResponse;
+    private final byte[] cachedCapabilityContainer;
+    private final List<TraceEntry> entries = new ArrayList<>();
+
+    /**
+     * Creates an empty trace of a tag type that is not cached
+     *
+     * @param startTimeMillis             start of the recording in milliseconds since epoch
+     * @param extendedLengthApduSupported true if extended length APDUs could be transmitted
+     * @param maxTransceiveLength         maximum length of a command or response
+     * @param historicalBytes             historical bytes of an NFC-A tag, or null
+     * @param hiLayerResponse             higher layer response of an NFC-B tag, or null
+     */
+    public ApduTrace(long startTimeMillis, boolean extendedLengthApduSupported, int maxTransceiveLength,
+                     byte[] historicalBytes, byte[] hiLayerResponse) {
+        this(startTimeMillis, extendedLengthApduSupported, maxTransceiveLength, historicalBytes, hiLayerResponse,
+                null);
+    }
+
+    /**
+     * Creates an empty trace
+     *
+     * @param startTimeMillis             start of the recording in milliseconds since epoch
+     * @param extendedLengthApduSupported true if extended length APDUs could be transmitted
+     * @param maxTransceiveLength         maximum length of a command or response
+     * @param historicalBytes             historical bytes of an NFC-A tag, or null
+     * @param hiLayerResponse             higher layer response of an NFC-B tag, or null
+     * @param cachedCapabilityContainer   CC of the tag type cached at the start of the scan, or null
+     */
+    public ApduTrace(long startTimeMillis, boolean extendedLengthApduSupported, int maxTransceiveLength,
+                     byte[] historicalBytes, byte[] hiLayerResponse, byte[] cachedCapabilityContainer) {
+        this.startTimeMillis = startTimeMillis;
+        this.extendedLengthApduSupported = extendedLengthApduSupported;
+        this.maxTransceiveLength = maxTransceiveLength;
+        this.historicalBytes = historicalBytes == null ? null : historicalBytes.clone();
+        this.hiLayerResponse = hiLayerResponse == null ? null : hiLayerResponse.clone();
+        this.cachedCapabilityContainer = cachedCapabilityContainer == null ? null : cachedCapabilityContainer.clone();
+    }
+
+    /**
+     * Appends an entry
+     *
+     * @param entry recorded transceive
+     */
+    public synchronized void add(TraceEntry entry) {
+        entries.add(entry);
+    }
+
+    /**
+     * @return the recorded entries in the order of transmission
+     */
+    public synchronized List<TraceEntry> getEntries() {
+        return Collections.unmodifiableList(new ArrayList<>(entries));
+    }
+
+    /**
+     * @return start of the recording in milliseconds since epoch
+     */
+    public long getStartTimeMillis() {
+        return startTimeMillis;
+    }
+
+    /**
+     * @return true if extended length APDUs could be transmitted
+     */
+    public boolean isExtendedLengthApduSupported() {
+        return extendedLengthApduSupported;
+    }
+
+    /**
+     * @return maximum length of a command or response
+     */
+    public int getMaxTransceiveLength() {
+        return maxTransceiveLength;
+    }
+
+    /**
+     * @return historical bytes of an NFC-A tag, or null
+     */
+    public byte[] getHistoricalBytes() {
+        return historicalBytes == null ? null : historicalBytes.clone();
+    }
+
+    /**
+     * @return higher layer response of an NFC-B tag, or null
+     */
+    public byte[] getHiLayerResponse() {
+        return hiLayerResponse == null ? null : hiLayerResponse.clone();
+    }
+
+    /**
+     * @return identity of the tag type, see {@link NfcChannel#getTagIdentity()}, or null if not available
+     */
+    public String getTagIdentity() {
+        return NfcChannel.getTagIdentity(historicalBytes, hiLayerResponse);
+    }
+
+    /**
+     * @return CC of the tag type cached at the start of the scan, or null if the tag type was not cached
+     */
+    public byte[] getCachedCapabilityContainer() {
+        return cachedCapabilityContainer == null ? null : cachedCapabilityContainer.clone();
+    }
+
+    /**
+     * Sets the entry of the tag type in the cache to the state at the start of the recorded scan,
+     * so the replay reads the CC file only if the recorded scan did
+     *
+     * @param ccCache cache used by the replay
+     */
+    public void restoreCacheEntry(CapabilityContainerCache ccCache) {
+        String tagIdentity = getTagIdentity();
+        if (tagIdentity == null) {
+            return;
+        }
+        ccCache.remove(tagIdentity);
+        if (cachedCapabilityContainer != null) {
+            ccCache.put(tagIdentity, cachedCapabilityContainer);
+        }
+    }
+
+    /**
+     * Writes the trace in the binary format. The stream is not closed.
+     *
+     * @param outputStream destination of the trace
+     * @throws IOException if the stream can not be written
+     */
+    public void writeTo(OutputStream outputStream) throws IOException {
+        DataOutputStream out = new DataOutputStream(outputStream);
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte(extendedLengthApduSupported ? FLAG_EXTENDED_LENGTH : 0);
+        writeVarint(out, maxTransceiveLength);
+        out.writeLong(startTimeMillis);
+        writeBytes(out, historicalBytes == null ? new byte[0] : historicalBytes);
+        writeBytes(out, hiLayerResponse == null ? new byte[0] : hiLayerResponse);
+        writeBytes(out, cachedCapabilityContainer == null ? new byte[0] : cachedCapabilityContainer);
+        long previousTimestamp = 0;
+        for (TraceEntry entry : getEntries()) {
+            writeVarint(out, entry.getTimestampMicros() - previousTimestamp);
+            writeVarint(out, entry.getTransceiveMicros());
+            writeBytes(out, entry.command());
+            byte[] response = entry.response();
+            if (response == null) {
+                writeVarint(out, 0);
+            } else {
+                writeVarint(out, response.length + 1L);
+                out.write(response);
+            }
+            previousTimestamp = entry.getTimestampMicros();
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads a trace in the binary format up to the end of the stream
+     *
+     * @param inputStream source of the trace
+     * @return the trace
+     * @throws IOException if the stream can not be read or does not contain a trace
+     */
+    public static ApduTrace readFrom(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(inputStream);
+        byte[] magic = new byte[MAGIC.length];
+        in.readFully(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not an APDU trace");
+        }
+        int version = in.readUnsignedByte();
+        if (version != VERSION && version != VERSION_WITH_PROFILE && version != VERSION_WITHOUT_CACHE_ENTRY) {
+            throw new IOException("Unsupported APDU trace version " + version);
+        }
+        int flags = in.readUnsignedByte();
+        int maxTransceiveLength = (int) readVarint(in);
+        long startTimeMillis = in.readLong();
+        byte[] historicalBytes = readBytes(in);
+        byte[] hiLayerResponse = readBytes(in);
+        byte[] cachedCapabilityContainer = new byte[0];
+        if (version != VERSION_WITHOUT_CACHE_ENTRY) {
+            cachedCapabilityContainer = readBytes(in);
+        }
+        if (version == VERSION_WITH_PROFILE) {
+            readVarint(in);
+        }
+        ApduTrace trace = new ApduTrace(startTimeMillis, (flags & FLAG_EXTENDED_LENGTH) != 0, maxTransceiveLength,
+                historicalBytes.length > 0 ? historicalBytes : null,
+                hiLayerResponse.length > 0 ? hiLayerResponse : null,
+                cachedCapabilityContainer.length > 0 ? cachedCapabilityContainer : null);
+        long timestamp = 0;
+        int first;
+        while ((first = in.read()) >= 0) {
+            timestamp += readVarint(in, first);
+            long transceiveMicros = readVarint(in);
+            byte[] command = readBytes(in);
+            long responseLength = readVarint(in);
+            byte[] response = null;
+            if (responseLength > 0) {
+                response = new byte[checkLength(responseLength - 1)];
+                in.readFully(response);
+            }
+            trace.add(new TraceEntry(timestamp, command, response, transceiveMicros));
+        }
+        return trace;
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        writeVarint(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[checkLength(readVarint(in))];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static void writeVarint(DataOutputStream out, long value) throws IOException {
+        if (value < 0) {
+            throw new IOException("Negative value in APDU trace");
+        }
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarint(DataInputStream in) throws IOException {
+        int first = in.read();
+        if (first < 0) {
+            throw new EOFException("Truncated APDU trace");
+        }
+        return readVarint(in, first);
+    }
+
+    private static long readVarint(DataInputStream in, int first) throws IOException {
+        long value = first & 0x7F;
+        int b = first;
+        for (int shift = 7; (b & 0x80) != 0; shift += 7) {
+            if (shift > 63) {
+                throw new IOException("Malformed varint in APDU trace");
+            }
+            b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+        }
+        return value;
+    }
+
+    /**
+     * Limits the length of an APDU, extended length responses are at most 65538 bytes
+     */
+    private static int checkLength(long length) throws IOException {
+        if (length > 0x10002) {
+            throw new IOException("Invalid APDU length in APDU trace: " + length);
+        }
+        return (int) length;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.nfcbpsk.data.nfc.trace;
+
+import com.infineon.nfcbpsk.data.nfc.ApduTransport;
+import com.infineon.nfcbpsk.data.nfc.CapabilityContainerCache;
+import com.infineon.nfcbpsk.data.nfc.NfcChannel;
+
+import java.io.IOException;
+
+/**
+ * Transport recording every transceive of the wrapped transport into an {@link ApduTrace}. The
+ * trace is kept in memory and written by the caller once the scan is complete, so the recording
+ * adds no I/O to the exchange with the tag.
+ */
+public class RecordingTransport implements ApduTransport {
+
+    private final ApduTransport transport;
+    private final ApduTrace trace;
+    private final long startNanos;
+
+    /**
+     * Initializes the recording of a scan without CC cache, the properties of the tag are taken
+     * from the transport
+     *
+     * @param transport transport to the tag
+     */
+    public RecordingTransport(ApduTransport transport) {
+        this(transport, null);
+    }
+
+    /**
+     * Initializes the recording, the properties of the tag are taken from the transport and the
+     * entry of the tag type from the cache. The recording has to be created before the scan
+     * updates the cache.
+     *
+     * @param transport transport to the tag
+     * @param ccCache   cache used by the scan, or null
+     */
+    public RecordingTransport(ApduTransport transport, CapabilityContainerCache ccCache) {
+        this.transport = transport;
+        byte[] historicalBytes = transport.getHistoricalBytes();
+        byte[] hiLayerResponse = transport.getHiLayerResponse();
+        String tagIdentity = NfcChannel.getTagIdentity(historicalBytes, hiLayerResponse);
+        byte[] cachedCapabilityContainer = ccCache == null || tagIdentity == null ? null : ccCache.get(tagIdentity);
+        this.trace = new ApduTrace(System.currentTimeMillis(), transport.isExtendedLengthApduSupported(),
+                transport.getMaxTransceiveLength(), historicalBytes, hiLayerResponse, cachedCapabilityContainer);
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * @return the trace recorded so far
+     */
+    public ApduTrace getTrace() {
+        return trace;
+    }
+
+    @Override
+    public void connect() throws IOException {
+        transport.connect();
+    }
+
+    @Override
+    public void close() throws IOException {
+        transport.close();
+    }
+
+    @Override
+    public byte[] transceive(byte[] command) throws IOException {
+        long start = System.nanoTime();
+        byte[] response = null;
+        try {
+            response = transport.transceive(command);
+            return response;
+        } finally {
+            long end = System.nanoTime();
+            trace.add(new TraceEntry((start - startNanos) / 1000, command, response, (end - start) / 1000));
+        }
+    }
+
+    @Override
+    public void setTimeout(int timeout) {
+        transport.setTimeout(timeout);
+    }
+
+    @Override
+    public int getTimeout() {
+        return transport.getTimeout();
+    }
+
+    @Override
+    public boolean isExtendedLengthApduSupported() {
+        return transport.isExtendedLengthApduSupported();
+    }
+
+    @Override
+    public int getMaxTransceiveLength() {
+        return transport.getMaxTransceiveLength();
+    }
+
+    @Override
+    public byte[] getHistoricalBytes() {
+        return transport.getHistoricalBytes();
+    }
+
+    @Override
+    public byte[] getHiLayerResponse() {
+        return transport.getHiLayerResponse();
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.nfcbpsk.data.nfc.trace;
+
+import com.infineon.nfcbpsk.data.nfc.ApduTransport;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Transport serving the responses of an {@link ApduTrace}, e.g. a capture of a real tag, to replay
+ * a scan deterministically on any machine. Each command must equal the recorded one, otherwise the
+ * transceive fails, as the recorded responses only fit the recorded flow. A recorded failure, e.g.
+ * a lost tag, is replayed as IOException. The flow only sends the recorded commands if the CC cache
+ * holds the entry of the tag type recorded at the start of the scan, see
+ * {@link ApduTrace#restoreCacheEntry(com.infineon.nfcbpsk.data.nfc.CapabilityContainerCache)}.
+ * <br>
+ * Each transceive takes the recorded transceive time multiplied by the time scale: 1 replays the
+ * original timing, 0 returns at once. The time between the commands is spent by the code under test
+ * and therefore not replayed. {@link #connect()} rewinds the trace, so one instance serves any
+ * number of replays.
+ */
+public class ReplayTransport implements ApduTransport {
+
+    private final ApduTrace trace;
+    private final List<TraceEntry> entries;
+    private final double timeScale;
+
+    /**
+     * Timeout of a command in milliseconds, 0 waits for any recorded time
+     */
+    private int timeout;
+    private int position;
+
+    /**
+     * Initializes the replay with the original timing
+     *
+     * @param trace recorded exchange
+     */
+    public ReplayTransport(ApduTrace trace) {
+        this(trace, 1.0);
+    }
+
+    /**
+     * Initializes the replay
+     *
+     * @param trace     recorded exchange
+     * @param timeScale factor applied to the recorded transceive times, 0 to replay without delay
+     */
+    public ReplayTransport(ApduTrace trace, double timeScale) {
+        if (timeScale < 0) {
+            throw new IllegalArgumentException("Negative time scale " + timeScale);
+        }
+        this.trace = trace;
+        this.entries = trace.getEntries();
+        this.timeScale = timeScale;
+    }
+
+    /**
+     * @return number of recorded transceives not replayed yet
+     */
+    public int getRemaining() {
+        return entries.size() - position;
+    }
+
+    @Override
+    public void connect() {
+        position = 0;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public byte[] transceive(byte[] command) throws IOException {
+        if (position >= entries.size()) {
+            throw new IOException("APDU trace exhausted after " + entries.size() + " commands");
+        }
+        TraceEntry entry = entries.get(position);
+        if (!entry.matches(command)) {
+            throw new IOException("Command " + position + " differs from the APDU trace");
+        }
+        position++;
+        long delayNanos = (long) (TimeUnit.MICROSECONDS.toNanos(entry.getTransceiveMicros()) * timeScale);
+        if (timeout > 0 && delayNanos > TimeUnit.MILLISECONDS.toNanos(timeout)) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(timeout));
+            throw new IOException("Transceive timed out");
+        }
+        if (delayNanos > 0) {
+            LockSupport.parkNanos(delayNanos);
+        }
+        if (entry.isFailed()) {
+            throw new IOException("Transceive failed in the APDU trace");
+        }
+        return entry.getResponse();
+    }
+
+    @Override
+    public void setTimeout(int timeout) {
+        this.timeout = timeout;
+    }
+
+    @Override
+    public int getTimeout() {
+        return timeout;
+    }
+
+    @Override
+    public boolean isExtendedLengthApduSupported() {
+        return trace.isExtendedLengthApduSupported();
+    }
+
+    @Override
+    public int getMaxTransceiveLength() {
+        return trace.getMaxTransceiveLength();
+    }
+
+    @Override
+    public byte[] getHistoricalBytes() {
+        return trace.getHistoricalBytes();
+    }
+
+    @Override
+    public byte[] getHiLayerResponse() {
+        return trace.getHiLayerResponse();
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.nfcbpsk.data.nfc.trace;
+
+import java.util.Arrays;
+
+/**
+ * One recorded transceive of an {@link ApduTrace}
+ */
+public final class TraceEntry {
+
+    private final long timestampMicros;
+    private final byte[] command;
+    private final byte[] response;
+    private final long transceiveMicros;
+
+    /**
+     * Creates an entry
+     *
+     * @param timestampMicros  start of the transceive in microseconds since the start of the trace
+     * @param command          command APDU
+     * @param response         response APDU, or null if the transceive failed
+     * @param transceiveMicros duration of the transceive in microseconds
+     */
+    public TraceEntry(long timestampMicros, byte[] command, byte[] response, long transceiveMicros) {
+        this.timestampMicros = timestampMicros;
+        this.command = command.clone();
+        this.response = response == null ? null : response.clone();
+        this.transceiveMicros = transceiveMicros;
+    }
+
+    /**
+     * @return start of the transceive in microseconds since the start of the trace
+     */
+    public long getTimestampMicros() {
+        return timestampMicros;
+    }
+
+    /**
+     * @return command APDU
+     */
+    public byte[] getCommand() {
+        return command.clone();
+    }
+
+    /**
+     * Returns true if the command equals the recorded one, without copying it
+     *
+     * @param command command APDU
+     * @return true if the commands are equal
+     */
+    public boolean matches(byte[] command) {
+        return Arrays.equals(this.command, command);
+    }
+
+    /**
+     * @return response APDU, or null if the transceive failed, e.g. the tag was lost
+     */
+    public byte[] getResponse() {
+        return response == null ? null : response.clone();
+    }
+
+    /**
+     * @return true if the transceive failed
+     */
+    public boolean isFailed() {
+        return response == null;
+    }
+
+    /**
+     * @return duration of the transceive in microseconds
+     */
+    public long getTransceiveMicros() {
+        return transceiveMicros;
+    }
+
+    /**
+     * @return response APDU without copy, or null
+     */
+    byte[] response() {
+        return response;
+    }
+
+    /**
+     * @return command APDU without copy
+     */
+    byte[] command() {
+        return command;
+    }
+}
@@ -19,6 +19,8 @@ package com.infineon.nfcbpsk.services.apdu;
 
 import com.infineon.ndef.utils.Utils;
 import org.jetbrains.annotations.NotNull;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 /**
@@ -57,6 +59,16 @@ public class ApduCommand {
 
     private boolean forceExtended = false;
 
+    /**
+     * Cached length of the serialized command, -1 if it has to be computed
+     */
+    private int mLength = -1;
+
+    /**
+     * Empty command data
+     */
+    private static final byte[] NO_DATA = new byte[0];
+
     /**
      * Builds an APDU from CLA, INS, P1, P2, Command data and Le byte.
      *
@@ -69,13 +81,40 @@ public class ApduCommand {
      * @throws ApduException if command data cannot be converted into a byte stream.
      */
     public ApduCommand(int cla, int ins, int p1, int p2, Object data, int le) throws ApduException {
+        this(cla, ins, p1, p2, ApduUtils.toBytes(data), le);
+    }
+
+    /**
+     * Builds an APDU from CLA, INS, P1, P2, Command data and Le byte. The command data is not copied.
+     *
+     * @param cla  class byte
+     * @param ins  instruction byte
+     * @param p1   parameter byte 1
+     * @param p2   parameter byte 2
+     * @param data command data, null for no command data
+     * @param le   expected response data length
+     */
+    public ApduCommand(int cla, int ins, int p1, int p2, byte[] data, int le) {
         mHeader = new byte[4];
         mHeader[0] = (byte) cla;
         mHeader[1] = (byte) ins;
         mHeader[2] = (byte) p1;
         mHeader[3] = (byte) p2;
         mLe = le;
-        mData = ApduUtils.toBytes(data);
+        mData = data != null ? data : NO_DATA;
+    }
+
+    /**
+     * Builds an APDU without command data from CLA, INS, P1, P2 and Le byte.
+     *
+     * @param cla  class byte
+     * @param ins  instruction byte
+     * @param p1   parameter byte 1
+     * @param p2   parameter byte 2
+     * @param le   expected response data length
+     */
+    public ApduCommand(int cla, int ins, int p1, int p2, int le) {
+        this(cla, ins, p1, p2, NO_DATA, le);
     }
 
     /**
@@ -286,6 +325,7 @@ public class ApduCommand {
      */
     public ApduCommand setData(Object data) throws ApduException {
         mData = ApduUtils.toBytes(data);
+        mLength = -1;
         if (!checkExtendedApdu())
             forceExtended = false;
         return this;
@@ -309,6 +349,7 @@ public class ApduCommand {
      */
     public ApduCommand setLe(int expectedLength) {
         mLe = expectedLength;
+        mLength = -1;
         if (!checkExtendedApdu())
             forceExtended = false;
         return this;
@@ -329,6 +370,18 @@ public class ApduCommand {
      * @return length of the APDU command including the header, data and potential Le byte.
      */
     public int getLength() {
+        if (mLength < 0) {
+            mLength = computeLength();
+        }
+        return mLength;
+    }
+
+    /**
+     * Computes the length of the APDU command in bytes.
+     *
+     * @return length of the APDU command including the header, data and potential Le byte.
+     */
+    private int computeLength() {
         int iLength, m_iLc = mData.length;
 
         if (m_iLc == 0) {
@@ -377,14 +430,29 @@ public class ApduCommand {
      *
      * @return byte array containing the APDU command.
      */
-    @SuppressWarnings("UnusedAssignment")
     public byte[] toBytes() {
-
         byte[] commandBytes = new byte[getLength()];
-        int iOffset = 4, iLc = mData.length;
+        writeTo(commandBytes, 0);
+        return commandBytes;
+    }
+
+    /**
+     * Writes the byte sequence representation of the APDU command into the array.
+     *
+     * @param commandBytes destination array, must have room for {@link #getLength()} bytes
+     * @param offset       offset of the command in the destination array
+     * @return number of bytes written
+     */
+    @SuppressWarnings("UnusedAssignment")
+    public int writeTo(byte[] commandBytes, int offset) {
+        int length = getLength();
+        if (offset < 0 || commandBytes.length - offset < length) {
+            throw new IndexOutOfBoundsException("APDU command of " + length + " bytes exceeds the destination");
+        }
+        int iOffset = offset + 4, iLc = mData.length;
 
         // set first four header bytes
-        System.arraycopy(mHeader, 0, commandBytes, 0, 4);
+        System.arraycopy(mHeader, 0, commandBytes, offset, 4);
 
         // check if short APDU format
         if ((iLc <= 255) && (mLe <= 256) && !forceExtended) {
@@ -423,7 +491,28 @@ public class ApduCommand {
             }
         }
 
-        return commandBytes;
+        return length;
+    }
+
+    /**
+     * Writes the byte sequence representation of the APDU command at the position of the buffer
+     * and moves the position behind the command.
+     *
+     * @param buffer destination buffer, must have room for {@link #getLength()} bytes
+     * @return number of bytes written
+     */
+    public int writeTo(ByteBuffer buffer) {
+        int length = getLength();
+        if (buffer.remaining() < length) {
+            throw new BufferOverflowException();
+        }
+        if (buffer.hasArray()) {
+            writeTo(buffer.array(), buffer.arrayOffset() + buffer.position());
+            buffer.position(buffer.position() + length);
+        } else {
+            buffer.put(toBytes());
+        }
+        return length;
     }
 
     /**
@@ -457,6 +546,7 @@ public class ApduCommand {
                 forceExtended = true;
             }
         }
+        mLength = -1;
     }
 
     @NotNull
@@ -479,6 +569,7 @@ public class ApduCommand {
         // build new data array
         mData = Arrays.copyOf(mData, iOldLength + iNewLength);
         System.arraycopy(abData, 0, mData, iOldLength, iNewLength);
+        mLength = -1;
 
         return this;
     }
@@ -53,7 +53,7 @@ public class ApduCommandBuilder {
         int p1 = (byte) ((p1p2 >> 8) & 0xff);
         int p2 = (byte) ((p1p2) & 0xff);
 
-        return new ApduCommand(cla, ins, p1, p2, null, le);
+        return new ApduCommand(cla, ins, p1, p2, le);
     }
 
     /**
@@ -68,7 +68,7 @@ public class ApduCommandBuilder {
         int p1 = (byte) 0x00;
         int p2 = (byte) 0x00;
         int le = (byte) 0x16;
-        return new ApduCommand(cla, ins, p1, p2, null, le);
+        return new ApduCommand(cla, ins, p1, p2, le);
     }
 
     /**
@@ -17,13 +17,18 @@
 
 package com.infineon.nfcbpsk.services.apdu;
 
-import com.infineon.ndef.utils.Utils;
+import com.infineon.ndef.utils.HexCodec;
 import org.jetbrains.annotations.NotNull;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 /**
  * Stores the APDU responses. The response consists of response data (optional) and
  * a status word (mandatory).
+ * <br>
+ * The response data can be accessed without copying through {@link #getDataBuffer()},
+ * {@link #getDataByte(int)} and {@link #getDataUINT16(int)}, and compared in place with
+ * {@link #dataEquals(byte[])}. {@link #getData()} returns a copy on every call.
  */
 public class ApduResponse {
     /**
@@ -41,6 +46,16 @@ public class ApduResponse {
      */
     private byte[] response;
 
+    /**
+     * Length of the response data and status word in the array, the array may be longer
+     */
+    private int length;
+
+    /**
+     * Status word, cached as it is evaluated several times per response
+     */
+    private int sw;
+
     /**
      * Command execution time
      */
@@ -62,6 +77,26 @@ public class ApduResponse {
             // build dummy response
             this.response = new byte[2];
         }
+        length = this.response.length;
+        sw = ApduUtils.getShort(this.response, length - 2);
+    }
+
+    /**
+     * Build a response sharing the given array, e.g. the buffer the responses of a READ BINARY
+     * loop have been accumulated in. The array must not be modified afterwards.
+     *
+     * @param response array containing response data followed by the status word
+     * @param length   length of response data and status word in the array
+     * @param execTime Command execution time in nanoseconds
+     */
+    ApduResponse(byte[] response, int length, long execTime) {
+        if (length < 2 || length > response.length) {
+            throw new IllegalArgumentException("Invalid response length " + length);
+        }
+        this.response = response;
+        this.length = length;
+        m_lExecTime = execTime;
+        sw = ApduUtils.getShort(response, length - 2);
     }
 
     /**
@@ -87,8 +122,10 @@ public class ApduResponse {
 
         if (length >= 2) {
             // append response data and overwrite status word of existing response
-            response = Arrays.copyOf(response, response.length + length - 2);
+            response = Arrays.copyOf(response, this.length + length - 2);
             System.arraycopy(newResponse, 0, response, response.length - length, length);
+            this.length = response.length;
+            sw = ApduUtils.getShort(response, this.length - 2);
         }
 
         return this;
@@ -127,8 +164,8 @@ public class ApduResponse {
      * @throws ApduException if received data length does not match to expected value.
      */
     public ApduResponse checkDataLength(int length) throws ApduException {
-        if (length != response.length - 2) {
-            throw new ApduException(String.format("Unexpected response data length %d", response.length - 2));
+        if (length != this.length - 2) {
+            throw new ApduException(String.format("Unexpected response data length %d", this.length - 2));
         }
 
         return this;
@@ -146,7 +183,7 @@ public class ApduResponse {
 
         checkDataLength(abExpectedResponse.length);
 
-        if (!Arrays.equals(abExpectedResponse, getData()))
+        if (!dataEquals(abExpectedResponse))
             throw new ApduException("Unexpected response data!");
 
         return this;
@@ -162,10 +199,11 @@ public class ApduResponse {
     public ApduResponse checkResponse(Object expectedResponse) throws ApduException {
         byte[] abExpectedResponse = ApduUtils.toBytes(expectedResponse);
 
-        if (abExpectedResponse.length != response.length)
-            throw new ApduException(String.format("Unexpected response length %d!", response.length - 2));
-        if (!Arrays.equals(abExpectedResponse, response))
-            throw new ApduException("Unexpected response!");
+        if (abExpectedResponse.length != length)
+            throw new ApduException(String.format("Unexpected response length %d!", length - 2));
+        for (int i = 0; i < length; i++)
+            if (abExpectedResponse[i] != response[i])
+                throw new ApduException("Unexpected response!");
         return this;
     }
 
@@ -180,36 +218,39 @@ public class ApduResponse {
      * @throws ApduException If there is APDU or communication related failures
      */
     public ApduResponse check(Object dataMask, Object data, Object swMask, Object sw) throws ApduException {
-        byte[] resp = toBytes();
+        int dataLength = length - 2;
 
-        // check if response must be masked
+        // check if response must be masked, the mask is applied while comparing
+        byte[] mask = null;
         if (dataMask != null) {
-            byte[] mask = ApduUtils.toBytes(dataMask);
-            if (resp.length - 2 != mask.length)
+            mask = ApduUtils.toBytes(dataMask);
+            if (dataLength != mask.length)
                 throw new ApduException("Card in terminal is no valid debug target");
-            for (int i = 0; i < mask.length; i++)
-                resp[i] &= mask[i];
         }
 
         // check if status word must be masked
+        byte sw1 = response[length - 2];
+        byte sw2 = response[length - 1];
         if (swMask != null) {
-            byte[] mask = ApduUtils.toBytes(swMask);
-            if (mask.length != 2)
+            byte[] swMaskBytes = ApduUtils.toBytes(swMask);
+            if (swMaskBytes.length != 2)
                 throw new ApduException("Status word mask must be two bytes long");
-            resp[resp.length - 2] &= mask[0];
-            resp[resp.length - 1] &= mask[1];
+            sw1 &= swMaskBytes[0];
+            sw2 &= swMaskBytes[1];
         }
 
         // check if response data must be checked
         if (data != null) {
             byte[] dataBytes = ApduUtils.toBytes(data);
 
-            if (resp.length - 2 != dataBytes.length)
+            if (dataLength != dataBytes.length)
                 throw new ApduException("Card in terminal is no valid debug target");
 
-            for (int i = 0; i < dataBytes.length; i++)
-                if (resp[i] != dataBytes[i])
+            for (int i = 0; i < dataBytes.length; i++) {
+                byte value = mask == null ? response[i] : (byte) (response[i] & mask[i]);
+                if (value != dataBytes[i])
                     throw new ApduException("Card in terminal is no valid debug target");
+            }
         }
 
         // check if status word must be checked
@@ -218,7 +259,7 @@ public class ApduResponse {
             byte[] swBytes = ApduUtils.toBytes(sw);
 
             for (int i = 0; i < swBytes.length - 1; i += 2)
-                if ((swBytes[i] == resp[resp.length - 2]) && (swBytes[i + 1] == resp[resp.length - 1])) {
+                if ((swBytes[i] == sw1) && (swBytes[i + 1] == sw2)) {
                     match = true;
                     break;
                 }
@@ -236,7 +277,7 @@ public class ApduResponse {
      * @return status word as integer (always positive value).
      */
     public int getSW() {
-        return ApduUtils.getShort(response, response.length - 2);
+        return sw;
     }
 
     /**
@@ -245,7 +286,72 @@ public class ApduResponse {
      * @return array containing the response data.
      */
     public byte[] getData() {
-        return Arrays.copyOf(response, response.length - 2);
+        return Arrays.copyOf(response, length - 2);
+    }
+
+    /**
+     * Get a read-only view of the response data without copying it. The view starts at
+     * index 0 and is limited to the response data, the status word is not included.
+     *
+     * @return read-only buffer of the response data.
+     */
+    public ByteBuffer getDataBuffer() {
+        return ByteBuffer.wrap(response, 0, length - 2).slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * Get one byte of the response data.
+     *
+     * @param index index in the response data.
+     * @return byte at the index.
+     * @throws IndexOutOfBoundsException if the index is outside of the response data.
+     */
+    public byte getDataByte(int index) {
+        checkDataIndex(index, 1);
+        return response[index];
+    }
+
+    /**
+     * Get two bytes of the response data as unsigned big endian value.
+     *
+     * @param index index of the first byte in the response data.
+     * @return unsigned 16 bit value.
+     * @throws IndexOutOfBoundsException if the bytes are outside of the response data.
+     */
+    public int getDataUINT16(int index) {
+        checkDataIndex(index, 2);
+        return ApduUtils.getShort(response, index);
+    }
+
+    /**
+     * Compare the response data with the expected data without copying it.
+     *
+     * @param expected expected response data without status word.
+     * @return true if the response data is equal to the expected data.
+     */
+    public boolean dataEquals(byte[] expected) {
+        return expected.length == length - 2 && dataEquals(0, expected, 0, expected.length);
+    }
+
+    /**
+     * Compare a range of the response data with a range of the expected data without copying it.
+     *
+     * @param index          index in the response data.
+     * @param expected       array holding the expected data.
+     * @param expectedOffset offset of the expected data in the array.
+     * @param count          number of bytes to compare.
+     * @return true if the range is inside the response data and equal to the expected data.
+     */
+    public boolean dataEquals(int index, byte[] expected, int expectedOffset, int count) {
+        if (index < 0 || count < 0 || index + count > length - 2) {
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            if (response[index + i] != expected[expectedOffset + i]) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -254,7 +360,31 @@ public class ApduResponse {
      * @return length of response data.
      */
     public int getDataLength() {
-        return response.length - 2;
+        return length - 2;
+    }
+
+    /**
+     * Copy the response data into the array.
+     *
+     * @param destination array receiving the response data
+     * @param offset      offset in the destination
+     * @return number of bytes copied
+     */
+    public int copyData(byte[] destination, int offset) {
+        System.arraycopy(response, 0, destination, offset, length - 2);
+        return length - 2;
+    }
+
+    /**
+     * Checks that the range is inside the response data
+     *
+     * @param index index in the response data
+     * @param count number of bytes
+     */
+    private void checkDataIndex(int index, int count) {
+        if (index < 0 || index + count > length - 2) {
+            throw new IndexOutOfBoundsException("Index " + index + " exceeds the response data");
+        }
     }
 
     /**
@@ -263,13 +393,13 @@ public class ApduResponse {
      * @return byte array containing response and status word.
      */
     public byte[] toBytes() {
-        return response.clone();
+        return Arrays.copyOf(response, length);
     }
 
     @NotNull
     @Override
     public String toString() {
-        return Utils.toHexString(response);
+        return HexCodec.encode(response, 0, length, ' ');
     }
 
     /**
@@ -290,7 +420,7 @@ public class ApduResponse {
      * @return returns the flag to setup command execution status Z
      */
     public boolean isSuccessSW() {
-        return getSW() == SW_NO_ERROR;
+        return sw == SW_NO_ERROR;
 
     }
 }
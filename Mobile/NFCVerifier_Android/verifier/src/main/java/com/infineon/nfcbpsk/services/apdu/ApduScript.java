@@ -0,0 +1,235 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.nfcbpsk.services.apdu;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Declaration of a fixed sequence of APDU commands. Each step is a command template in hex
+ * notation, e.g. "00 B0 {OFFSET:2} {LE}", where a slot {NAME} stands for one byte and {NAME:n}
+ * for n bytes of a variable in big endian order. The templates are parsed once when the script
+ * is declared; {@link #compile(Values)} fills the slots and serializes every command, so the
+ * compiled script is executed without building any command.
+ * <br>
+ * As the templates are plain strings, a sequence can be tuned per tag profile without changing
+ * the code that executes it.
+ */
+public final class ApduScript {
+
+    private final List<Step> steps;
+
+    private ApduScript(List<Step> steps) {
+        this.steps = steps;
+    }
+
+    /**
+     * Creates an empty builder
+     *
+     * @return builder of a script
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the number of steps
+     *
+     * @return number of commands of the script
+     */
+    public int size() {
+        return steps.size();
+    }
+
+    /**
+     * Fills the slots of all steps with the values and serializes the commands
+     *
+     * @param values values of the variables used in the templates
+     * @return the compiled script
+     * @throws IllegalArgumentException if a variable has no value, a value does not fit into its slot
+     *                                  or a filled template is no valid command APDU
+     */
+    public CompiledApduScript compile(Values values) {
+        byte[][] commands = new byte[steps.size()][];
+        int[][] expectedSW = new int[steps.size()][];
+        ErrorMessage[] failureMessages = new ErrorMessage[steps.size()];
+        for (int i = 0; i < steps.size(); i++) {
+            Step step = steps.get(i);
+            commands[i] = step.fill(values);
+            expectedSW[i] = step.expectedSW.clone();
+            failureMessages[i] = step.failureMessage;
+        }
+        return new CompiledApduScript(commands, expectedSW, failureMessages);
+    }
+
+    /**
+     * Values of the template variables
+     */
+    public static final class Values {
+        private final Map<String, Integer> values = new HashMap<>();
+
+        /**
+         * Sets the value of a variable
+         *
+         * @param name  name of the variable
+         * @param value value of the variable
+         * @return this
+         */
+        public Values set(String name, int value) {
+            values.put(name, value);
+            return this;
+        }
+
+        private int get(String name) {
+            Integer value = values.get(name);
+            if (value == null) {
+                throw new IllegalArgumentException("No value of the APDU template variable " + name);
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Builder of a script
+     */
+    public static final class Builder {
+        private final List<Step> steps = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a step
+         *
+         * @param template         command template in hex notation with slots
+         * @param failureMessage   error message if an unexpected status word is received
+         * @param expectedSW       accepted status words, SW_NO_ERROR if none given
+         * @return this builder
+         * @throws IllegalArgumentException if the template can not be parsed
+         */
+        public Builder step(String template, ErrorMessage failureMessage, int... expectedSW) {
+            steps.add(new Step(template, failureMessage,
+                    expectedSW.length == 0 ? new int[]{ApduResponse.SW_NO_ERROR} : expectedSW.clone()));
+            return this;
+        }
+
+        /**
+         * Builds the script
+         *
+         * @return the script
+         */
+        public ApduScript build() {
+            return new ApduScript(new ArrayList<>(steps));
+        }
+    }
+
+    /**
+     * Parsed command template
+     */
+    private static final class Step {
+        private final String template;
+        private final ErrorMessage failureMessage;
+        private final int[] expectedSW;
+
+        /**
+         * Literal bytes, slot bytes are 0
+         */
+        private final byte[] bytes;
+
+        /**
+         * Variable names, offsets and widths of the slots
+         */
+        private final List<String> slotNames = new ArrayList<>();
+        private final List<int[]> slotPositions = new ArrayList<>();
+
+        Step(String template, ErrorMessage failureMessage, int[] expectedSW) {
+            this.template = template;
+            this.failureMessage = failureMessage;
+            this.expectedSW = expectedSW;
+            byte[] parsed = new byte[template.length()];
+            int length = 0;
+            for (String token : template.trim().split("\\s+")) {
+                if (token.startsWith("{") && token.endsWith("}")) {
+                    String slot = token.substring(1, token.length() - 1);
+                    int separator = slot.indexOf(':');
+                    int width = separator < 0 ? 1 : parseWidth(slot.substring(separator + 1));
+                    slotNames.add(separator < 0 ? slot : slot.substring(0, separator));
+                    slotPositions.add(new int[]{length, width});
+                    length += width;
+                } else {
+                    for (int i = 0; i < token.length(); i += 2) {
+                        parsed[length++] = (byte) parseHexByte(token, i);
+                    }
+                }
+            }
+            bytes = new byte[length];
+            System.arraycopy(parsed, 0, bytes, 0, length);
+        }
+
+        /**
+         * Fills the slots and validates the command
+         *
+         * @param values values of the variables
+         * @return the serialized command
+         */
+        byte[] fill(Values values) {
+            byte[] command = bytes.clone();
+            for (int i = 0; i < slotNames.size(); i++) {
+                int value = values.get(slotNames.get(i));
+                int offset = slotPositions.get(i)[0];
+                int width = slotPositions.get(i)[1];
+                if (width < 4 && (value >>> (8 * width)) != 0) {
+                    throw new IllegalArgumentException("Value " + value + " does not fit into the slot "
+                            + slotNames.get(i) + " of " + template);
+                }
+                for (int j = width - 1; j >= 0; j--) {
+                    command[offset + j] = (byte) value;
+                    value >>>= 8;
+                }
+            }
+            try {
+                new ApduCommand(command);
+            } catch (ApduException e) {
+                throw new IllegalArgumentException("Invalid APDU template " + template + ": " + e.getMessage());
+            }
+            return command;
+        }
+
+        private int parseWidth(String width) {
+            try {
+                int value = Integer.parseInt(width);
+                if (value >= 1 && value <= 4) {
+                    return value;
+                }
+            } catch (NumberFormatException e) {
+                // reported below
+            }
+            throw new IllegalArgumentException("Invalid slot width in APDU template " + template);
+        }
+
+        private int parseHexByte(String token, int index) {
+            int high = index + 1 < token.length() ? Character.digit(token.charAt(index), 16) : -1;
+            int low = index + 1 < token.length() ? Character.digit(token.charAt(index + 1), 16) : -1;
+            if (high < 0 || low < 0) {
+                throw new IllegalArgumentException("Invalid hex byte in APDU template " + template);
+            }
+            return (high << 4) | low;
+        }
+    }
+}
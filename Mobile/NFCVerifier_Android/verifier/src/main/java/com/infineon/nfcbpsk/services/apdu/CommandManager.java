@@ -0,0 +1,614 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.infineon.nfcbpsk.services.apdu;
+
+import com.infineon.nfcbpsk.data.logger.Logger;
+import com.infineon.nfcbpsk.services.apdu.ApduCommandBuilder;
+import com.infineon.nfcbpsk.services.apdu.ApduCommand;
+import com.infineon.nfcbpsk.services.apdu.ApduException;
+import com.infineon.nfcbpsk.services.apdu.ApduResponse;
+import com.infineon.nfcbpsk.services.apdu.MutualAuthException;
+import com.infineon.nfcbpsk.data.nfc.CapabilityContainerCache;
+import com.infineon.nfcbpsk.data.nfc.NfcChannel;
+import com.infineon.nfcbpsk.services.appfiledecoder.product.ProductInformationDecoder;
+import com.infineon.nfcbpsk.services.appfiledecoder.service.ServiceInformationDecoder;
+import com.infineon.ndef.utils.Utils;
+import com.infineon.nfcbpsk.services.utilities.DataLengthExtractor;
+import com.infineon.nfcbpsk.services.utilities.NdefDataLengthExtractor;
+
+import java.util.Arrays;
+
+/**
+ * Defines the APDU commands used for brand verification
+ */
+public class CommandManager {
+    /**
+     * Channel to communicate with tag
+     */
+    final NfcChannel nfcChannel;
+    /**
+     * Resolver of the error messages passed with the exceptions
+     */
+    final ErrorMessageResolver messages;
+    /**
+     * Logger of the diagnostics and the step times, can be null
+     */
+    final Logger logger;
+    /**
+     * Max expected length to the read product and service information.
+     * It must be greater than or equals to 128 bytes
+     */
+    private final int NFC4TC_MLE = 0xE6;
+
+    /**
+     * Length of the status word at the end of each response
+     */
+    private static final int SW_LENGTH = 2;
+
+    /**
+     * Expected length used for READ BINARY with extended length APDUs, 0 if the
+     * short expected length has to be used
+     */
+    private int extendedReadLength;
+
+    /**
+     * Cleared once the tag rejected an extended length READ BINARY
+     */
+    private boolean extendedReadSupported = true;
+
+    /**
+     * Length of the file headers not counted by the data length of the file
+     * NDEF file: NLEN, product information: profile type, service information: none
+     */
+    private static final int NDEF_HEADER_LENGTH = 2;
+    private static final int PRODUCT_INFO_HEADER_LENGTH = 2;
+    private static final int SERVICE_INFO_HEADER_LENGTH = 0;
+
+    /**
+     * Command templates of the verification start, see {@link ApduScript}
+     */
+    private static final String SELECT_FILE_TEMPLATE = "00 A4 00 00 02 {FILE_ID:2}";
+    private static final String READ_BINARY_TEMPLATE = "00 B0 {OFFSET:2} {LE}";
+
+    /**
+     * Identifiers of the NDEF application and of the files selected by ID
+     */
+    private static final byte[] NDEF_APPLICATION_ID =
+            {(byte) 0xD2, (byte) 0x76, (byte) 0x00, (byte) 0x00, (byte) 0x85, (byte) 0x01, (byte) 0x00};
+    private static final int CC_FILE_ID = 0xE103;
+    private static final int ID_INFO_FILE_ID = 0x2FF7;
+
+    /**
+     * Offset and length of the Chip Unique ID in the ID_INFO file
+     */
+    private static final int ID_INFO_CHIP_ID_OFFSET = 0x08;
+    private static final int ID_INFO_CHIP_ID_LENGTH = 0x10;
+
+    private static final CompiledApduScript SELECT_APPLICATION_SCRIPT = ApduScript.builder()
+            .step("00 A4 04 00 07 D2 76 00 00 85 01 00", ErrorMessage.SELECT_AID)
+            .build()
+            .compile(new ApduScript.Values());
+
+    /**
+     * Reads the CC file with Le 00, i.e. up to 256 bytes
+     */
+    private static final CompiledApduScript READ_CC_SCRIPT = ApduScript.builder()
+            .step(SELECT_FILE_TEMPLATE, ErrorMessage.SELECT_CC_FILE)
+            .step(READ_BINARY_TEMPLATE, ErrorMessage.READ_CC_FILE)
+            .build()
+            .compile(new ApduScript.Values()
+                    .set("FILE_ID", CC_FILE_ID)
+                    .set("OFFSET", 0x0000)
+                    .set("LE", 0x00));
+
+    private static final CompiledApduScript READ_ID_INFO_SCRIPT = ApduScript.builder()
+            .step(SELECT_FILE_TEMPLATE, ErrorMessage.SELECT_ID_INFO_FILE)
+            .step(READ_BINARY_TEMPLATE, ErrorMessage.READ_ID_INFO_FILE)
+            .build()
+            .compile(new ApduScript.Values()
+                    .set("FILE_ID", ID_INFO_FILE_ID)
+                    .set("OFFSET", ID_INFO_CHIP_ID_OFFSET)
+                    .set("LE", ID_INFO_CHIP_ID_LENGTH));
+
+    private static final CompiledApduScript GET_CHALLENGE_SCRIPT = ApduScript.builder()
+            .step("00 84 00 00 16", ErrorMessage.GET_CHALLENGE)
+            .build()
+            .compile(new ApduScript.Values());
+
+    /**
+     * Application and file currently selected on the tag
+     */
+    private final SelectionState selectionState;
+
+    /**
+     * Start of the step whose time is logged next, in nanoseconds
+     */
+    private long stepStartTime;
+
+    /**
+     * Cache of the CC file content per tag type
+     */
+    private final CapabilityContainerCache ccCache;
+
+    /**
+     * Initializes the command manager with the English error messages, no logging and a cache
+     * kept in memory
+     *
+     * @param nfcChannel    Channel for communication
+     */
+    public CommandManager(NfcChannel nfcChannel) {
+        this(nfcChannel, ErrorMessageResolver.DEFAULT, null, new CapabilityContainerCache(null));
+    }
+
+    /**
+     * Initializes the command manager
+     *
+     * @param nfcChannel    Channel for communication
+     * @param messages      Resolver of the error messages passed with the exceptions
+     * @param logger        Logger of the diagnostics and the step times, can be null
+     * @param ccCache       Cache of the CC file content per tag type
+     */
+    public CommandManager(NfcChannel nfcChannel, ErrorMessageResolver messages, Logger logger,
+                          CapabilityContainerCache ccCache) {
+        this.nfcChannel = nfcChannel;
+        this.messages = messages;
+        this.logger = logger;
+        this.ccCache = ccCache;
+        this.selectionState = new SelectionState(logger);
+    }
+
+    /**
+     * Performs NDEF read operation on the tag.
+     * 1. Select the NDEF application
+     * 2. Select the CC file
+     * 3. Read the CC file
+     * 4. Select the NDEF file
+     * 5. Read the entire NDEF file
+     * Steps 2 and 3 are skipped if the CC of the tag type is cached.
+     *
+     * @return APDUResponse Read from the Tag
+     * @throws ApduException Throws exception in case of errors in executing the operation
+     */
+    public ApduResponse readNDEFMessage() throws ApduException {
+        return readNDEFMessage(null);
+    }
+
+    /**
+     * Performs NDEF read operation on the tag and passes the data of each READ BINARY response
+     * of the NDEF file to the listener as soon as it is received.
+     *
+     * @param chunkListener Listener receiving the NDEF file data per response, can be null
+     * @return APDUResponse Read from the Tag
+     * @throws ApduException Throws exception in case of errors in executing the operation
+     */
+    public ApduResponse readNDEFMessage(ReadBinaryChunkListener chunkListener) throws ApduException {
+
+        startStep();
+
+        //1. Select the NDEF application
+        selectApplication();
+        logStep("Step 1-1-1");
+
+        // 2. + 3. Select and read the CC file, unless it is cached for the tag type
+        String tagIdentity = nfcChannel.getTagIdentity();
+        byte[] capabilityContainer = tagIdentity == null ? null : ccCache.get(tagIdentity);
+        boolean ccCached = capabilityContainer != null;
+
+        // 4. Select the NDEF file, on a cache hit this validates the cached CC
+        if (ccCached) {
+            startStep();
+            if (!selectNDEFFile(capabilityContainer)) {
+                log("CapabilityContainer", "Stale cache entry for " + tagIdentity);
+                ccCache.remove(tagIdentity);
+                capabilityContainer = null;
+                ccCached = false;
+            }
+        }
+        if (capabilityContainer == null) {
+            capabilityContainer = readAndSelectNDEFFile();
+        }
+        logStep("Step 1-1-4");
+
+        // 5. Read the entire NDEF file
+        startStep();
+        ApduResponse apduResponse = readNDEFFile(capabilityContainer, chunkListener);
+
+        // A read failing before any data on a cache hit means that the cached CC does not fit
+        // the tag, e.g. its MLe is too large: the CC is read again and so is the NDEF file
+        if (ccCached && !apduResponse.isSuccessSW() && apduResponse.getDataLength() == 0) {
+            log("CapabilityContainer", "NDEF file not readable with the cache entry for " + tagIdentity);
+            ccCache.remove(tagIdentity);
+            ccCached = false;
+            capabilityContainer = readAndSelectNDEFFile();
+            startStep();
+            apduResponse = readNDEFFile(capabilityContainer, chunkListener);
+        }
+        if (!apduResponse.isSuccessSW()) {
+            // The data of the failed read has been passed to the listener, so the read is not
+            // repeated, the cache entry is dropped for the next scan
+            if (ccCached) {
+                ccCache.remove(tagIdentity);
+            }
+            throw new ApduException(messages.getMessage(ErrorMessage.READ_NDEF_FILE));
+        }
+        if (!ccCached && tagIdentity != null) {
+            ccCache.put(tagIdentity, capabilityContainer);
+        }
+        logStep("Step 1-1-5");
+        return apduResponse;
+    }
+
+    /**
+     * Reads the CC file and selects the NDEF file it references
+     *
+     * @return content of the CC file
+     * @throws ApduException Throws exception in case of errors in executing the operation
+     */
+    private byte[] readAndSelectNDEFFile() throws ApduException {
+        byte[] capabilityContainer = readCapabilityContainer();
+        startStep();
+        if (!selectNDEFFile(capabilityContainer)) {
+            throw new ApduException(messages.getMessage(ErrorMessage.SELECT_NDEF_FILE));
+        }
+        return capabilityContainer;
+    }
+
+    /**
+     * Selects and reads the CC file
+     *
+     * @return content of the CC file
+     * @throws ApduException Throws exception in case of errors in executing the operation
+     */
+    private byte[] readCapabilityContainer() throws ApduException {
+        // 2. + 3. Select and read the CC file
+        startStep();
+        ApduResponse apduResponse = selectAndReadFile(READ_CC_SCRIPT, CC_FILE_ID, "CC file");
+        logStep("Step 1-1-3");
+        return apduResponse.getData();
+    }
+
+    /**
+     * Reads the entire NDEF file with the MLe of the CC file
+     *
+     * @param capabilityContainer content of the CC file
+     * @param chunkListener       Listener receiving the NDEF file data per response, can be null
+     * @return the APDU response
+     * @throws ApduException Throws exception in case of errors in executing the operation
+     */
+    private ApduResponse readNDEFFile(byte[] capabilityContainer, ReadBinaryChunkListener chunkListener)
+            throws ApduException {
+        int tagMaxLE = Utils.getUINT16(capabilityContainer, 3);
+        extendedReadLength = getExtendedReadLength(tagMaxLE);
+        int maxLE = getReadLength(tagMaxLE);
+        ApduResponse apduResponse = this.readBinaryInLoop(false, (short) 0x0000,
+                new ReadPlanner("NDEF", NDEF_HEADER_LENGTH, maxLE), new NdefDataLengthExtractor(), chunkListener);
+        if (!apduResponse.isSuccessSW()) {
+            selectionState.invalidate();
+        }
+        return apduResponse;
+    }
+
+    /**
+     * Selects the NDEF file with the file ID of the CC file
+     *
+     * @param capabilityContainer content of the CC file
+     * @return true if the NDEF file has been selected
+     * @throws ApduException Throws exception in case of errors in executing the operation
+     */
+    private boolean selectNDEFFile(byte[] capabilityContainer) throws ApduException {
+        int fileId = getNdefFileId(capabilityContainer);
+        if (selectionState.isFileSelected(fileId)) {
+            selectionState.onSelectSkipped("NDEF file");
+            return true;
+        }
+        final byte[] ndefFileID = Arrays.copyOfRange(capabilityContainer, 9, 11);
+        ApduCommand cmdSelectNDEF = ApduCommandBuilder.selectFile((byte)0x00, (byte)0x00, ndefFileID, 0);
+        if (!nfcChannel.transmit(cmdSelectNDEF).isSuccessSW()) {
+            selectionState.invalidate();
+            return false;
+        }
+        selectionState.onFileSelected(fileId);
+        return true;
+    }
+
+    /**
+     * Returns the NDEF file ID of the CC file
+     *
+     * @param capabilityContainer content of the CC file
+     * @return NDEF file ID
+     */
+    private static int getNdefFileId(byte[] capabilityContainer) {
+        return Utils.getUINT16(capabilityContainer, 9);
+    }
+
+    /**
+     * Selects the NDEF application unless it is already selected
+     *
+     * @throws ApduException Throws exception in case of errors in executing the operation
+     */
+    private void selectApplication() throws ApduException {
+        if (selectionState.isApplicationSelected(NDEF_APPLICATION_ID)) {
+            selectionState.onSelectSkipped("NDEF application");
+            return;
+        }
+        try {
+            SELECT_APPLICATION_SCRIPT.execute(nfcChannel, messages);
+        } catch (ApduException e) {
+            selectionState.invalidate();
+            throw e;
+        }
+        selectionState.onApplicationSelected(NDEF_APPLICATION_ID);
+    }
+
+    /**
+     * Executes a script of a SELECT FILE followed by a READ BINARY, skipping the SELECT if the
+     * file is already selected
+     *
+     * @param script compiled script selecting and reading the file
+     * @param fileId file ID selected by the script
+     * @param name   name of the file used in the log
+     * @return response of the READ BINARY
+     * @throws ApduException Throws exception in case of errors in executing the operation
+     */
+    private ApduResponse selectAndReadFile(CompiledApduScript script, int fileId, String name)
+            throws ApduException {
+        boolean selected = selectionState.isFileSelected(fileId);
+        if (selected) {
+            selectionState.onSelectSkipped(name);
+        }
+        ApduResponse apduResponse;
+        try {
+            apduResponse = script.execute(nfcChannel, messages, selected ? 1 : 0);
+        } catch (ApduException e) {
+            selectionState.invalidate();
+            throw e;
+        }
+        selectionState.onFileSelected(fileId);
+        return apduResponse;
+    }
+
+    /**
+     * Performs APDU commands to read the Chip Unique ID from tag
+     *
+     * @return Chip Unique ID
+     * @throws ApduException Throws exception in case of errors in executing the operation
+     */
+    public ApduResponse getChipUniqueID() throws ApduException {
+        // 1. + 2. Select the ID_INFO file and read the Chip Unique ID
+        return selectAndReadFile(READ_ID_INFO_SCRIPT, ID_INFO_FILE_ID, "ID_INFO file");
+    }
+
+    /**
+     * Performs APDU commands to get challenge from the tag
+     *
+     * @return Challenge from the tag
+     * @throws ApduException Throws exception in case of errors in executing the operation
+     */
+    public ApduResponse getChallenge() throws ApduException {
+        return GET_CHALLENGE_SCRIPT.execute(nfcChannel, messages);
+    }
+
+    /**
+     * Performs APDU commands to perform mutual authentication with the tag
+     *
+     * @param commandData   Mutual authentication command data
+     * @return Response of mutual authentication
+     * @throws MutualAuthException Throws exception in case of errors in executing the operation
+     */
+    public ApduResponse mutualAuthenticate(byte[] commandData) throws MutualAuthException {
+        ApduCommand cmdMutualAuthenticate;
+        ApduResponse apduResponse;
+        try {
+            cmdMutualAuthenticate = ApduCommandBuilder.mutualAuthenticate((byte)0x00, (byte)0x02, commandData);
+            apduResponse = nfcChannel.transmit(cmdMutualAuthenticate);
+        } catch (ApduException e) {
+            throw new MutualAuthException(messages.getMessage(ErrorMessage.MUTUAL_AUTHENTICATE));
+        }
+        if (!apduResponse.isSuccessSW()) {
+            throw new MutualAuthException(messages.getMessage(ErrorMessage.MUTUAL_AUTHENTICATE));
+        }
+        return apduResponse;
+    }
+
+    /**
+     * Performs APDU commands to read the product information file
+     *
+     * @return Product information
+     * @throws ApduException Throws exception in case of errors in executing the operation
+     */
+    public ApduResponse readProductInformation() throws ApduException {
+        //Read Product info file SFID and Offset
+        short OFFSET_PRODUCT_INFO_WITH_SFID = (short) 0x8100;
+        ReadPlanner readPlanner = new ReadPlanner("Product information", PRODUCT_INFO_HEADER_LENGTH,
+                getReadLength(NFC4TC_MLE));
+        ApduResponse apduResponse = this.readBinaryInLoop(true, OFFSET_PRODUCT_INFO_WITH_SFID, readPlanner,
+                new ProductInformationDecoder(), null);
+        onFileReadWithSfi(apduResponse);
+        return apduResponse;
+    }
+
+    /**
+     * Performs APDU commands to read the service information file
+     *
+     * @return Service information
+     * @throws ApduException Throws exception in case of errors in executing the operation
+     */
+    public ApduResponse readServiceInformation() throws ApduException {
+        //Read Service info file SFID and Offset
+        short OFFSET_SERVICE_INFO_WITH_SFID = (short) 0x8200;
+        ReadPlanner readPlanner = new ReadPlanner("Service information", SERVICE_INFO_HEADER_LENGTH,
+                getReadLength(NFC4TC_MLE));
+        ApduResponse apduResponse = this.readBinaryInLoop(true, OFFSET_SERVICE_INFO_WITH_SFID, readPlanner,
+                new ServiceInformationDecoder(), null);
+        onFileReadWithSfi(apduResponse);
+        return apduResponse;
+    }
+
+    /**
+     * Updates the selection state after reading a file with SFI whose file ID is not known
+     *
+     * @param apduResponse response of the read
+     */
+    private void onFileReadWithSfi(ApduResponse apduResponse) {
+        if (apduResponse.isSuccessSW()) {
+            selectionState.onFileReadWithSfi();
+        } else {
+            selectionState.invalidate();
+        }
+    }
+
+    /**
+     * Returns the number of SELECT commands skipped in this session because the application or
+     * file was already selected
+     *
+     * @return number of avoided round trips
+     */
+    public int getSkippedSelectCount() {
+        return selectionState.getSkippedSelects();
+    }
+
+    /**
+     * Returns the expected length of READ BINARY commands. Extended length is used if the phone,
+     * the tag and the capability container allow it, otherwise the length is capped at NFC4TC_MLE.
+     *
+     * @param maxLE maximum expected length of the file
+     * @return expected length for READ BINARY
+     */
+    private int getReadLength(int maxLE) {
+        return extendedReadLength > 0 ? extendedReadLength : Math.min(maxLE, NFC4TC_MLE);
+    }
+
+    /**
+     * Determines the expected length of extended length READ BINARY commands
+     *
+     * @param tagMaxLE MLe of the capability container
+     * @return expected length, 0 if extended length can not be used or would not read more than NFC4TC_MLE
+     */
+    private int getExtendedReadLength(int tagMaxLE) {
+        if (!extendedReadSupported || !nfcChannel.isExtendedLengthApduSupported()) {
+            return 0;
+        }
+        int readLength = Math.min(tagMaxLE, nfcChannel.getMaxTransceiveLength() - SW_LENGTH);
+        return readLength > NFC4TC_MLE ? readLength : 0;
+    }
+
+    /**
+     * Method to perform ReadBinary command in loop. The commands are sized by the read planner,
+     * the planned and issued number of commands is logged once the file has been read.
+     *
+     * @param isReadWithSFID         set if read with SFID and offset contain the SFID
+     * @param offset                 offset for read the binary file
+     * @param readPlanner            Planner of the READ BINARY commands of the file
+     * @param dataLengthExtractor    Extractor to find the data length from the first read response
+     * @param chunkListener          Listener receiving the data of each response, can be null
+     * @return return the APDU response
+     * @throws ApduException Throws the Exception
+     */
+    private ApduResponse readBinaryInLoop(boolean isReadWithSFID, short offset, ReadPlanner readPlanner,
+                                    DataLengthExtractor dataLengthExtractor,
+                                    ReadBinaryChunkListener chunkListener) throws ApduException {
+        int le = readPlanner.nextLength(0);
+        ResponseBuffer responseBuffer = new ResponseBuffer(Math.min(le, NFC4TC_MLE));
+        while (le > 0) {
+            ApduCommand command = ApduCommandBuilder.readBinary(offset, le);
+            ApduResponse newApduResponse = nfcChannel.transmit(command);
+            readPlanner.onCommandIssued();
+            if (!newApduResponse.isSuccessSW() && le > NFC4TC_MLE) {
+                // Tag rejected the extended length, repeat the read with short length
+                log("ReadBinary", "Extended length rejected: " + newApduResponse);
+                extendedReadSupported = false;
+                extendedReadLength = 0;
+                readPlanner.setMaxLength(NFC4TC_MLE, responseBuffer.getDataLength());
+                le = readPlanner.nextLength(responseBuffer.getDataLength());
+                command = ApduCommandBuilder.readBinary(offset, le);
+                newApduResponse = nfcChannel.transmit(command);
+                readPlanner.onCommandIssued();
+            }
+            int chunkOffset = responseBuffer.append(newApduResponse);
+            int chunkLength = newApduResponse.getDataLength();
+
+            if (!newApduResponse.isSuccessSW()) {
+                log("DataError", responseBuffer.toApduResponse().toString());
+                break;
+            }
+            if (!readPlanner.isFileLengthKnown()) {
+                int dataLength = dataLengthExtractor.extractDataLength(responseBuffer.array(), 0,
+                        responseBuffer.getDataLength());
+                readPlanner.setDataLength(dataLength, responseBuffer.getDataLength());
+                responseBuffer.ensureCapacity(readPlanner.getFileLength());
+            }
+            offset = this.calculateOffset(isReadWithSFID, offset, chunkLength);
+            isReadWithSFID = false;
+            if (chunkListener != null
+                    && !chunkListener.onChunkReceived(responseBuffer.array(), chunkOffset, chunkLength)) {
+                break;
+            }
+            // A response without data would repeat the same command forever
+            le = chunkLength > 0 ? readPlanner.nextLength(responseBuffer.getDataLength()) : 0;
+        }
+        log("ReadBinary", readPlanner.toString());
+        return responseBuffer.toApduResponse();
+    }
+
+    /**
+     * Starts the time measurement of a step
+     */
+    private void startStep() {
+        stepStartTime = System.nanoTime();
+    }
+
+    /**
+     * Logs the time since the start of the step
+     *
+     * @param label label of the step
+     */
+    private void logStep(String label) {
+        log("Performance", label + " " + (System.nanoTime() - stepStartTime) / 1000000.0 + " ms");
+    }
+
+    /**
+     * Logs a diagnostic message if a logger is set
+     *
+     * @param key   Keyword in which the log to be tagged
+     * @param value message to be logged
+     */
+    private void log(String key, String value) {
+        if (logger != null) {
+            logger.log(key, value);
+        }
+    }
+
+    /**
+     * Calculate the offset value for next iteration
+     *
+     * @param isReadWithSFID defines the reading with SFID or not
+     * @param offset         offset of the previous Read file, or 0 if first time read
+     * @param length         previous read data length, 0 if first time read
+     * @return return the next offset value
+     */
+    private short calculateOffset(boolean isReadWithSFID, short offset, int length) {
+        if (isReadWithSFID) {
+            // if Reading with SFID offset first byte is SFID and second byte is offset
+            // Shifting offset in first byte and removing SFID because for next time file is selected
+            short p2 = (short) (offset << 8);
+            return (short) (p2 + length);
+        } else {
+            return (short) (offset + length);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.nfcbpsk.services.apdu;
+
+import com.infineon.nfcbpsk.data.nfc.NfcChannel;
+
+/**
+ * APDU script whose commands have been serialized by {@link ApduScript#compile(ApduScript.Values)}.
+ * The commands are transmitted as they are, the status word of each response is checked against
+ * the accepted status words of the step and the script is aborted at the first unexpected one.
+ * A compiled script is immutable and can be executed any number of times.
+ */
+public final class CompiledApduScript {
+
+    private final byte[][] commands;
+    private final int[][] expectedSW;
+    private final ErrorMessage[] failureMessages;
+
+    CompiledApduScript(byte[][] commands, int[][] expectedSW, ErrorMessage[] failureMessages) {
+        this.commands = commands;
+        this.expectedSW = expectedSW;
+        this.failureMessages = failureMessages;
+    }
+
+    /**
+     * Returns the number of steps
+     *
+     * @return number of commands of the script
+     */
+    public int size() {
+        return commands.length;
+    }
+
+    /**
+     * Executes the script
+     *
+     * @param nfcChannel Channel for communication
+     * @param messages   Resolver of the error message of a failed step
+     * @return response of the last step
+     * @throws ApduException with the error message of the step if a step received an unexpected status word
+     */
+    public ApduResponse execute(NfcChannel nfcChannel, ErrorMessageResolver messages) throws ApduException {
+        return execute(nfcChannel, messages, 0);
+    }
+
+    /**
+     * Executes the script starting at the given step, e.g. to skip a SELECT of a file that is
+     * already selected
+     *
+     * @param nfcChannel Channel for communication
+     * @param messages   Resolver of the error message of a failed step
+     * @param firstStep  index of the first step to be executed
+     * @return response of the last step
+     * @throws ApduException with the error message of the step if a step received an unexpected status word
+     */
+    public ApduResponse execute(NfcChannel nfcChannel, ErrorMessageResolver messages, int firstStep) throws ApduException {
+        if (firstStep < 0 || firstStep >= commands.length) {
+            throw new IllegalArgumentException("Invalid first step " + firstStep);
+        }
+        ApduResponse apduResponse = null;
+        for (int step = firstStep; step < commands.length; step++) {
+            apduResponse = new ApduResponse(nfcChannel.transmit(commands[step]), 0);
+            if (!isExpected(step, apduResponse.getSW())) {
+                throw new ApduException(messages.getMessage(failureMessages[step]));
+            }
+        }
+        return apduResponse;
+    }
+
+    /**
+     * Executes the script without throwing on an unexpected status word, e.g. to fall back to
+     * another script
+     *
+     * @param nfcChannel Channel for communication
+     * @return response of the last step, or of the first step that received an unexpected status word
+     * @throws ApduException if a response can not be processed
+     */
+    public ApduResponse tryExecute(NfcChannel nfcChannel) throws ApduException {
+        ApduResponse apduResponse = null;
+        for (int step = 0; step < commands.length; step++) {
+            apduResponse = new ApduResponse(nfcChannel.transmit(commands[step]), 0);
+            if (!isExpected(step, apduResponse.getSW())) {
+                break;
+            }
+        }
+        return apduResponse;
+    }
+
+    /**
+     * Returns true if the status word is accepted by the step
+     *
+     * @param step index of the step
+     * @param sw   received status word
+     * @return true if the status word is expected
+     */
+    public boolean isExpected(int step, int sw) {
+        for (int expected : expectedSW[step]) {
+            if ((expected & 0xFFFF) == sw) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
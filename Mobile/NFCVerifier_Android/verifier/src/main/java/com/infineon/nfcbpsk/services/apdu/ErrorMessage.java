@@ -0,0 +1,48 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.nfcbpsk.services.apdu;
+
+/**
+ * Error messages of the APDU commands of the brand verification. The application resolves them
+ * to localized strings with an {@link ErrorMessageResolver}, the default text is used elsewhere.
+ */
+public enum ErrorMessage {
+    SELECT_AID("Unable to select MF"),
+    SELECT_CC_FILE("Unable to select CC file"),
+    READ_CC_FILE("Unable to read CC file"),
+    SELECT_NDEF_FILE("Unable to select NDEF file"),
+    READ_NDEF_FILE("Unable to read NDEF file"),
+    SELECT_ID_INFO_FILE("Unable to select ID_INFO file"),
+    READ_ID_INFO_FILE("Unable to read ID_INFO file"),
+    GET_CHALLENGE("Unable to get challenge"),
+    MUTUAL_AUTHENTICATE("Unable to mutual authenticate");
+
+    private final String defaultText;
+
+    ErrorMessage(String defaultText) {
+        this.defaultText = defaultText;
+    }
+
+    /**
+     * Returns the English text of the message
+     *
+     * @return text of the message
+     */
+    public String getDefaultText() {
+        return defaultText;
+    }
+}
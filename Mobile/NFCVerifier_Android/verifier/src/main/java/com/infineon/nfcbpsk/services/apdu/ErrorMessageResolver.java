@@ -0,0 +1,36 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.nfcbpsk.services.apdu;
+
+/**
+ * Resolves the error messages of the APDU commands to the text passed with the exceptions
+ */
+public interface ErrorMessageResolver {
+
+    /**
+     * Resolver using the English text of the messages
+     */
+    ErrorMessageResolver DEFAULT = ErrorMessage::getDefaultText;
+
+    /**
+     * Returns the text of the error message
+     *
+     * @param message error message
+     * @return text of the message
+     */
+    String getMessage(ErrorMessage message);
+}
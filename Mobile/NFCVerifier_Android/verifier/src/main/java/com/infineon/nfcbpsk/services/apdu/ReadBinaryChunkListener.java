@@ -0,0 +1,33 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.nfcbpsk.services.apdu;
+
+/**
+ * Interface for receiving the data of a file while it is read with multiple READ BINARY commands
+ */
+public interface ReadBinaryChunkListener {
+    /**
+     * Called for each successful READ BINARY response with the data of the response, without the status word.
+     * The buffer is shared with the reader of the file and only valid during the call.
+     *
+     * @param data   Response buffer
+     * @param offset Offset of the received data in the buffer
+     * @param length Length of the received data
+     * @return true to continue reading, false to stop reading the file
+     */
+    boolean onChunkReceived(byte[] data, int offset, int length);
+}
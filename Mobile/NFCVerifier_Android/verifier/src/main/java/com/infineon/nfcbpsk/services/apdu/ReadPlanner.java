@@ -0,0 +1,144 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.nfcbpsk.services.apdu;
+
+/**
+ * Plans the READ BINARY commands of a file. The first command reads the maximum length, as the file
+ * length is not known yet. Once the data length is extracted from the first response, the file length
+ * is the data length plus the length of the header preceding the counted data, and the remaining
+ * commands are sized so that the file is read with the smallest number of commands and the last
+ * command reads exactly up to the end of the file.
+ */
+final class ReadPlanner {
+
+    /**
+     * Value of the file length as long as it is not known
+     */
+    private static final int UNKNOWN = -1;
+
+    private final String fileName;
+    private final int headerLength;
+    private int maxLength;
+    private int fileLength = UNKNOWN;
+    private int plannedCommands;
+    private int issuedCommands;
+
+    /**
+     * Creates a planner
+     *
+     * @param fileName     name of the file used in the report
+     * @param headerLength length of the file header not counted by the data length
+     * @param maxLength    maximum expected length of a READ BINARY command
+     */
+    ReadPlanner(String fileName, int headerLength, int maxLength) {
+        this.fileName = fileName;
+        this.headerLength = headerLength;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Returns the expected length of the next READ BINARY command
+     *
+     * @param receivedLength length of the file data received so far
+     * @return expected length, 0 if the file has been read completely
+     */
+    int nextLength(int receivedLength) {
+        if (fileLength == UNKNOWN) {
+            return maxLength;
+        }
+        return Math.max(Math.min(maxLength, fileLength - receivedLength), 0);
+    }
+
+    /**
+     * Counts a transmitted READ BINARY command
+     */
+    void onCommandIssued() {
+        issuedCommands++;
+    }
+
+    /**
+     * Returns true once the file length is known
+     *
+     * @return true if {@link #setDataLength(int, int)} has been called
+     */
+    boolean isFileLengthKnown() {
+        return fileLength != UNKNOWN;
+    }
+
+    /**
+     * Sets the data length extracted from the first response and plans the remaining commands
+     *
+     * @param dataLength     data length as returned by the data length extractor
+     * @param receivedLength length of the file data received so far
+     */
+    void setDataLength(int dataLength, int receivedLength) {
+        fileLength = headerLength + Math.max(dataLength, 0);
+        plannedCommands = issuedCommands + getRemainingCommands(receivedLength);
+    }
+
+    /**
+     * Changes the maximum expected length, e.g. if the tag rejected extended length, and plans the
+     * remaining commands again
+     *
+     * @param maxLength      new maximum expected length
+     * @param receivedLength length of the file data received so far
+     */
+    void setMaxLength(int maxLength, int receivedLength) {
+        this.maxLength = maxLength;
+        if (fileLength != UNKNOWN) {
+            plannedCommands = issuedCommands + getRemainingCommands(receivedLength);
+        }
+    }
+
+    /**
+     * Returns the number of commands needed for the rest of the file
+     *
+     * @param receivedLength length of the file data received so far
+     * @return number of commands
+     */
+    private int getRemainingCommands(int receivedLength) {
+        int remaining = Math.max(fileLength - receivedLength, 0);
+        return (remaining + maxLength - 1) / maxLength;
+    }
+
+    /**
+     * @return length of the file including the header, or -1 as long as it is not known
+     */
+    int getFileLength() {
+        return fileLength;
+    }
+
+    /**
+     * @return number of planned commands, 0 as long as the file length is not known
+     */
+    int getPlannedCommands() {
+        return plannedCommands;
+    }
+
+    /**
+     * @return number of transmitted commands
+     */
+    int getIssuedCommands() {
+        return issuedCommands;
+    }
+
+    @Override
+    public String toString() {
+        return fileName + ": " + (fileLength == UNKNOWN ? "unknown" : String.valueOf(fileLength))
+                + " bytes, READ BINARY planned " + plannedCommands + ", issued " + issuedCommands;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.nfcbpsk.services.apdu;
+
+import java.util.Arrays;
+
+/**
+ * Growable buffer accumulating the data of consecutive READ BINARY responses. The data of each
+ * response is copied once into the buffer, the accumulated file is returned as an {@link ApduResponse}
+ * sharing the buffer. Once the file length is known the buffer should be sized with
+ * {@link #ensureCapacity(int)}, so it does not have to grow while the file is read.
+ */
+final class ResponseBuffer {
+
+    /**
+     * Length of the status word
+     */
+    private static final int SW_LENGTH = 2;
+
+    /**
+     * Response data followed by room for the status word
+     */
+    private byte[] buffer;
+    private int dataLength;
+    private byte sw1;
+    private byte sw2;
+
+    /**
+     * Creates a buffer
+     *
+     * @param initialCapacity expected length of the response data
+     */
+    ResponseBuffer(int initialCapacity) {
+        buffer = new byte[Math.max(initialCapacity, 0) + SW_LENGTH];
+    }
+
+    /**
+     * Makes room for the given total length of response data
+     *
+     * @param dataCapacity total length of response data
+     */
+    void ensureCapacity(int dataCapacity) {
+        if (buffer.length - SW_LENGTH < dataCapacity) {
+            buffer = Arrays.copyOf(buffer, dataCapacity + SW_LENGTH);
+        }
+    }
+
+    /**
+     * Appends the data of the response and keeps its status word as status word of the accumulated response
+     *
+     * @param response APDU response
+     * @return offset of the appended data in the buffer
+     */
+    int append(ApduResponse response) {
+        int offset = dataLength;
+        int length = response.getDataLength();
+        if (buffer.length - SW_LENGTH - dataLength < length) {
+            ensureCapacity(Math.max((buffer.length - SW_LENGTH) * 2, dataLength + length));
+        }
+        dataLength += response.copyData(buffer, dataLength);
+        int sw = response.getSW();
+        sw1 = (byte) (sw >> 8);
+        sw2 = (byte) sw;
+        return offset;
+    }
+
+    /**
+     * Returns the buffer, the response data starts at index 0
+     *
+     * @return the internal buffer
+     */
+    byte[] array() {
+        return buffer;
+    }
+
+    /**
+     * Returns the length of the accumulated response data
+     *
+     * @return length of response data
+     */
+    int getDataLength() {
+        return dataLength;
+    }
+
+    /**
+     * Returns the accumulated response data and the last status word as response sharing the buffer.
+     * No data must be appended afterwards.
+     *
+     * @return the accumulated response
+     */
+    ApduResponse toApduResponse() {
+        buffer[dataLength] = sw1;
+        buffer[dataLength + 1] = sw2;
+        return new ApduResponse(buffer, dataLength + SW_LENGTH, 0);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.nfcbpsk.services.apdu;
+
+import com.infineon.nfcbpsk.data.logger.Logger;
+
+import java.util.Arrays;
+
+/**
+ * Follows the application (DF) and file (EF) currently selected on the tag during one session, so
+ * that a SELECT of what is already selected can be skipped. The state is updated from successful
+ * SELECT commands and READ BINARY commands with SFI, which select the file implicitly. Whenever
+ * the state can not be derived, e.g. after a failed command, it is reset to unknown and the next
+ * SELECT is transmitted.
+ */
+final class SelectionState {
+
+    /**
+     * Value of a file ID that is not known
+     */
+    static final int UNKNOWN = -1;
+
+    private byte[] application;
+    private int fileId = UNKNOWN;
+    private int skippedSelects;
+
+    /**
+     * Logger of the skipped SELECT commands, can be null
+     */
+    private final Logger logger;
+
+    /**
+     * Creates the state of a session, nothing is selected
+     *
+     * @param logger Logger of the skipped SELECT commands, can be null
+     */
+    SelectionState(Logger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Returns true if the application is currently selected
+     *
+     * @param aid application identifier
+     * @return true if a SELECT of the application would be a no-op
+     */
+    boolean isApplicationSelected(byte[] aid) {
+        return application != null && Arrays.equals(application, aid);
+    }
+
+    /**
+     * Returns true if the file is currently selected
+     *
+     * @param fileId file ID
+     * @return true if a SELECT of the file would be a no-op
+     */
+    boolean isFileSelected(int fileId) {
+        return application != null && fileId != UNKNOWN && this.fileId == fileId;
+    }
+
+    /**
+     * Records the successful SELECT of an application, no file is selected afterwards
+     *
+     * @param aid application identifier
+     */
+    void onApplicationSelected(byte[] aid) {
+        application = aid;
+        fileId = UNKNOWN;
+    }
+
+    /**
+     * Records the successful SELECT of a file
+     *
+     * @param fileId file ID
+     */
+    void onFileSelected(int fileId) {
+        this.fileId = fileId;
+    }
+
+    /**
+     * Records a successful READ BINARY with SFI, which selects a file whose file ID is not known
+     */
+    void onFileReadWithSfi() {
+        fileId = UNKNOWN;
+    }
+
+    /**
+     * Resets the state to unknown, e.g. after a failed command
+     */
+    void invalidate() {
+        application = null;
+        fileId = UNKNOWN;
+    }
+
+    /**
+     * Counts a SELECT that has not been transmitted
+     *
+     * @param target name of the application or file
+     */
+    void onSelectSkipped(String target) {
+        skippedSelects++;
+        if (logger != null) {
+            logger.log("SelectionState", "SELECT " + target + " skipped, " + skippedSelects + " round trips avoided");
+        }
+    }
+
+    /**
+     * Returns the number of SELECT commands that have not been transmitted in this session
+     *
+     * @return number of avoided round trips
+     */
+    int getSkippedSelects() {
+        return skippedSelects;
+    }
+
+    @Override
+    public String toString() {
+        return "SelectionState{application=" + (application != null)
+                + ", fileId=" + (fileId == UNKNOWN ? "unknown" : Integer.toHexString(fileId)) + '}';
+    }
+}
@@ -22,6 +22,7 @@ import com.infineon.nfcbpsk.services.appfiledecoder.AppFileDecoder;
 import com.infineon.ndef.utils.Utils;
 
 import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
 
 /**
  * Decodes the product information received from the tag
@@ -124,7 +125,29 @@ public class ProductInformationDecoder extends AppFileDecoder implements DataLen
      * @return Enum ProfileType. returns null in case of unsupported profile type
      */
     public static ProfileType parseProfileType(byte[] bais) {
-        int productProfileTypeInt = Utils.getUINT16(bais, 0);
+        return parseProfileType(Utils.getUINT16(bais, 0));
+    }
+
+    /**
+     * Parse the profile type from a view of the product information without copying it
+     *
+     * @param buffer buffer positioned at the profile type, the position is not changed
+     * @return Enum ProfileType. returns null in case of unsupported profile type or too short buffer
+     */
+    public static ProfileType parseProfileType(ByteBuffer buffer) {
+        if (buffer.remaining() < 2) {
+            return null;
+        }
+        return parseProfileType(buffer.getShort(buffer.position()) & 0xFFFF);
+    }
+
+    /**
+     * Parse the profile type value
+     *
+     * @param productProfileTypeInt encoded profile type
+     * @return Enum ProfileType. returns null in case of unsupported profile type
+     */
+    private static ProfileType parseProfileType(int productProfileTypeInt) {
         if (productProfileTypeInt == ProfileType.A10.value) {
             return ProfileType.A10;
         }
@@ -165,17 +188,32 @@ public class ProductInformationDecoder extends AppFileDecoder implements DataLen
      */
     @Override
     public int extractDataLength(byte[] bytesProductInfo) {
-        try {
-            int manufacturerLength = 0;
-            ProfileType profileType = parseProfileType(bytesProductInfo);
-            if ( profileType != null)
-                manufacturerLength = getManufacturerLength(profileType);
-            int customFieldOffset = 24 + manufacturerLength;
-            int customFieldLength = Utils.getUINT16(bytesProductInfo, customFieldOffset);
-            return (22 + manufacturerLength + 2 + customFieldLength);
-        } catch (Exception e){
+        return extractDataLength(bytesProductInfo, 0, bytesProductInfo.length);
+    }
+
+    /**
+     * Calculate the product information max size from a range of the array without copying it
+     *
+     * @param bytes  array holding part of byte encoded product information
+     * @param offset offset of the product information
+     * @param length length of the product information part
+     * @return return the product info length, 0 if the part is too short
+     */
+    @Override
+    public int extractDataLength(byte[] bytes, int offset, int length) {
+        if (length < 2) {
+            return 0;
+        }
+        int manufacturerLength = 0;
+        ProfileType profileType = parseProfileType(Utils.getUINT16(bytes, offset));
+        if (profileType != null)
+            manufacturerLength = getManufacturerLength(profileType);
+        int customFieldOffset = 24 + manufacturerLength;
+        if (length < customFieldOffset + 2) {
             return 0;
         }
+        int customFieldLength = Utils.getUINT16(bytes, offset + customFieldOffset);
+        return (22 + manufacturerLength + 2 + customFieldLength);
     }
 }
 
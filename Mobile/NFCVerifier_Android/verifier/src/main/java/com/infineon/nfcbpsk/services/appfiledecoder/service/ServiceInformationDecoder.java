@@ -58,12 +58,24 @@ public class ServiceInformationDecoder extends AppFileDecoder implements DataLen
      */
     @Override
     public int extractDataLength(byte[] bytesServiceInfo) {
-        try {
-            int customFieldOffset = 10;
-            int customFieldLength = Utils.getUINT16(bytesServiceInfo, customFieldOffset);
-            return (customFieldOffset + 2 + customFieldLength);
-        } catch (Exception e) {
+        return extractDataLength(bytesServiceInfo, 0, bytesServiceInfo.length);
+    }
+
+    /**
+     * Calculate the service information max size from a range of the array without copying it
+     *
+     * @param bytes  array holding part of byte encoded service information
+     * @param offset offset of the service information
+     * @param length length of the service information part
+     * @return return the service info length, 0 if the part is too short
+     */
+    @Override
+    public int extractDataLength(byte[] bytes, int offset, int length) {
+        int customFieldOffset = 10;
+        if (length < customFieldOffset + 2) {
             return 0;
         }
+        int customFieldLength = Utils.getUINT16(bytes, offset + customFieldOffset);
+        return (customFieldOffset + 2 + customFieldLength);
     }
 }
\ No newline at end of file
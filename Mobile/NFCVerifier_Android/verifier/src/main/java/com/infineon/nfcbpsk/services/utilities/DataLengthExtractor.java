@@ -17,6 +17,8 @@
 
 package com.infineon.nfcbpsk.services.utilities;
 
+import java.util.Arrays;
+
 /**
  * Interface for retrieving the length information based on the APDU response bytes
  */
@@ -28,4 +30,17 @@ public interface DataLengthExtractor {
      * @return Length information
      */
     int extractDataLength(byte[] bytes);
+
+    /**
+     * Retrieves the length information from a range of the array holding the APDU response data.
+     * The default implementation passes a copy of the range to {@link #extractDataLength(byte[])}.
+     *
+     * @param bytes  array holding the APDU response data
+     * @param offset offset of the response data
+     * @param length length of the response data
+     * @return Length information
+     */
+    default int extractDataLength(byte[] bytes, int offset, int length) {
+        return extractDataLength(Arrays.copyOfRange(bytes, offset, offset + length));
+    }
 }
@@ -33,4 +33,17 @@ public class NdefDataLengthExtractor implements DataLengthExtractor {
     public int extractDataLength(byte[] bytes) {
         return Utils.getUINT16(bytes, 0);
     }
+
+    /**
+     * Extracts the NDEF message length from the NDEF file fragment without copying it
+     *
+     * @param bytes  array holding the first fragment of NDEF file
+     * @param offset offset of the fragment
+     * @param length length of the fragment
+     * @return NDEF message length, 0 if the fragment is too short
+     */
+    @Override
+    public int extractDataLength(byte[] bytes, int offset, int length) {
+        return length < 2 ? 0 : Utils.getUINT16(bytes, offset);
+    }
 }
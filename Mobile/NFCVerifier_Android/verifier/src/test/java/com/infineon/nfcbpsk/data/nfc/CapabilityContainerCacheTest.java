@@ -0,0 +1,97 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.nfcbpsk.data.nfc;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the persistence of the CC cache entries and the eviction of the least recently used entry
+ */
+public class CapabilityContainerCacheTest {
+
+    private static final byte[] CC = {0x00, 0x0F, 0x20, 0x00, (byte) 0xFF, 0x00, (byte) 0xFF};
+
+    @Test
+    public void entriesArePersistedAndLoaded() {
+        MemoryStorage storage = new MemoryStorage(null);
+        CapabilityContainerCache cache = new CapabilityContainerCache(storage);
+        cache.put("8010", CC);
+        cache.put("8011", new byte[]{0x01, 0x02});
+
+        CapabilityContainerCache loaded = new CapabilityContainerCache(new MemoryStorage(storage.persisted));
+
+        assertArrayEquals(CC, loaded.get("8010"));
+        assertArrayEquals(new byte[]{0x01, 0x02}, loaded.get("8011"));
+    }
+
+    @Test
+    public void malformedEntriesAreSkipped() {
+        CapabilityContainerCache cache = new CapabilityContainerCache(
+                new MemoryStorage("a=0G;b=010;c=0304;=05;d;e=0607;f=0102/b10"));
+
+        assertNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertArrayEquals(new byte[]{0x03, 0x04}, cache.get("c"));
+        assertNull(cache.get("d"));
+        assertArrayEquals(new byte[]{0x06, 0x07}, cache.get("e"));
+        assertNull(cache.get("f"));
+    }
+
+    @Test
+    public void leastRecentlyUsedEntryIsEvicted() {
+        MemoryStorage storage = new MemoryStorage(null);
+        CapabilityContainerCache cache = new CapabilityContainerCache(storage);
+        for (int i = 0; i < 16; i++) {
+            cache.put("tag" + i, new byte[]{(byte) i});
+        }
+        cache.get("tag0");
+        cache.put("tag16", CC);
+
+        assertNull(cache.get("tag1"));
+        assertArrayEquals(new byte[]{0}, cache.get("tag0"));
+        assertArrayEquals(CC, cache.get("tag16"));
+        assertFalse(storage.persisted.contains("tag1="));
+        assertTrue(storage.persisted.contains("tag0="));
+
+        CapabilityContainerCache loaded = new CapabilityContainerCache(new MemoryStorage(storage.persisted));
+        assertNull(loaded.get("tag1"));
+        assertArrayEquals(new byte[]{15}, loaded.get("tag15"));
+    }
+
+    private static final class MemoryStorage implements CapabilityContainerCache.Storage {
+        private String persisted;
+
+        MemoryStorage(String persisted) {
+            this.persisted = persisted;
+        }
+
+        @Override
+        public String load() {
+            return persisted;
+        }
+
+        @Override
+        public void save(String entries) {
+            persisted = entries;
+        }
+    }
+}
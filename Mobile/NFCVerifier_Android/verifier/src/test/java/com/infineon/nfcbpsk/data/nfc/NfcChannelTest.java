@@ -0,0 +1,167 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.nfcbpsk.data.nfc;
+
+import com.infineon.nfcbpsk.data.nfc.simulator.Type4TagSimulator;
+import com.infineon.nfcbpsk.services.apdu.ApduCommand;
+import com.infineon.nfcbpsk.services.apdu.ApduCommandBuilder;
+import com.infineon.nfcbpsk.services.apdu.ApduException;
+import com.infineon.nfcbpsk.services.apdu.ApduResponse;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that the commands serialized into the reusable command buffers reach the tag unchanged
+ */
+public class NfcChannelTest {
+
+    private CommandRecorder recorder;
+    private NfcChannel nfcChannel;
+
+    @Before
+    public void setUp() {
+        recorder = new CommandRecorder(Type4TagSimulator.builder()
+                .ndefMessage(new byte[20], 0)
+                .limits(1000, 1024, true)
+                .build());
+        nfcChannel = new NfcChannel(recorder, null);
+        assertTrue(nfcChannel.open());
+    }
+
+    @Test
+    public void commandsOfSameLengthAreSentUnchanged() throws ApduException {
+        ApduCommand first = ApduCommandBuilder.selectFile(0x00, 0x0C, new byte[]{(byte) 0xE1, 0x03}, 0);
+        ApduCommand second = ApduCommandBuilder.selectFile(0x00, 0x0C, new byte[]{(byte) 0xE1, 0x04}, 0);
+
+        nfcChannel.transmit(first);
+        nfcChannel.transmit(second);
+
+        assertEquals(2, recorder.commands.size());
+        assertArrayEquals(first.toBytes(), recorder.commands.get(0));
+        assertArrayEquals(second.toBytes(), recorder.commands.get(1));
+    }
+
+    @Test
+    public void commandsAreSentWithExactLength() throws ApduException {
+        ApduCommand[] commands = {
+                new ApduCommand(0x00, 0xA4, 0x00, 0x0C, 0),
+                ApduCommandBuilder.readBinary((short) 0, 0xE6),
+                ApduCommandBuilder.readBinary((short) 0, 1000),
+                ApduCommandBuilder.selectFile(0x04, 0x00, Type4TagSimulator.NDEF_APPLICATION_ID, 0),
+                new ApduCommand(0x00, 0x82, 0x00, 0x00, new byte[64], 0),
+                new ApduCommand(0x00, 0x82, 0x00, 0x00, new byte[300], 0x10),
+                ApduCommandBuilder.readBinary((short) 0, 0x10),
+        };
+
+        for (ApduCommand command : commands) {
+            nfcChannel.transmit(command);
+        }
+
+        assertEquals(commands.length, recorder.commands.size());
+        for (int i = 0; i < commands.length; i++) {
+            assertArrayEquals(commands[i].toBytes(), recorder.commands.get(i));
+        }
+    }
+
+    @Test
+    public void responseIsReturnedForBufferedCommand() throws ApduException {
+        nfcChannel.transmit(ApduCommandBuilder.selectFile(0x04, 0x00, Type4TagSimulator.NDEF_APPLICATION_ID, 0));
+        nfcChannel.transmit(ApduCommandBuilder.selectFile(0x00, 0x0C, new byte[]{(byte) 0xE1, 0x04}, 0));
+
+        ApduResponse response = nfcChannel.transmit(ApduCommandBuilder.readBinary((short) 0, 2));
+
+        assertEquals(ApduResponse.SW_NO_ERROR, response.getSW());
+        assertArrayEquals(new byte[]{0x00, 20}, response.getData());
+    }
+
+    @Test
+    public void lostTagReturnsEmptyResponse() throws ApduException {
+        nfcChannel.close();
+
+        ApduResponse response = nfcChannel.transmit(ApduCommandBuilder.readBinary((short) 0, 2));
+
+        assertEquals(0x0000, response.getSW());
+        assertEquals(0, response.getDataLength());
+    }
+
+    /**
+     * Transport recording a copy of each command at the time it is sent to the simulated tag
+     */
+    private static final class CommandRecorder implements ApduTransport {
+        private final Type4TagSimulator tag;
+        private final List<byte[]> commands = new ArrayList<>();
+
+        CommandRecorder(Type4TagSimulator tag) {
+            this.tag = tag;
+        }
+
+        @Override
+        public void connect() throws IOException {
+            tag.connect();
+        }
+
+        @Override
+        public void close() throws IOException {
+            tag.close();
+        }
+
+        @Override
+        public byte[] transceive(byte[] command) throws IOException {
+            commands.add(command.clone());
+            return tag.transceive(command);
+        }
+
+        @Override
+        public void setTimeout(int timeout) {
+            tag.setTimeout(timeout);
+        }
+
+        @Override
+        public int getTimeout() {
+            return tag.getTimeout();
+        }
+
+        @Override
+        public boolean isExtendedLengthApduSupported() {
+            return tag.isExtendedLengthApduSupported();
+        }
+
+        @Override
+        public int getMaxTransceiveLength() {
+            return tag.getMaxTransceiveLength();
+        }
+
+        @Override
+        public byte[] getHistoricalBytes() {
+            return tag.getHistoricalBytes();
+        }
+
+        @Override
+        public byte[] getHiLayerResponse() {
+            return tag.getHiLayerResponse();
+        }
+    }
+}
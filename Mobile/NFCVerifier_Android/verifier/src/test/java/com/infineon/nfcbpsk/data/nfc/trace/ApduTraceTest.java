@@ -0,0 +1,155 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.nfcbpsk.data.nfc.trace;
+
+import com.infineon.nfcbpsk.data.nfc.ApduTransport;
+import com.infineon.nfcbpsk.data.nfc.CapabilityContainerCache;
+import com.infineon.nfcbpsk.data.nfc.NfcChannel;
+import com.infineon.nfcbpsk.data.nfc.simulator.Type4TagSimulator;
+import com.infineon.nfcbpsk.services.apdu.CommandManager;
+import com.infineon.nfcbpsk.services.apdu.ErrorMessageResolver;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that the CC cache entry recorded in the trace lets the replay take the recorded file access
+ */
+public class ApduTraceTest {
+
+    private static final byte[] HISTORICAL_BYTES = {(byte) 0x80, 0x10};
+
+    @Test
+    public void scanOfCachedTagTypeIsReplayed() throws Exception {
+        Type4TagSimulator tag = Type4TagSimulator.builder()
+                .historicalBytes(HISTORICAL_BYTES)
+                .ndefMessage(new byte[20], 0)
+                .build();
+        CapabilityContainerCache ccCache = new CapabilityContainerCache(null);
+        scan(tag, ccCache);
+        String tagIdentity = NfcChannel.getTagIdentity(HISTORICAL_BYTES, null);
+        RecordingTransport recorder = new RecordingTransport(tag, ccCache);
+        scan(recorder, ccCache);
+
+        ApduTrace trace = readBack(recorder.getTrace());
+
+        assertEquals(tagIdentity, trace.getTagIdentity());
+        assertArrayEquals(ccCache.get(tagIdentity), trace.getCachedCapabilityContainer());
+
+        CapabilityContainerCache replayCache = new CapabilityContainerCache(null);
+        trace.restoreCacheEntry(replayCache);
+        assertArrayEquals(ccCache.get(tagIdentity), replayCache.get(tagIdentity));
+        ReplayTransport replay = new ReplayTransport(trace, 0);
+        scan(replay, replayCache);
+        assertEquals(0, replay.getRemaining());
+    }
+
+    @Test
+    public void scanOfUnknownTagTypeIsReplayed() throws Exception {
+        Type4TagSimulator tag = Type4TagSimulator.builder()
+                .historicalBytes(HISTORICAL_BYTES)
+                .ndefMessage(new byte[20], 0)
+                .build();
+        RecordingTransport recorder = new RecordingTransport(tag, new CapabilityContainerCache(null));
+        scan(recorder, new CapabilityContainerCache(null));
+
+        ApduTrace trace = readBack(recorder.getTrace());
+        assertNull(trace.getCachedCapabilityContainer());
+
+        // A stale entry of the tag type is removed, so the replay reads the CC file as recorded
+        CapabilityContainerCache replayCache = new CapabilityContainerCache(null);
+        replayCache.put(trace.getTagIdentity(), new byte[15]);
+        trace.restoreCacheEntry(replayCache);
+        assertNull(replayCache.get(trace.getTagIdentity()));
+        ReplayTransport replay = new ReplayTransport(trace, 0);
+        scan(replay, replayCache);
+        assertEquals(0, replay.getRemaining());
+    }
+
+    @Test
+    public void traceOfVersion1HasNoCacheEntry() throws IOException {
+        byte[] version1 = {
+                'A', 'P', 'D', 'T', 1, 0x01, (byte) 0x85, 0x02,
+                0, 0, 0, 0, 0, 0, 0, 42,
+                2, (byte) 0x80, 0x10,
+                0,
+                5, 3, 4, 0x00, (byte) 0x84, 0x00, 0x00, 3, (byte) 0x90, 0x00};
+
+        ApduTrace trace = ApduTrace.readFrom(new ByteArrayInputStream(version1));
+
+        assertTrue(trace.isExtendedLengthApduSupported());
+        assertEquals(261, trace.getMaxTransceiveLength());
+        assertEquals(42, trace.getStartTimeMillis());
+        assertArrayEquals(HISTORICAL_BYTES, trace.getHistoricalBytes());
+        assertNull(trace.getCachedCapabilityContainer());
+        assertEquals(1, trace.getEntries().size());
+        assertArrayEquals(new byte[]{0x00, (byte) 0x84, 0x00, 0x00}, trace.getEntries().get(0).getCommand());
+    }
+
+    @Test
+    public void profileOfVersion2TraceIsSkipped() throws IOException {
+        byte[] version2 = {
+                'A', 'P', 'D', 'T', 2, 0x00, (byte) 0xFD, 0x01,
+                0, 0, 0, 0, 0, 0, 0, 42,
+                2, (byte) 0x80, 0x10,
+                0,
+                2, 0x00, 0x0F,
+                (byte) 0x90, 0x16,
+                5, 3, 4, 0x00, (byte) 0x84, 0x00, 0x00, 3, (byte) 0x90, 0x00};
+
+        ApduTrace trace = ApduTrace.readFrom(new ByteArrayInputStream(version2));
+
+        assertEquals(253, trace.getMaxTransceiveLength());
+        assertArrayEquals(new byte[]{0x00, 0x0F}, trace.getCachedCapabilityContainer());
+        assertEquals(1, trace.getEntries().size());
+        assertArrayEquals(new byte[]{0x00, (byte) 0x84, 0x00, 0x00}, trace.getEntries().get(0).getCommand());
+    }
+
+    /**
+     * Reads the NDEF message with a command manager using the cache
+     *
+     * @param transport transport to the tag
+     * @param ccCache   cache of the scan
+     */
+    private static void scan(ApduTransport transport, CapabilityContainerCache ccCache)
+            throws Exception {
+        NfcChannel nfcChannel = new NfcChannel(transport, null);
+        assertTrue(nfcChannel.open());
+        new CommandManager(nfcChannel, ErrorMessageResolver.DEFAULT, null, ccCache).readNDEFMessage();
+        nfcChannel.close();
+    }
+
+    /**
+     * Writes the trace in the binary format and reads it back
+     *
+     * @param trace trace to write
+     * @return trace read back
+     */
+    private static ApduTrace readBack(ApduTrace trace) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        trace.writeTo(outputStream);
+        return ApduTrace.readFrom(new ByteArrayInputStream(outputStream.toByteArray()));
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.nfcbpsk.services.apdu;
+
+import com.infineon.ndef.utils.HexCodec;
+import com.infineon.ndef.utils.UtilException;
+
+import org.junit.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the encoding of the four APDU cases in short and extended format
+ */
+public class ApduCommandTest {
+
+    @Test
+    public void case1() throws UtilException {
+        ApduCommand command = new ApduCommand(0x00, 0xA4, 0x00, 0x0C, 0);
+
+        assertEquals(ApduCommand.APDU_CASE_1, command.getCase());
+        assertEncoding("00A4000C", command);
+    }
+
+    @Test
+    public void case2Short() throws UtilException {
+        assertEncoding("00B00000E6", new ApduCommand(0x00, 0xB0, 0x00, 0x00, 0xE6));
+    }
+
+    @Test
+    public void case2ShortMaximumLength() throws UtilException {
+        ApduCommand command = new ApduCommand(0x00, 0xB0, 0x00, 0x00, 256);
+
+        assertFalse(command.isExtendedFormat());
+        assertEncoding("00B0000000", command);
+    }
+
+    @Test
+    public void case2Extended() throws UtilException {
+        ApduCommand command = new ApduCommand(0x00, 0xB0, 0x00, 0x00, 1000);
+
+        assertTrue(command.isExtendedFormat());
+        assertEncoding("00B00000" + "0003E8", command);
+    }
+
+    @Test
+    public void case2ExtendedMaximumLength() throws UtilException {
+        assertEncoding("00B00000" + "000000", new ApduCommand(0x00, 0xB0, 0x00, 0x00, 65536));
+    }
+
+    @Test
+    public void case3Short() throws UtilException {
+        ApduCommand command = new ApduCommand(0x00, 0xA4, 0x00, 0x0C, bytes("E104"), 0);
+
+        assertEquals(ApduCommand.APDU_CASE_3, command.getCase());
+        assertEncoding("00A4000C02E104", command);
+    }
+
+    @Test
+    public void case3Extended() throws UtilException {
+        byte[] data = new byte[300];
+        data[299] = 0x55;
+        ApduCommand command = new ApduCommand(0x00, 0x82, 0x00, 0x00, data, 0);
+
+        byte[] encoded = command.toBytes();
+        assertEquals(7 + 300, encoded.length);
+        assertArrayEquals(bytes("00820000" + "00012C"), slice(encoded, 0, 7));
+        assertEquals(0x55, encoded[encoded.length - 1]);
+        assertWriteTo(encoded, command);
+    }
+
+    @Test
+    public void case4Short() throws UtilException {
+        ApduCommand command = new ApduCommand(0x00, 0xA4, 0x04, 0x00, bytes("D2760000850101"), 256);
+
+        assertEquals(ApduCommand.APDU_CASE_4, command.getCase());
+        assertEncoding("00A4040007D276000085010100", command);
+    }
+
+    @Test
+    public void case4ExtendedByData() throws UtilException {
+        byte[] data = new byte[256];
+        ApduCommand command = new ApduCommand(0x00, 0x82, 0x00, 0x00, data, 0x10);
+
+        byte[] encoded = command.toBytes();
+        assertEquals(9 + 256, encoded.length);
+        assertArrayEquals(bytes("00820000" + "000100"), slice(encoded, 0, 7));
+        assertArrayEquals(bytes("0010"), slice(encoded, encoded.length - 2, 2));
+        assertWriteTo(encoded, command);
+    }
+
+    @Test
+    public void case4ExtendedByExpectedLength() throws UtilException {
+        assertEncoding("00820000" + "000002A1A2" + "0400", new ApduCommand(0x00, 0x82, 0x00, 0x00, bytes("A1A2"), 1024));
+    }
+
+    @Test
+    public void forcedExtendedFormat() throws UtilException {
+        ApduCommand command = new ApduCommand(0x00, 0xB0, 0x00, 0x00, 0x10);
+        command.setExtendedFormat(true);
+
+        assertTrue(command.isExtendedFormat());
+        assertEncoding("00B00000" + "000010", command);
+
+        command.setExtendedFormat(false);
+        assertEncoding("00B0000010", command);
+    }
+
+    @Test
+    public void case1IsNeverExtended() throws UtilException {
+        ApduCommand command = new ApduCommand(0x00, 0xA4, 0x00, 0x0C, 0);
+        command.setExtendedFormat(true);
+
+        assertFalse(command.isExtendedFormat());
+        assertEncoding("00A4000C", command);
+    }
+
+    @Test
+    public void changedExpectedLengthIsEncoded() throws UtilException {
+        ApduCommand command = new ApduCommand(0x00, 0xB0, 0x00, 0x00, 0xE6);
+        command.toBytes();
+
+        command.setLe(1000);
+        assertEncoding("00B00000" + "0003E8", command);
+
+        command.setLe(0x10);
+        assertEncoding("00B0000010", command);
+    }
+
+    @Test
+    public void parsedCommandIsEncodedUnchanged() throws ApduException, UtilException {
+        String[] encodings = {
+                "00A4000C",
+                "00B00000E6",
+                "00B00000" + "0003E8",
+                "00A4000C02E104",
+                "00A4040007D276000085010100",
+                "00820000" + "000002A1A2" + "0400",
+        };
+        for (String encoding : encodings) {
+            assertEncoding(encoding, new ApduCommand(bytes(encoding)));
+        }
+    }
+
+    @Test
+    public void writeToOffset() throws UtilException {
+        ApduCommand command = new ApduCommand(0x00, 0xA4, 0x00, 0x0C, bytes("E104"), 0);
+        byte[] destination = new byte[12];
+
+        assertEquals(7, command.writeTo(destination, 3));
+        assertArrayEquals(bytes("000000" + "00A4000C02E104" + "0000"), destination);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void writeToShortArray() {
+        new ApduCommand(0x00, 0xB0, 0x00, 0x00, 1000).writeTo(new byte[6], 0);
+    }
+
+    @Test
+    public void writeToBufferAdvancesPosition() throws UtilException {
+        ApduCommand command = new ApduCommand(0x00, 0xB0, 0x00, 0x00, 0xE6);
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.put((byte) 0x11);
+
+        assertEquals(5, command.writeTo(buffer));
+        assertEquals(6, buffer.position());
+        assertArrayEquals(bytes("11" + "00B00000E6"), slice(buffer.array(), 0, 6));
+    }
+
+    @Test
+    public void writeToDirectBuffer() throws UtilException {
+        ApduCommand command = new ApduCommand(0x00, 0xB0, 0x00, 0x00, 1000);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(16);
+
+        assertEquals(7, command.writeTo(buffer));
+        byte[] written = new byte[7];
+        buffer.flip();
+        buffer.get(written);
+        assertArrayEquals(bytes("00B00000" + "0003E8"), written);
+    }
+
+    @Test(expected = BufferOverflowException.class)
+    public void writeToFullBuffer() {
+        new ApduCommand(0x00, 0xB0, 0x00, 0x00, 0xE6).writeTo(ByteBuffer.allocate(4));
+    }
+
+    /**
+     * Checks the length, toBytes and writeTo of the command against the expected encoding
+     *
+     * @param expected expected encoding as hex string
+     * @param command  command to check
+     */
+    private static void assertEncoding(String expected, ApduCommand command) throws UtilException {
+        byte[] encoded = bytes(expected);
+        assertEquals(encoded.length, command.getLength());
+        assertArrayEquals(encoded, command.toBytes());
+        assertWriteTo(encoded, command);
+    }
+
+    /**
+     * Checks that writeTo into an array and a buffer writes the expected encoding
+     *
+     * @param expected expected encoding
+     * @param command  command to check
+     */
+    private static void assertWriteTo(byte[] expected, ApduCommand command) {
+        byte[] array = new byte[expected.length];
+        assertEquals(expected.length, command.writeTo(array, 0));
+        assertArrayEquals(expected, array);
+
+        ByteBuffer buffer = ByteBuffer.allocate(expected.length);
+        assertEquals(expected.length, command.writeTo(buffer));
+        assertArrayEquals(expected, buffer.array());
+    }
+
+    private static byte[] bytes(String hex) throws UtilException {
+        return HexCodec.decode(hex);
+    }
+
+    private static byte[] slice(byte[] array, int offset, int length) {
+        byte[] slice = new byte[length];
+        System.arraycopy(array, offset, slice, 0, length);
+        return slice;
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.nfcbpsk.services.apdu;
+
+import com.infineon.ndef.utils.HexCodec;
+import com.infineon.ndef.utils.UtilException;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the parsing of the status word and the access to the response data
+ */
+public class ApduResponseTest {
+
+    @Test
+    public void successStatusWord() throws ApduException, UtilException {
+        ApduResponse response = new ApduResponse(bytes("01029000"), 0);
+
+        assertEquals(ApduResponse.SW_NO_ERROR, response.getSW());
+        assertTrue(response.isSuccessSW());
+        assertEquals(2, response.getDataLength());
+        assertArrayEquals(bytes("0102"), response.getData());
+    }
+
+    @Test
+    public void errorStatusWordIsPositive() throws ApduException, UtilException {
+        ApduResponse response = new ApduResponse(bytes("6A82"), 0);
+
+        assertEquals(0x6A82, response.getSW());
+        assertFalse(response.isSuccessSW());
+        assertEquals(0, response.getDataLength());
+
+        assertEquals(0xFFFF, new ApduResponse(bytes("FFFF"), 0).getSW());
+        assertEquals(ApduResponse.SW_CONDITIONS_NOT_SATISFIED, new ApduResponse(bytes("6985"), 0).getSW());
+    }
+
+    @Test
+    public void responseWithoutStatusWord() throws ApduException, UtilException {
+        ApduResponse response = new ApduResponse(bytes("90"), 0);
+
+        assertEquals(0x0000, response.getSW());
+        assertFalse(response.isSuccessSW());
+        assertEquals(0, response.getDataLength());
+    }
+
+    @Test
+    public void responseInSharedArray() throws UtilException {
+        byte[] array = bytes("A1A2A3900055");
+        ApduResponse response = new ApduResponse(array, 5, 0);
+
+        assertEquals(ApduResponse.SW_NO_ERROR, response.getSW());
+        assertArrayEquals(bytes("A1A2A3"), response.getData());
+        assertArrayEquals(bytes("A1A2A39000"), response.toBytes());
+        assertEquals("A1 A2 A3 90 00", response.toString().toUpperCase());
+
+        assertThrows(IllegalArgumentException.class, () -> new ApduResponse(array, 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ApduResponse(array, 7, 0));
+    }
+
+    @Test
+    public void dataAccessIsLimitedToData() throws ApduException, UtilException {
+        ApduResponse response = new ApduResponse(bytes("0102039000"), 0);
+
+        assertEquals(0x03, response.getDataByte(2));
+        assertEquals(0x0203, response.getDataUINT16(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> response.getDataByte(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> response.getDataUINT16(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> response.getDataByte(-1));
+    }
+
+    @Test
+    public void dataBufferIsReadOnlyViewOfData() throws ApduException, UtilException {
+        ApduResponse response = new ApduResponse(bytes("0102039000"), 0);
+
+        ByteBuffer buffer = response.getDataBuffer();
+
+        assertEquals(0, buffer.position());
+        assertEquals(3, buffer.remaining());
+        assertEquals(0x0102, buffer.getShort(0));
+        assertTrue(buffer.isReadOnly());
+        assertThrows(ReadOnlyBufferException.class, () -> buffer.put(0, (byte) 0));
+    }
+
+    @Test
+    public void dataComparison() throws ApduException, UtilException {
+        ApduResponse response = new ApduResponse(bytes("0102039000"), 0);
+
+        assertTrue(response.dataEquals(bytes("010203")));
+        assertFalse(response.dataEquals(bytes("01020390")));
+        assertFalse(response.dataEquals(bytes("0102")));
+        assertTrue(response.dataEquals(1, bytes("FF0203"), 1, 2));
+        assertFalse(response.dataEquals(2, bytes("0390"), 0, 2));
+    }
+
+    @Test
+    public void copyData() throws ApduException, UtilException {
+        ApduResponse response = new ApduResponse(bytes("0102039000"), 0);
+        byte[] destination = new byte[5];
+
+        assertEquals(3, response.copyData(destination, 1));
+        assertArrayEquals(bytes("0001020300"), destination);
+    }
+
+    @Test
+    public void appendedResponseReplacesStatusWord() throws ApduException, UtilException {
+        ApduResponse response = new ApduResponse(bytes("01026100"), 10);
+
+        assertSame(response, response.appendResponse(bytes("03049000"), 5));
+
+        assertEquals(ApduResponse.SW_NO_ERROR, response.getSW());
+        assertArrayEquals(bytes("01020304"), response.getData());
+        assertEquals(15, response.getExecutionTime());
+    }
+
+    @Test
+    public void statusWordChecks() throws ApduException, UtilException {
+        ApduResponse success = new ApduResponse(bytes("01029000"), 0);
+        ApduResponse error = new ApduResponse(bytes("6982"), 0);
+
+        assertSame(success, success.checkOK());
+        assertSame(error, error.checkSW(0x6982));
+        assertSame(error, error.checkSW(0x16982));
+        assertThrows(ApduException.class, error::checkOK);
+        assertThrows(ApduException.class, () -> success.checkSW(0x6982));
+    }
+
+    @Test
+    public void dataChecks() throws ApduException, UtilException {
+        ApduResponse response = new ApduResponse(bytes("01029000"), 0);
+
+        response.checkDataLength(2).checkData(bytes("0102")).checkResponse(bytes("01029000"));
+        assertThrows(ApduException.class, () -> response.checkDataLength(3));
+        assertThrows(ApduException.class, () -> response.checkData(bytes("0103")));
+        assertThrows(ApduException.class, () -> response.checkResponse(bytes("01026A82")));
+    }
+
+    @Test
+    public void maskedCheck() throws ApduException, UtilException {
+        ApduResponse response = new ApduResponse(bytes("12346283"), 0);
+
+        // Only the high nibbles of the data and the first byte of the status word are compared
+        response.check(bytes("F0F0"), bytes("1030"), bytes("FF00"), bytes("6200"));
+        response.check(null, bytes("1234"), null, bytes("90006283"));
+        response.check(null, null, null, null);
+
+        assertThrows(ApduException.class, () -> response.check(bytes("F0F0"), bytes("1034"), null, null));
+        assertThrows(ApduException.class, () -> response.check(bytes("F0"), null, null, null));
+        assertThrows(ApduException.class, () -> response.check(null, null, bytes("FF"), bytes("6200")));
+        assertThrows(ApduException.class, () -> response.check(null, null, null, bytes("9000")));
+    }
+
+    @Test
+    public void accumulatedResponsesHaveLastStatusWord() throws ApduException, UtilException {
+        ResponseBuffer responseBuffer = new ResponseBuffer(2);
+
+        assertEquals(0, responseBuffer.append(new ApduResponse(bytes("01029000"), 0)));
+        assertEquals(2, responseBuffer.append(new ApduResponse(bytes("0304056282"), 0)));
+        ApduResponse response = responseBuffer.toApduResponse();
+
+        assertEquals(0x6282, response.getSW());
+        assertArrayEquals(bytes("0102030405"), response.getData());
+    }
+
+    private static byte[] bytes(String hex) throws UtilException {
+        return HexCodec.decode(hex);
+    }
+}
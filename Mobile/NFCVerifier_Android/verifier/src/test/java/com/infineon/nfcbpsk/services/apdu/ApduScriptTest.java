@@ -0,0 +1,226 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.nfcbpsk.services.apdu;
+
+import com.infineon.nfcbpsk.data.nfc.NfcChannel;
+import com.infineon.nfcbpsk.data.nfc.simulator.Type4TagSimulator;
+import com.infineon.nfcbpsk.data.nfc.trace.RecordingTransport;
+import com.infineon.nfcbpsk.data.nfc.trace.TraceEntry;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that the compiled APDU scripts transmit the same commands as {@link ApduCommandBuilder},
+ * and the status word checks of the script steps
+ */
+public class ApduScriptTest {
+
+    private static final byte[] NDEF_APPLICATION_ID =
+            {(byte) 0xD2, (byte) 0x76, (byte) 0x00, (byte) 0x00, (byte) 0x85, (byte) 0x01, (byte) 0x00};
+    private static final byte[] CC_FILE_ID = {(byte) 0xE1, (byte) 0x03};
+    private static final byte[] NDEF_FILE_ID = {(byte) 0xE1, (byte) 0x04};
+    private static final byte[] ID_INFO_FILE_ID = {(byte) 0x2F, (byte) 0xF7};
+
+    private static final ErrorMessageResolver MESSAGES = message -> "Failed: " + message.name();
+
+    private RecordingTransport recorder;
+    private NfcChannel nfcChannel;
+
+    @Before
+    public void setUp() {
+        byte[] chipId = new byte[16];
+        for (int i = 0; i < chipId.length; i++) {
+            chipId[i] = (byte) i;
+        }
+        recorder = new RecordingTransport(Type4TagSimulator.builder()
+                .ndefMessage(new byte[20], 0)
+                .chipId(chipId, 0)
+                .build());
+        nfcChannel = new NfcChannel(recorder, null);
+        assertTrue(nfcChannel.open());
+    }
+
+    @Test
+    public void verificationStartMatchesBuilder() throws ApduException {
+        CommandManager commandManager = new CommandManager(nfcChannel);
+
+        commandManager.readNDEFMessage();
+        commandManager.getChipUniqueID();
+        commandManager.getChallenge();
+
+        List<TraceEntry> entries = recorder.getTrace().getEntries();
+        assertEquals(8, entries.size());
+        assertCommand(ApduCommandBuilder.selectFile(0x04, 0x00, NDEF_APPLICATION_ID, 0), entries.get(0));
+        assertCommand(ApduCommandBuilder.selectFile(0x00, 0x00, CC_FILE_ID, 0), entries.get(1));
+        // The CC file is read with Le 00
+        assertCommand(ApduCommandBuilder.readBinary((short) 0x0000, 256), entries.get(2));
+        assertCommand(ApduCommandBuilder.selectFile(0x00, 0x00, NDEF_FILE_ID, 0), entries.get(3));
+        assertCommand(ApduCommandBuilder.readBinary((short) 0x0000, 0xE6), entries.get(4));
+        assertCommand(ApduCommandBuilder.selectFile(0x00, 0x00, ID_INFO_FILE_ID, 0), entries.get(5));
+        assertCommand(ApduCommandBuilder.readBinary((short) 0x0008, 0x10), entries.get(6));
+        assertCommand(ApduCommandBuilder.getChallenge(), entries.get(7));
+    }
+
+    @Test
+    public void filledSlotsMatchBuilder() throws ApduException {
+        ApduScript script = ApduScript.builder()
+                .step("00 A4 04 00 07 D2 76 00 00 85 01 00", ErrorMessage.SELECT_AID)
+                .step("00 A4 00 00 02 {FILE_ID:2}", ErrorMessage.SELECT_ID_INFO_FILE)
+                .step("00 B0 {OFFSET:2} {LE}", ErrorMessage.READ_ID_INFO_FILE)
+                .build();
+
+        script.compile(new ApduScript.Values()
+                .set("FILE_ID", 0x2FF7)
+                .set("OFFSET", 0x0008)
+                .set("LE", 0x10))
+                .execute(nfcChannel, MESSAGES);
+        script.compile(new ApduScript.Values()
+                .set("FILE_ID", 0xE104)
+                .set("OFFSET", 0x0002)
+                .set("LE", 0xE6))
+                .execute(nfcChannel, MESSAGES, 1);
+
+        List<TraceEntry> entries = recorder.getTrace().getEntries();
+        assertEquals(5, entries.size());
+        assertCommand(ApduCommandBuilder.selectFile(0x04, 0x00, NDEF_APPLICATION_ID, 0), entries.get(0));
+        assertCommand(ApduCommandBuilder.selectFile(0x00, 0x00, ID_INFO_FILE_ID, 0), entries.get(1));
+        assertCommand(ApduCommandBuilder.readBinary((short) 0x0008, 0x10), entries.get(2));
+        assertCommand(ApduCommandBuilder.selectFile(0x00, 0x00, NDEF_FILE_ID, 0), entries.get(3));
+        assertCommand(ApduCommandBuilder.readBinary((short) 0x0002, 0xE6), entries.get(4));
+    }
+
+    @Test
+    public void readWithSfiMatchesBuilder() throws ApduException {
+        int p1p2 = 0x8000 | (0x1F << 8) | 0x08;
+        ApduScript.builder()
+                .step("00 B0 {OFFSET:2} {LE}", ErrorMessage.READ_ID_INFO_FILE)
+                .build()
+                .compile(new ApduScript.Values().set("OFFSET", p1p2).set("LE", 0x10))
+                .tryExecute(nfcChannel);
+
+        assertCommand(ApduCommandBuilder.readBinary((short) p1p2, 0x10), recorder.getTrace().getEntries().get(0));
+    }
+
+    @Test
+    public void unexpectedStatusWordAbortsScript() throws ApduException {
+        CompiledApduScript script = ApduScript.builder()
+                .step("00 A4 04 00 07 D2 76 00 00 85 01 00", ErrorMessage.SELECT_AID)
+                .step("00 A4 00 00 02 {FILE_ID:2}", ErrorMessage.SELECT_NDEF_FILE)
+                .step("00 B0 00 00 02", ErrorMessage.READ_NDEF_FILE)
+                .build()
+                .compile(new ApduScript.Values().set("FILE_ID", 0x1234));
+
+        ApduException exception = assertThrows(ApduException.class, () -> script.execute(nfcChannel, MESSAGES));
+
+        assertEquals("Failed: SELECT_NDEF_FILE", exception.getMessage());
+        assertEquals(2, recorder.getTrace().getEntries().size());
+    }
+
+    @Test
+    public void tryExecuteReturnsUnexpectedResponse() throws ApduException {
+        CompiledApduScript script = ApduScript.builder()
+                .step("00 A4 04 00 07 D2 76 00 00 85 01 00", ErrorMessage.SELECT_AID)
+                .step("00 A4 00 00 02 {FILE_ID:2}", ErrorMessage.SELECT_NDEF_FILE)
+                .step("00 B0 00 00 02", ErrorMessage.READ_NDEF_FILE)
+                .build()
+                .compile(new ApduScript.Values().set("FILE_ID", 0x1234));
+
+        ApduResponse response = script.tryExecute(nfcChannel);
+
+        assertEquals(0x6A82, response.getSW());
+        assertEquals(2, recorder.getTrace().getEntries().size());
+    }
+
+    @Test
+    public void executionStartsAtFirstStep() throws ApduException {
+        CompiledApduScript script = ApduScript.builder()
+                .step("00 A4 04 00 07 D2 76 00 00 85 01 00", ErrorMessage.SELECT_AID)
+                .step("00 A4 00 00 02 E1 04", ErrorMessage.SELECT_NDEF_FILE)
+                .step("00 B0 00 00 02", ErrorMessage.READ_NDEF_FILE)
+                .build()
+                .compile(new ApduScript.Values());
+        script.execute(nfcChannel, MESSAGES);
+
+        ApduResponse response = script.execute(nfcChannel, MESSAGES, 2);
+
+        assertArrayEquals(new byte[]{0x00, 20}, response.getData());
+        assertEquals(4, recorder.getTrace().getEntries().size());
+        assertThrows(IllegalArgumentException.class, () -> script.execute(nfcChannel, MESSAGES, 3));
+    }
+
+    @Test
+    public void acceptedStatusWords() {
+        CompiledApduScript script = ApduScript.builder()
+                .step("00 A4 00 00 02 E1 04", ErrorMessage.SELECT_NDEF_FILE)
+                .step("00 B0 00 00 02", ErrorMessage.READ_NDEF_FILE, ApduResponse.SW_NO_ERROR, 0x6282)
+                .build()
+                .compile(new ApduScript.Values());
+
+        assertEquals(2, script.size());
+        assertTrue(script.isExpected(0, ApduResponse.SW_NO_ERROR));
+        assertFalse(script.isExpected(0, 0x6282));
+        assertTrue(script.isExpected(1, 0x6282));
+        assertFalse(script.isExpected(1, 0x6A82));
+    }
+
+    @Test
+    public void invalidTemplates() {
+        assertThrows(IllegalArgumentException.class, () -> ApduScript.builder()
+                .step("00 B0 00 0", ErrorMessage.READ_NDEF_FILE));
+        assertThrows(IllegalArgumentException.class, () -> ApduScript.builder()
+                .step("00 B0 00 00 XY", ErrorMessage.READ_NDEF_FILE));
+        assertThrows(IllegalArgumentException.class, () -> ApduScript.builder()
+                .step("00 B0 {OFFSET:5} {LE}", ErrorMessage.READ_NDEF_FILE));
+    }
+
+    @Test
+    public void invalidValues() {
+        ApduScript script = ApduScript.builder()
+                .step("00 B0 {OFFSET:2} {LE}", ErrorMessage.READ_NDEF_FILE)
+                .build();
+        ApduScript wrongLc = ApduScript.builder()
+                .step("00 A4 00 00 03 {FILE_ID:2}", ErrorMessage.SELECT_NDEF_FILE)
+                .build();
+
+        assertThrows(IllegalArgumentException.class, () -> script.compile(new ApduScript.Values().set("OFFSET", 0)));
+        assertThrows(IllegalArgumentException.class, () -> script.compile(new ApduScript.Values()
+                .set("OFFSET", 0x10000).set("LE", 0)));
+        assertThrows(IllegalArgumentException.class, () -> script.compile(new ApduScript.Values()
+                .set("OFFSET", 0).set("LE", 0x100)));
+        assertThrows(IllegalArgumentException.class, () -> wrongLc.compile(new ApduScript.Values()
+                .set("FILE_ID", 0xE104)));
+    }
+
+    /**
+     * Checks the transmitted command against the command of the builder
+     *
+     * @param expected command of the builder
+     * @param entry    recorded exchange
+     */
+    private static void assertCommand(ApduCommand expected, TraceEntry entry) {
+        assertArrayEquals(expected.toBytes(), entry.getCommand());
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.nfcbpsk.services.apdu;
+
+import com.infineon.nfcbpsk.data.nfc.ApduTransport;
+import com.infineon.nfcbpsk.data.nfc.NfcChannel;
+import com.infineon.nfcbpsk.data.nfc.simulator.Type4TagSimulator;
+import com.infineon.nfcbpsk.services.appfiledecoder.product.ProfileType;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the READ BINARY commands of the NDEF, product information and service information file
+ * against the simulated tag: the file is read with ceil(file length / MLe) commands, the last
+ * command reads exactly up to the end of the file and the data is received completely.
+ */
+public class CommandManagerReadTest {
+
+    /**
+     * Expected length of the short READ BINARY commands
+     */
+    private static final int MLE = 0xE6;
+
+    /**
+     * Expected length of the READ BINARY of the CC file, Le 00
+     */
+    private static final int CC_LE = 256;
+
+    private static final int MANUFACTURER_LENGTH_B10 = 64;
+
+    @Test
+    public void ndefFileReadWithPlannedCommands() throws ApduException {
+        byte[] ndefMessage = content(600);
+        ReadBinaryRecorder recorder = new ReadBinaryRecorder(Type4TagSimulator.builder()
+                .ndefMessage(ndefMessage, 0)
+                .build(), false);
+
+        ApduResponse response = connect(recorder).readNDEFMessage();
+
+        assertTrue(response.isSuccessSW());
+        assertArrayEquals(ndefFile(ndefMessage), response.getData());
+        // The CC file is read with one command before the NDEF file
+        assertEquals(Arrays.asList(CC_LE, MLE, MLE, 602 - 2 * MLE), recorder.expectedLengths);
+    }
+
+    @Test
+    public void ndefFileOfExactMultipleLength() throws ApduException {
+        byte[] ndefMessage = content(2 * MLE - 2);
+        ReadBinaryRecorder recorder = new ReadBinaryRecorder(Type4TagSimulator.builder()
+                .ndefMessage(ndefMessage, 0)
+                .build(), false);
+
+        ApduResponse response = connect(recorder).readNDEFMessage();
+
+        assertArrayEquals(ndefFile(ndefMessage), response.getData());
+        assertEquals(Arrays.asList(CC_LE, MLE, MLE), recorder.expectedLengths);
+    }
+
+    @Test
+    public void ndefFileReadWithExtendedLength() throws ApduException {
+        byte[] ndefMessage = content(2400);
+        ReadBinaryRecorder recorder = new ReadBinaryRecorder(Type4TagSimulator.builder()
+                .ndefMessage(ndefMessage, 0)
+                .limits(1000, 1024, true)
+                .build(), true);
+
+        ApduResponse response = connect(recorder).readNDEFMessage();
+
+        assertArrayEquals(ndefFile(ndefMessage), response.getData());
+        assertEquals(Arrays.asList(CC_LE, 1000, 1000, 402), recorder.expectedLengths);
+    }
+
+    @Test
+    public void rejectedExtendedLengthIsReadWithShortLength() throws ApduException {
+        byte[] ndefMessage = content(600);
+        // The phone reports extended length support, the tag rejects it
+        ReadBinaryRecorder recorder = new ReadBinaryRecorder(Type4TagSimulator.builder()
+                .ndefMessage(ndefMessage, 0)
+                .limits(1000, 1024, false)
+                .build(), true);
+
+        ApduResponse response = connect(recorder).readNDEFMessage();
+
+        assertArrayEquals(ndefFile(ndefMessage), response.getData());
+        assertEquals(Arrays.asList(CC_LE, 1000, MLE, MLE, 602 - 2 * MLE), recorder.expectedLengths);
+    }
+
+    @Test
+    public void productInformationReadWithPlannedCommands() throws ApduException {
+        byte[] productInformation = productInformation(400);
+        ReadBinaryRecorder recorder = new ReadBinaryRecorder(Type4TagSimulator.builder()
+                .ndefMessage(content(10), 0)
+                .productInformation(productInformation)
+                .build(), false);
+        CommandManager commandManager = connect(recorder);
+        commandManager.readNDEFMessage();
+        recorder.expectedLengths.clear();
+
+        ApduResponse response = commandManager.readProductInformation();
+
+        assertTrue(response.isSuccessSW());
+        assertArrayEquals(productInformation, response.getData());
+        int fileLength = productInformation.length;
+        assertEquals((fileLength + MLE - 1) / MLE, recorder.expectedLengths.size());
+        assertEquals(Arrays.asList(MLE, MLE, fileLength - 2 * MLE), recorder.expectedLengths);
+    }
+
+    @Test
+    public void productInformationReadWithOneCommand() throws ApduException {
+        byte[] productInformation = productInformation(20);
+        ReadBinaryRecorder recorder = new ReadBinaryRecorder(Type4TagSimulator.builder()
+                .ndefMessage(content(10), 0)
+                .productInformation(productInformation)
+                .build(), false);
+        CommandManager commandManager = connect(recorder);
+        commandManager.readNDEFMessage();
+        recorder.expectedLengths.clear();
+
+        ApduResponse response = commandManager.readProductInformation();
+
+        assertArrayEquals(productInformation, response.getData());
+        assertEquals(Arrays.asList(MLE), recorder.expectedLengths);
+    }
+
+    @Test
+    public void serviceInformationReadWithPlannedCommands() throws ApduException {
+        byte[] serviceInformation = serviceInformation(300);
+        ReadBinaryRecorder recorder = new ReadBinaryRecorder(Type4TagSimulator.builder()
+                .ndefMessage(content(10), 0)
+                .serviceInformation(serviceInformation)
+                .build(), false);
+        CommandManager commandManager = connect(recorder);
+        commandManager.readNDEFMessage();
+        recorder.expectedLengths.clear();
+
+        ApduResponse response = commandManager.readServiceInformation();
+
+        assertTrue(response.isSuccessSW());
+        assertArrayEquals(serviceInformation, response.getData());
+        assertEquals(Arrays.asList(MLE, serviceInformation.length - MLE), recorder.expectedLengths);
+    }
+
+    /**
+     * Opens the channel to the tag
+     *
+     * @param transport transport to the tag
+     * @return command manager of the channel
+     */
+    private static CommandManager connect(ApduTransport transport) {
+        NfcChannel nfcChannel = new NfcChannel(transport, null);
+        assertTrue(nfcChannel.open());
+        return new CommandManager(nfcChannel);
+    }
+
+    /**
+     * Returns test data of the given length
+     *
+     * @param length length of the data
+     * @return data
+     */
+    private static byte[] content(int length) {
+        byte[] content = new byte[length];
+        for (int i = 0; i < length; i++) {
+            content[i] = (byte) (i * 7 + 3);
+        }
+        return content;
+    }
+
+    /**
+     * Returns the NDEF file of the message: NLEN followed by the message
+     *
+     * @param ndefMessage NDEF message
+     * @return content of the NDEF file
+     */
+    private static byte[] ndefFile(byte[] ndefMessage) {
+        byte[] file = new byte[ndefMessage.length + 2];
+        file[0] = (byte) (ndefMessage.length >> 8);
+        file[1] = (byte) ndefMessage.length;
+        System.arraycopy(ndefMessage, 0, file, 2, ndefMessage.length);
+        return file;
+    }
+
+    /**
+     * Returns the product information file of a B10 tag with custom fields of the given length
+     *
+     * @param customLength length of the custom fields
+     * @return content of the product information file
+     */
+    private static byte[] productInformation(int customLength) {
+        byte[] file = content(24 + MANUFACTURER_LENGTH_B10 + 2 + customLength);
+        file[0] = (byte) (ProfileType.B10.value >> 8);
+        file[1] = (byte) ProfileType.B10.value;
+        int customOffset = 24 + MANUFACTURER_LENGTH_B10;
+        file[customOffset] = (byte) (customLength >> 8);
+        file[customOffset + 1] = (byte) customLength;
+        return file;
+    }
+
+    /**
+     * Returns the service information file with custom fields of the given length
+     *
+     * @param customLength length of the custom fields
+     * @return content of the service information file
+     */
+    private static byte[] serviceInformation(int customLength) {
+        byte[] file = content(12 + customLength);
+        file[10] = (byte) (customLength >> 8);
+        file[11] = (byte) customLength;
+        return file;
+    }
+
+    /**
+     * Transport recording the expected length of the READ BINARY commands sent to the simulated tag
+     */
+    private static final class ReadBinaryRecorder implements ApduTransport {
+        private final Type4TagSimulator tag;
+        private final boolean extendedLengthSupported;
+        private final List<Integer> expectedLengths = new ArrayList<>();
+
+        ReadBinaryRecorder(Type4TagSimulator tag, boolean extendedLengthSupported) {
+            this.tag = tag;
+            this.extendedLengthSupported = extendedLengthSupported;
+        }
+
+        @Override
+        public void connect() throws IOException {
+            tag.connect();
+        }
+
+        @Override
+        public void close() throws IOException {
+            tag.close();
+        }
+
+        @Override
+        public byte[] transceive(byte[] command) throws IOException {
+            if (command.length >= 5 && command[1] == (byte) 0xB0) {
+                try {
+                    expectedLengths.add(new ApduCommand(command).getLe());
+                } catch (ApduException e) {
+                    throw new IOException(e);
+                }
+            }
+            return tag.transceive(command);
+        }
+
+        @Override
+        public void setTimeout(int timeout) {
+            tag.setTimeout(timeout);
+        }
+
+        @Override
+        public int getTimeout() {
+            return tag.getTimeout();
+        }
+
+        @Override
+        public boolean isExtendedLengthApduSupported() {
+            return extendedLengthSupported;
+        }
+
+        @Override
+        public int getMaxTransceiveLength() {
+            return tag.getMaxTransceiveLength();
+        }
+
+        @Override
+        public byte[] getHistoricalBytes() {
+            return tag.getHistoricalBytes();
+        }
+
+        @Override
+        public byte[] getHiLayerResponse() {
+            return tag.getHiLayerResponse();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.nfcbpsk.services.apdu;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of the READ BINARY plans of files with and without a header preceding the counted data
+ */
+public class ReadPlannerTest {
+
+    @Test
+    public void firstCommandReadsMaximumLength() {
+        ReadPlanner planner = new ReadPlanner("NDEF", 2, 0xE6);
+
+        assertFalse(planner.isFileLengthKnown());
+        assertEquals(-1, planner.getFileLength());
+        assertEquals(0xE6, planner.nextLength(0));
+        assertEquals(0, planner.getPlannedCommands());
+    }
+
+    @Test
+    public void headerIsAddedToDataLength() {
+        ReadPlanner planner = new ReadPlanner("NDEF", 2, 0xE6);
+        planner.onCommandIssued();
+        planner.setDataLength(600, 0xE6);
+
+        assertTrue(planner.isFileLengthKnown());
+        assertEquals(602, planner.getFileLength());
+        assertEquals(3, planner.getPlannedCommands());
+        assertEquals(0xE6, planner.nextLength(0xE6));
+        assertEquals(602 - 2 * 0xE6, planner.nextLength(2 * 0xE6));
+        assertEquals(0, planner.nextLength(602));
+    }
+
+    @Test
+    public void fileWithoutHeaderIsDataLength() {
+        ReadPlanner planner = new ReadPlanner("Service information", 0, 0xE6);
+        planner.onCommandIssued();
+        planner.setDataLength(312, 0xE6);
+
+        assertEquals(312, planner.getFileLength());
+        assertEquals(2, planner.getPlannedCommands());
+        assertEquals(312 - 0xE6, planner.nextLength(0xE6));
+    }
+
+    @Test
+    public void exactMultipleNeedsNoTrailingCommand() {
+        ReadPlanner planner = new ReadPlanner("NDEF", 2, 0xE6);
+        planner.onCommandIssued();
+        planner.setDataLength(2 * 0xE6 - 2, 0xE6);
+
+        assertEquals(2 * 0xE6, planner.getFileLength());
+        assertEquals(2, planner.getPlannedCommands());
+        assertEquals(0xE6, planner.nextLength(0xE6));
+        assertEquals(0, planner.nextLength(2 * 0xE6));
+    }
+
+    @Test
+    public void fileReadByFirstCommand() {
+        ReadPlanner planner = new ReadPlanner("Product information", 2, 0xE6);
+        planner.onCommandIssued();
+        planner.setDataLength(124, 126);
+
+        assertEquals(126, planner.getFileLength());
+        assertEquals(1, planner.getPlannedCommands());
+        assertEquals(0, planner.nextLength(126));
+    }
+
+    @Test
+    public void negativeDataLengthIsHeaderOnly() {
+        ReadPlanner planner = new ReadPlanner("NDEF", 2, 0xE6);
+        planner.onCommandIssued();
+        planner.setDataLength(-1, 2);
+
+        assertEquals(2, planner.getFileLength());
+        assertEquals(1, planner.getPlannedCommands());
+        assertEquals(0, planner.nextLength(2));
+    }
+
+    @Test
+    public void smallerMaximumLengthReplansRemainingCommands() {
+        ReadPlanner planner = new ReadPlanner("NDEF", 2, 1000);
+        planner.onCommandIssued();
+        planner.setDataLength(2400, 1000);
+        assertEquals(3, planner.getPlannedCommands());
+
+        // The second command is rejected and repeated with short length
+        planner.onCommandIssued();
+        planner.setMaxLength(0xE6, 1000);
+
+        assertEquals(2 + 7, planner.getPlannedCommands());
+        assertEquals(0xE6, planner.nextLength(1000));
+        assertEquals(2402 - 1000 - 6 * 0xE6, planner.nextLength(1000 + 6 * 0xE6));
+    }
+
+    @Test
+    public void maximumLengthBeforeFileLengthIsKnown() {
+        ReadPlanner planner = new ReadPlanner("NDEF", 2, 1000);
+        planner.onCommandIssued();
+        planner.setMaxLength(0xE6, 0);
+
+        assertEquals(0, planner.getPlannedCommands());
+        assertEquals(0xE6, planner.nextLength(0));
+    }
+
+    @Test
+    public void issuedCommandsAreCounted() {
+        ReadPlanner planner = new ReadPlanner("NDEF", 2, 0xE6);
+        planner.onCommandIssued();
+        planner.setDataLength(300, 0xE6);
+        planner.onCommandIssued();
+
+        assertEquals(2, planner.getIssuedCommands());
+        assertEquals(planner.getPlannedCommands(), planner.getIssuedCommands());
+        assertEquals("NDEF: 302 bytes, READ BINARY planned 2, issued 2", planner.toString());
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.nfcbpsk.data.nfc.simulator;
+
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Mutual authentication of a simulated tag with a configurable key. The response is the
+ * HMAC-SHA256 of Chip Unique ID, challenge and command data, truncated to the response length.
+ * This is a stand-in for the cryptogram of the product, which is not part of this application;
+ * a test backend configured with the same key can verify the response.
+ */
+public class KeyedMutualAuthenticator implements MutualAuthenticator {
+
+    /**
+     * Length of the command data and of the response of MUTUAL AUTHENTICATE
+     */
+    public static final int COMMAND_DATA_LENGTH = 0x26;
+    public static final int RESPONSE_LENGTH = 0x10;
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final byte[] key;
+
+    /**
+     * Initializes the authenticator
+     *
+     * @param key authentication key of the simulated tag
+     */
+    public KeyedMutualAuthenticator(byte[] key) {
+        if (key == null || key.length == 0) {
+            throw new IllegalArgumentException("Key must not be empty");
+        }
+        this.key = key.clone();
+    }
+
+    @Override
+    public byte[] authenticate(byte[] chipId, byte[] challenge, byte[] commandData) {
+        if (commandData.length != COMMAND_DATA_LENGTH) {
+            return null;
+        }
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(key, ALGORITHM));
+            mac.update(chipId);
+            mac.update(challenge);
+            return Arrays.copyOf(mac.doFinal(commandData), RESPONSE_LENGTH);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Mutual authentication not available", e);
+        }
+    }
+}
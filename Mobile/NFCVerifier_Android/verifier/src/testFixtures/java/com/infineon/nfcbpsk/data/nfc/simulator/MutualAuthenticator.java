@@ -0,0 +1,33 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.nfcbpsk.data.nfc.simulator;
+
+/**
+ * Answers the MUTUAL AUTHENTICATE command of a {@link Type4TagSimulator}
+ */
+public interface MutualAuthenticator {
+
+    /**
+     * Computes the response of the tag to the MUTUAL AUTHENTICATE command
+     *
+     * @param chipId      Chip Unique ID of the simulated tag
+     * @param challenge   challenge returned by the preceding GET CHALLENGE
+     * @param commandData command data of MUTUAL AUTHENTICATE
+     * @return response data, or null if the command data is rejected
+     */
+    byte[] authenticate(byte[] chipId, byte[] challenge, byte[] commandData);
+}
@@ -0,0 +1,536 @@
+/*
+ * Copyright 2022 Infineon Technologies AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.infineon.nfcbpsk.data.nfc.simulator;
+
+import com.infineon.nfcbpsk.data.nfc.ApduTransport;
+
+import java.io.IOException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Software NFC Forum Type 4 tag implementing the commands of the brand verification flow, so
+ * the protocol code can be run, benchmarked and load tested on a plain JVM:
+ * <ul>
+ * <li>SELECT by AID (P1 = 04) and by file ID (P1 = 00)</li>
+ * <li>READ BINARY with offset, or with SFI in P1 and offset in P2, short and extended Le</li>
+ * <li>GET CHALLENGE and MUTUAL AUTHENTICATE, answered by a {@link MutualAuthenticator}</li>
+ * </ul>
+ * The CC, NDEF, ID_INFO, product and service information files are set up with the
+ * {@link Builder}. Every APDU can be delayed by a configurable latency to model the air interface,
+ * a latency beyond the timeout of the transport fails like a lost tag.
+ * A simulator instance models one tag and is not thread-safe.
+ */
+public final class Type4TagSimulator implements ApduTransport {
+
+    /**
+     * AID of the NDEF application as selected by the application
+     */
+    public static final byte[] NDEF_APPLICATION_ID =
+            {(byte) 0xD2, (byte) 0x76, (byte) 0x00, (byte) 0x00, (byte) 0x85, (byte) 0x01, (byte) 0x00};
+
+    /**
+     * File IDs and SFIs of the files of the simulated tag
+     */
+    public static final int CC_FILE_ID = 0xE103;
+    public static final int NDEF_FILE_ID = 0xE104;
+    public static final int ID_INFO_FILE_ID = 0x2FF7;
+    public static final int PRODUCT_INFO_SFI = 0x01;
+    public static final int SERVICE_INFO_SFI = 0x02;
+
+    /**
+     * Offset of the Chip Unique ID in the ID_INFO file
+     */
+    public static final int ID_INFO_CHIP_ID_OFFSET = 0x08;
+
+    private static final int SW_NO_ERROR = 0x9000;
+    private static final int SW_WRONG_LENGTH = 0x6700;
+    private static final int SW_SECURITY_STATUS_NOT_SATISFIED = 0x6982;
+    private static final int SW_CONDITIONS_NOT_SATISFIED = 0x6985;
+    private static final int SW_NO_CURRENT_EF = 0x6986;
+    private static final int SW_FILE_NOT_FOUND = 0x6A82;
+    private static final int SW_WRONG_P1P2 = 0x6B00;
+    private static final int SW_INS_NOT_SUPPORTED = 0x6D00;
+    private static final int SW_CLA_NOT_SUPPORTED = 0x6E00;
+
+    private final byte[] applicationId;
+    private final Map<Integer, byte[]> files;
+    private final Map<Integer, Integer> sfiFileIds;
+    private final byte[] chipId;
+    private final MutualAuthenticator authenticator;
+    private final boolean extendedLengthSupported;
+    private final int maxTransceiveLength;
+    private final byte[] historicalBytes;
+    private final long latencyNanos;
+    private final Random random;
+
+    /**
+     * Timeout of a command in milliseconds, 0 waits for any latency
+     */
+    private int timeout;
+
+    private boolean connected;
+    private boolean applicationSelected;
+    private byte[] currentFile;
+    private byte[] challenge;
+    private long commandCount;
+
+    private Type4TagSimulator(Builder builder) {
+        applicationId = builder.applicationId;
+        files = new HashMap<>(builder.files);
+        sfiFileIds = new HashMap<>(builder.sfiFileIds);
+        chipId = builder.chipId;
+        authenticator = builder.authenticator;
+        extendedLengthSupported = builder.extendedLengthSupported;
+        maxTransceiveLength = builder.maxTransceiveLength;
+        historicalBytes = builder.historicalBytes;
+        latencyNanos = builder.latencyNanos;
+        random = builder.random != null ? builder.random : new SecureRandom();
+        files.put(CC_FILE_ID, createCapabilityContainer(builder.maxReadLength));
+    }
+
+    /**
+     * Creates a builder of a simulated tag
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public void connect() {
+        connected = true;
+        applicationSelected = false;
+        currentFile = null;
+        challenge = null;
+    }
+
+    @Override
+    public void close() {
+        connected = false;
+    }
+
+    @Override
+    public byte[] transceive(byte[] command) throws IOException {
+        if (!connected) {
+            throw new IOException("Tag is not connected");
+        }
+        if (timeout > 0 && latencyNanos > TimeUnit.MILLISECONDS.toNanos(timeout)) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(timeout));
+            throw new IOException("Transceive timed out");
+        }
+        if (latencyNanos > 0) {
+            LockSupport.parkNanos(latencyNanos);
+        }
+        commandCount++;
+        return process(command);
+    }
+
+    @Override
+    public void setTimeout(int timeout) {
+        this.timeout = timeout;
+    }
+
+    @Override
+    public int getTimeout() {
+        return timeout;
+    }
+
+    @Override
+    public boolean isExtendedLengthApduSupported() {
+        return extendedLengthSupported;
+    }
+
+    @Override
+    public int getMaxTransceiveLength() {
+        return maxTransceiveLength;
+    }
+
+    @Override
+    public byte[] getHistoricalBytes() {
+        return historicalBytes == null ? null : historicalBytes.clone();
+    }
+
+    @Override
+    public byte[] getHiLayerResponse() {
+        return null;
+    }
+
+    /**
+     * Returns the number of APDUs processed since the simulator has been created
+     *
+     * @return number of APDUs
+     */
+    public long getCommandCount() {
+        return commandCount;
+    }
+
+    /**
+     * Processes one command APDU
+     *
+     * @param command command APDU
+     * @return response APDU
+     */
+    private byte[] process(byte[] command) {
+        if (command.length < 4) {
+            return status(SW_WRONG_LENGTH);
+        }
+        if (command[0] != 0x00) {
+            return status(SW_CLA_NOT_SUPPORTED);
+        }
+        Apdu apdu = Apdu.parse(command);
+        if (apdu == null || (apdu.extended && !extendedLengthSupported)) {
+            return status(SW_WRONG_LENGTH);
+        }
+        switch (command[1] & 0xFF) {
+            case 0xA4:
+                return select(command[2] & 0xFF, apdu);
+            case 0xB0:
+                return readBinary(command[2] & 0xFF, command[3] & 0xFF, apdu);
+            case 0x84:
+                return getChallenge(apdu);
+            case 0x82:
+                return mutualAuthenticate(apdu);
+            default:
+                return status(SW_INS_NOT_SUPPORTED);
+        }
+    }
+
+    private byte[] select(int p1, Apdu apdu) {
+        if (p1 == 0x04) {
+            applicationSelected = Arrays.equals(apdu.data, applicationId);
+            currentFile = null;
+            return status(applicationSelected ? SW_NO_ERROR : SW_FILE_NOT_FOUND);
+        }
+        if (p1 != 0x00 || apdu.data.length != 2) {
+            return status(SW_WRONG_P1P2);
+        }
+        byte[] file = applicationSelected ? files.get(((apdu.data[0] & 0xFF) << 8) | (apdu.data[1] & 0xFF)) : null;
+        if (file == null) {
+            return status(SW_FILE_NOT_FOUND);
+        }
+        currentFile = file;
+        return status(SW_NO_ERROR);
+    }
+
+    private byte[] readBinary(int p1, int p2, Apdu apdu) {
+        int offset;
+        if ((p1 & 0x80) != 0) {
+            Integer fileId = sfiFileIds.get(p1 & 0x1F);
+            if (!applicationSelected || fileId == null || (p1 & 0x60) != 0) {
+                return status(SW_FILE_NOT_FOUND);
+            }
+            currentFile = files.get(fileId);
+            offset = p2;
+        } else {
+            if (currentFile == null) {
+                return status(SW_NO_CURRENT_EF);
+            }
+            offset = (p1 << 8) | p2;
+        }
+        if (offset > currentFile.length) {
+            return status(SW_WRONG_P1P2);
+        }
+        int length = Math.min(Math.min(apdu.ne, currentFile.length - offset), maxTransceiveLength - 2);
+        return response(currentFile, offset, length, SW_NO_ERROR);
+    }
+
+    private byte[] getChallenge(Apdu apdu) {
+        if (apdu.ne == 0) {
+            return status(SW_WRONG_LENGTH);
+        }
+        challenge = new byte[apdu.ne];
+        random.nextBytes(challenge);
+        return response(challenge, 0, challenge.length, SW_NO_ERROR);
+    }
+
+    private byte[] mutualAuthenticate(Apdu apdu) {
+        if (challenge == null) {
+            return status(SW_CONDITIONS_NOT_SATISFIED);
+        }
+        byte[] usedChallenge = challenge;
+        challenge = null;
+        if (authenticator == null) {
+            return status(SW_CONDITIONS_NOT_SATISFIED);
+        }
+        byte[] result = authenticator.authenticate(chipId.clone(), usedChallenge, apdu.data);
+        if (result == null) {
+            return status(SW_SECURITY_STATUS_NOT_SATISFIED);
+        }
+        return response(result, 0, result.length, SW_NO_ERROR);
+    }
+
+    private static byte[] status(int sw) {
+        return new byte[]{(byte) (sw >> 8), (byte) sw};
+    }
+
+    private static byte[] response(byte[] data, int offset, int length, int sw) {
+        byte[] response = new byte[length + 2];
+        System.arraycopy(data, offset, response, 0, length);
+        response[length] = (byte) (sw >> 8);
+        response[length + 1] = (byte) sw;
+        return response;
+    }
+
+    /**
+     * Creates the CC file describing the NDEF file
+     *
+     * @param maxReadLength MLe of the tag
+     * @return content of the CC file
+     */
+    private byte[] createCapabilityContainer(int maxReadLength) {
+        byte[] ndef = files.get(NDEF_FILE_ID);
+        int ndefFileSize = ndef == null ? 0 : ndef.length;
+        return new byte[]{
+                0x00, 0x0F,                                               // CCLEN
+                0x20,                                                     // mapping version 2.0
+                (byte) (maxReadLength >> 8), (byte) maxReadLength,        // MLe
+                0x00, (byte) 0xFF,                                        // MLc
+                0x04, 0x06,                                               // NDEF file control TLV
+                (byte) (NDEF_FILE_ID >> 8), (byte) NDEF_FILE_ID,
+                (byte) (ndefFileSize >> 8), (byte) ndefFileSize,
+                0x00, (byte) 0xFF                                         // read access, no write access
+        };
+    }
+
+    /**
+     * Parsed body of a command APDU
+     */
+    private static final class Apdu {
+        private static final byte[] NO_DATA = new byte[0];
+
+        byte[] data = NO_DATA;
+        int ne;
+        boolean extended;
+
+        /**
+         * Parses the body of the command
+         *
+         * @param command command APDU
+         * @return parsed body, null if the length fields are inconsistent
+         */
+        static Apdu parse(byte[] command) {
+            Apdu apdu = new Apdu();
+            int length = command.length;
+            if (length == 4) {
+                return apdu;
+            }
+            int b = command[4] & 0xFF;
+            if (length == 5) {
+                apdu.ne = b == 0 ? 256 : b;
+                return apdu;
+            }
+            if (b != 0) {
+                if (length == 5 + b || length == 6 + b) {
+                    apdu.data = Arrays.copyOfRange(command, 5, 5 + b);
+                    if (length == 6 + b) {
+                        int le = command[length - 1] & 0xFF;
+                        apdu.ne = le == 0 ? 256 : le;
+                    }
+                    return apdu;
+                }
+                return null;
+            }
+            apdu.extended = true;
+            if (length == 7) {
+                int le = ((command[5] & 0xFF) << 8) | (command[6] & 0xFF);
+                apdu.ne = le == 0 ? 65536 : le;
+                return apdu;
+            }
+            int lc = ((command[5] & 0xFF) << 8) | (command[6] & 0xFF);
+            if (lc == 0 || (length != 7 + lc && length != 9 + lc)) {
+                return null;
+            }
+            apdu.data = Arrays.copyOfRange(command, 7, 7 + lc);
+            if (length == 9 + lc) {
+                int le = ((command[length - 2] & 0xFF) << 8) | (command[length - 1] & 0xFF);
+                apdu.ne = le == 0 ? 65536 : le;
+            }
+            return apdu;
+        }
+    }
+
+    /**
+     * Builder of a simulated tag
+     */
+    public static final class Builder {
+        private byte[] applicationId = NDEF_APPLICATION_ID;
+        private final Map<Integer, byte[]> files = new HashMap<>();
+        private final Map<Integer, Integer> sfiFileIds = new HashMap<>();
+        private byte[] chipId = new byte[16];
+        private MutualAuthenticator authenticator;
+        private boolean extendedLengthSupported;
+        private int maxReadLength = 0xFF;
+        private int maxTransceiveLength = 261;
+        private byte[] historicalBytes;
+        private long latencyNanos;
+        private Random random;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the AID of the NDEF application, {@link #NDEF_APPLICATION_ID} by default
+         *
+         * @param applicationId application identifier
+         * @return this builder
+         */
+        public Builder applicationId(byte[] applicationId) {
+            this.applicationId = applicationId.clone();
+            return this;
+        }
+
+        /**
+         * Sets the NDEF message, stored with its NLEN field in the NDEF file
+         *
+         * @param ndefMessage encoded NDEF message
+         * @param sfi         SFI of the NDEF file, or 0 if it is only accessible by file ID
+         * @return this builder
+         */
+        public Builder ndefMessage(byte[] ndefMessage, int sfi) {
+            byte[] file = new byte[ndefMessage.length + 2];
+            file[0] = (byte) (ndefMessage.length >> 8);
+            file[1] = (byte) ndefMessage.length;
+            System.arraycopy(ndefMessage, 0, file, 2, ndefMessage.length);
+            return file(NDEF_FILE_ID, sfi, file);
+        }
+
+        /**
+         * Sets the Chip Unique ID stored in the ID_INFO file
+         *
+         * @param chipId Chip Unique ID of 16 bytes
+         * @param sfi    SFI of the ID_INFO file, or 0 if it is only accessible by file ID
+         * @return this builder
+         */
+        public Builder chipId(byte[] chipId, int sfi) {
+            this.chipId = chipId.clone();
+            byte[] file = new byte[ID_INFO_CHIP_ID_OFFSET + chipId.length];
+            System.arraycopy(chipId, 0, file, ID_INFO_CHIP_ID_OFFSET, chipId.length);
+            return file(ID_INFO_FILE_ID, sfi, file);
+        }
+
+        /**
+         * Sets the content of the product information file, accessible by SFI
+         *
+         * @param productInformation encoded product information
+         * @return this builder
+         */
+        public Builder productInformation(byte[] productInformation) {
+            return file(0x10000 | PRODUCT_INFO_SFI, PRODUCT_INFO_SFI, productInformation);
+        }
+
+        /**
+         * Sets the content of the service information file, accessible by SFI
+         *
+         * @param serviceInformation encoded service information
+         * @return this builder
+         */
+        public Builder serviceInformation(byte[] serviceInformation) {
+            return file(0x10000 | SERVICE_INFO_SFI, SERVICE_INFO_SFI, serviceInformation);
+        }
+
+        /**
+         * Adds a file
+         *
+         * @param fileId  file ID, values above 0xFFFF make the file accessible by SFI only
+         * @param sfi     SFI of the file, or 0 if it is only accessible by file ID
+         * @param content content of the file
+         * @return this builder
+         */
+        public Builder file(int fileId, int sfi, byte[] content) {
+            files.put(fileId, content.clone());
+            if (sfi != 0) {
+                sfiFileIds.put(sfi, fileId);
+            }
+            return this;
+        }
+
+        /**
+         * Sets the answer to MUTUAL AUTHENTICATE, which is rejected if none is set
+         *
+         * @param authenticator mutual authentication of the tag, e.g. {@link KeyedMutualAuthenticator}
+         * @return this builder
+         */
+        public Builder mutualAuthenticator(MutualAuthenticator authenticator) {
+            this.authenticator = authenticator;
+            return this;
+        }
+
+        /**
+         * Sets the MLe of the CC file and the transceive limits of the simulated reader
+         *
+         * @param maxReadLength           MLe of the tag
+         * @param maxTransceiveLength     maximum command or response length
+         * @param extendedLengthSupported true if extended length APDUs are accepted
+         * @return this builder
+         */
+        public Builder limits(int maxReadLength, int maxTransceiveLength, boolean extendedLengthSupported) {
+            this.maxReadLength = maxReadLength;
+            this.maxTransceiveLength = maxTransceiveLength;
+            this.extendedLengthSupported = extendedLengthSupported;
+            return this;
+        }
+
+        /**
+         * Sets the historical bytes identifying the tag type
+         *
+         * @param historicalBytes historical bytes of the ATS
+         * @return this builder
+         */
+        public Builder historicalBytes(byte[] historicalBytes) {
+            this.historicalBytes = historicalBytes.clone();
+            return this;
+        }
+
+        /**
+         * Sets the time every APDU takes
+         *
+         * @param latencyNanos latency per APDU in nanoseconds
+         * @return this builder
+         */
+        public Builder latencyNanos(long latencyNanos) {
+            this.latencyNanos = latencyNanos;
+            return this;
+        }
+
+        /**
+         * Sets the source of the challenges, e.g. a seeded random for reproducible runs
+         *
+         * @param random source of the challenges
+         * @return this builder
+         */
+        public Builder random(Random random) {
+            this.random = random;
+            return this;
+        }
+
+        /**
+         * Builds the simulated tag
+         *
+         * @return the simulated tag
+         */
+        public Type4TagSimulator build() {
+            return new Type4TagSimulator(this);
+        }
+    }
+}